@@ -0,0 +1,171 @@
+package Benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import CodeGenBasic.CodeGenBasic;
+import Interfaces.AST;
+import Interfaces.ParseNode;
+import Interfaces.ParseTree;
+import Interfaces.SyntaxTreeNode;
+import Interfaces.Token;
+import Lexer.DFALexer;
+import Parser.Parser;
+import ScopeAnalyzer.ScopeAnalyzer;
+import TypeChecker.TypeChecker;
+import Utils.ASTBuilder;
+import Utils.ProgramGenerator;
+import Utils.SyntaxTreeBuilder;
+import Utils.SyntaxTreeParser;
+import Utils.XMLGenerator;
+
+/**
+ * Times each compiler phase on its own and the whole pipeline end to end.
+ * The inputs of a phase are built once per trial from the output of the
+ * phases before it, so a phase benchmark only measures that phase.
+ *
+ * Inputs are the example programs and generated programs, "synthetic-N" has
+ * N functions. The sizes stay modest because parser.xml indents every list
+ * link one level deeper, so the XML phases grow with the square of the
+ * program length. ScalingBenchmark covers the large inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhaseBenchmark {
+    @Param({ "example2.spl", "example3.spl", "example4.spl", "example5.spl", "example6.spl", "example7.spl",
+            "synthetic-10", "synthetic-50", "synthetic-250" })
+    public String input;
+
+    private String source;
+    private List<Token> tokens;
+    private ParseTree parseTree;
+    private Path parserXML;
+    private SyntaxTreeNode syntaxTree;
+    private Utils.Scope globalScope;
+    private AST.Prog prog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        source = load(input);
+        tokens = new DFALexer(source, input).scanTokens();
+        parseTree = new Parser(tokens).parseTree();
+
+        parserXML = Files.createTempFile("parser", ".xml");
+        Files.writeString(parserXML, XMLGenerator.generatePARSERXML(parseTree));
+
+        syntaxTree = new SyntaxTreeBuilder().build(parseTree);
+        ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+        scopeAnalyzer.analyze(syntaxTree);
+        if (!scopeAnalyzer.getErrors().isEmpty()) {
+            throw new IllegalStateException(input + " does not pass scope analysis: " + scopeAnalyzer.getErrors());
+        }
+        globalScope = scopeAnalyzer.getGlobalScope();
+        // lowered after the analysis bound the names, as App does
+        prog = ASTBuilder.build(parseTree);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(parserXML);
+    }
+
+    @Benchmark
+    public List<Token> lexer() {
+        return new DFALexer(source, input).scanTokens();
+    }
+
+    @Benchmark
+    public ParseNode parser() {
+        return new Parser(tokens).parse();
+    }
+
+    // the compact tree App uses, without building the ParseNode objects
+    @Benchmark
+    public ParseTree parserCompact() {
+        return new Parser(tokens).parseTree();
+    }
+
+    @Benchmark
+    public String lexerXML() {
+        return XMLGenerator.generateLEXERXML(tokens);
+    }
+
+    @Benchmark
+    public String parserXML() {
+        return XMLGenerator.generatePARSERXML(parseTree);
+    }
+
+    @Benchmark
+    public SyntaxTreeNode syntaxTreeParser() {
+        return new SyntaxTreeParser().parse(parserXML.toString());
+    }
+
+    @Benchmark
+    public Utils.Scope scopeAnalyzer() {
+        ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+        scopeAnalyzer.analyze(syntaxTree);
+        return scopeAnalyzer.getGlobalScope();
+    }
+
+    @Benchmark
+    public boolean typeChecker() {
+        return new TypeChecker(globalScope).typecheck(syntaxTree);
+    }
+
+    @Benchmark
+    public String codeGen() {
+        return new CodeGenBasic(prog).generateCode();
+    }
+
+    // source to BASIC through every phase, with the XML round trip the compiler used to make
+    @Benchmark
+    public String endToEnd() {
+        List<Token> tokens = new DFALexer(source, input).scanTokens();
+        XMLGenerator.generateLEXERXML(tokens);
+
+        ParseTree pt = new Parser(tokens).parseTree();
+        XMLGenerator.generatePARSERXML(pt);
+
+        SyntaxTreeNode st = new SyntaxTreeBuilder().build(pt);
+        ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+        scopeAnalyzer.analyze(st);
+        new TypeChecker(scopeAnalyzer.getGlobalScope()).typecheck(st);
+
+        return new CodeGenBasic(ASTBuilder.build(pt)).generateCode();
+    }
+
+    // a generated program, or an example file looked up from the project root or this module
+    private static String load(String input) throws IOException {
+        if (input.startsWith("synthetic-")) {
+            ProgramGenerator generator = new ProgramGenerator(42);
+            generator.functions = Integer.parseInt(input.substring("synthetic-".length()));
+            return generator.generate();
+        }
+        Path path = Path.of("examples", input);
+        if (!Files.exists(path)) {
+            path = Path.of("..", "examples", input);
+        }
+        return Files.readString(path);
+    }
+}
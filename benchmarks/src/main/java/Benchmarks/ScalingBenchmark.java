@@ -0,0 +1,116 @@
+package Benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import CodeGenBasic.CodeGenBasic;
+import Interfaces.AST;
+import Interfaces.ParseTree;
+import Interfaces.SyntaxTreeNode;
+import Interfaces.Token;
+import Lexer.DFALexer;
+import Parser.Parser;
+import ScopeAnalyzer.ScopeAnalyzer;
+import TypeChecker.TypeChecker;
+import Utils.ASTBuilder;
+import Utils.ProgramGenerator;
+import Utils.SyntaxTreeBuilder;
+
+/**
+ * Throughput and memory of the in-memory phases from 1 KB to 100 MB of
+ * source, on programs from {@link ProgramGenerator}. Divide the source size
+ * by the time for throughput, the GC profiler's gc.alloc.rate.norm gives the
+ * bytes allocated per compile. The XML phases are left out, their output
+ * grows with the square of the input.
+ *
+ * The largest inputs need a big heap, e.g. -jvmArgsAppend -Xmx16g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScalingBenchmark {
+    @Param({ "1024", "102400", "1048576", "10485760", "104857600" })
+    public long bytes;
+
+    private String source;
+    private List<Token> tokens;
+    private ParseTree parseTree;
+    private SyntaxTreeNode syntaxTree;
+    private Utils.Scope globalScope;
+    private AST.Prog prog;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = new ProgramGenerator(42).sized(bytes).generate();
+        tokens = new DFALexer(source, "synthetic").scanTokens();
+        parseTree = new Parser(tokens).parseTree();
+        syntaxTree = new SyntaxTreeBuilder().build(parseTree);
+
+        ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+        scopeAnalyzer.analyze(syntaxTree);
+        globalScope = scopeAnalyzer.getGlobalScope();
+        // lowered after the analysis bound the names, as App does
+        prog = ASTBuilder.build(parseTree);
+    }
+
+    @Benchmark
+    public List<Token> lexer() {
+        return new DFALexer(source, "synthetic").scanTokens();
+    }
+
+    @Benchmark
+    public ParseTree parser() {
+        return new Parser(tokens).parseTree();
+    }
+
+    @Benchmark
+    public SyntaxTreeNode syntaxTreeBuilder() {
+        return new SyntaxTreeBuilder().build(parseTree);
+    }
+
+    @Benchmark
+    public Utils.Scope scopeAnalyzer() {
+        ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+        scopeAnalyzer.analyze(syntaxTree);
+        return scopeAnalyzer.getGlobalScope();
+    }
+
+    @Benchmark
+    public boolean typeChecker() {
+        return new TypeChecker(globalScope).typecheck(syntaxTree);
+    }
+
+    @Benchmark
+    public String codeGen() {
+        return new CodeGenBasic(prog).generateCode();
+    }
+
+    @Benchmark
+    public String endToEnd() {
+        List<Token> tokens = new DFALexer(source, "synthetic").scanTokens();
+        ParseTree pt = new Parser(tokens).parseTree();
+
+        SyntaxTreeNode st = new SyntaxTreeBuilder().build(pt);
+        ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+        scopeAnalyzer.analyze(st);
+        new TypeChecker(scopeAnalyzer.getGlobalScope()).typecheck(st);
+
+        return new CodeGenBasic(ASTBuilder.build(pt)).generateCode();
+    }
+}
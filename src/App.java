@@ -1,57 +1,76 @@
-import java.util.List;
-
 import CodeGenBasic.CodeGenBasic;
-import Interfaces.ParseNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import Interfaces.ParseTree;
 import Interfaces.SyntaxTreeNode;
-import Interfaces.Token;
-import Lexer.Lexer;
+import Interfaces.TokenBuffer;
+import Lexer.ParallelLexer;
 import Parser.Parser;
 import ScopeAnalyzer.ScopeAnalyzer;
 import TypeChecker.TypeChecker;
+import Utils.ASTBuilder;
 import Utils.FileManager;
 import Utils.Scope;
-import Utils.SyntaxTreeParser;
+import Utils.SyntaxTreeBuilder;
 import Utils.XMLGenerator;
 
 public class App {
     public static void main(String[] args) throws Exception {
         // receive file path from command line arguments
         // example: java App src/test.txt
-        String path;
-
-        if (args.length != 1) {
-            path = "input/main.spl";
-        } else {
-            path = args[0];
+        // pass --no-xml to skip writing out/lexer.xml and out/parser.xml
+        String path = "input/main.spl";
+        boolean writeXML = true;
+
+        for (String arg : args) {
+            if (arg.equals("--no-xml")) {
+                writeXML = false;
+            } else {
+                path = arg;
+            }
         }
 
-        // read file contents
-        String contents = FileManager.readFileAndReturnContents(path);
+        // map the file, the lexer scans its bytes in place
+        CharSequence contents = FileManager.mapFile(path);
+        if (contents == null) {
+            return;
+        }
 
         try {
-            Lexer lexer = new Lexer(contents, path);
-            List<Token> tokens = lexer.scanTokens();
-
-            String xmllex = XMLGenerator.generateLEXERXML(tokens);
-            FileManager.createAndWriteFile("out/lexer.xml", xmllex);
+            // lexer and parser record their errors and carry on, so one compile reports all of them
+            ParallelLexer lexer = new ParallelLexer(contents, path);
+            lexer.setRecovery(true);
+            TokenBuffer tokens = lexer.scanTokenBuffer();
+            List<String> errors = new ArrayList<>(lexer.getErrors());
+
+            if (errors.isEmpty()) {
+                if (writeXML) {
+                    FileManager.createAndWriteFile("out/lexer.xml", out -> XMLGenerator.writeLEXERXML(tokens, out));
+                }
 
-            System.out.println("Lexing Competed Successfully");
+                System.out.println("Lexing Competed Successfully");
+            }
 
             Parser parser = new Parser(tokens);
-            ParseNode pt = parser.parse();
+            parser.setRecovery(true);
+            parser.setPool(ForkJoinPool.commonPool());
+            ParseTree pt = parser.parseTree();
+            errors.addAll(parser.getErrors());
 
-            String xmlparse = XMLGenerator.generatePARSERXML(pt);
-            FileManager.createAndWriteFile("out/parser.xml", xmlparse);
+            if (!errors.isEmpty()) {
+                throw new Exception(String.join("", errors));
+            }
 
-            System.out.println("Parsing Completed Successfully");
+            if (writeXML) {
+                FileManager.createAndWriteFile("out/parser.xml", out -> XMLGenerator.writePARSERXML(pt, out));
+            }
 
-            SyntaxTreeParser stp = new SyntaxTreeParser();
-            SyntaxTreeNode st = stp.parse("out/parser.xml");
+            System.out.println("Parsing Completed Successfully");
 
-            if (st == null) {
-                System.err.println("Failed to parse syntax tree.");
-                return;
-            }
+            // the syntax tree is lowered in memory, parser.xml is only an artifact
+            SyntaxTreeBuilder stb = new SyntaxTreeBuilder();
+            SyntaxTreeNode st = stb.build(pt);
 
             ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
             scopeAnalyzer.analyze(st);
@@ -74,8 +93,9 @@ public class App {
 
             System.out.println("Type checking passed.");
 
-            CodeGenBasic cgb = new CodeGenBasic(pt);
-            FileManager.writeBasicCode("out/basic.bas", cgb.generateCode());
+            // scope analysis bound the names on the parse tree's tokens, the AST shares them
+            CodeGenBasic cgb = new CodeGenBasic(ASTBuilder.build(pt));
+            FileManager.createAndWriteFile("out/basic.bas", cgb.generateCode());
 
             System.out.println("Code Generation Completed Successfully");
         } catch (Exception e) {
@@ -1,30 +1,25 @@
 package CodeGenBasic;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
-import Interfaces.ParseNode;
-import Interfaces.ParseType;
+import Interfaces.AST;
+import Interfaces.SymbolTableEntry;
+import Interfaces.Token;
 import Interfaces.TokenType;
+import Interfaces.ValueType;
 
-class SymbolTables{
-    public HashMap<String, String> numvtable = new HashMap<>();
-    public HashMap<String, String> textvtable = new HashMap<>();
-    public List<String> ftableArgs = new ArrayList<>();
-    public HashMap<String, String> fnumvtable = new HashMap<>();
-    public HashMap<String, String> ftextvtable = new HashMap<>();
-}
-
+/**
+ * Generates BASIC from the AST. A variable's kind comes from the symbol
+ * table entry scope analysis bound to its name token, so the names of the
+ * program must have been analysed before it is lowered to the AST.
+ */
 public class CodeGenBasic {
-    ParseNode pt;
+    AST.Prog prog;
     int line = 0;
-    SymbolTables st = new SymbolTables();
 
-    public CodeGenBasic(ParseNode pt) {
-        this.pt = pt;
+    public CodeGenBasic(AST.Prog prog) {
+        this.prog = prog;
         line = 0;
-        // assign vtable and ftable
     }
 
     private String Line(){
@@ -36,117 +31,110 @@ public class CodeGenBasic {
         StringBuilder sb = new StringBuilder();
 
         // GLOBVARS
-        sb.append(generateBasicGlobalVariables(pt.children.get(1), ""));
+        sb.append(generateBasicGlobalVariables(prog.globals(), ""));
 
         // ALGO
-        sb.append(generateBasicAlgo(pt.children.get(2), ""));
+        sb.append(generateBasicAlgo(prog.algo(), ""));
 
         // FUNCTIONS
-        sb.append(generateBasicFunctions(pt.children.get(3), ""));
+        sb.append(generateBasicFunctions(prog.functions(), ""));
 
         // add final END statement
         return sb.append(Line()).append(" END\n").toString();
     }
 
-    private String generateBasicGlobalVariables(ParseNode gbvars, String indent){
+    private String generateBasicGlobalVariables(List<AST.VarDecl> gbvars, String indent){
         // expected: GLOBVARS := VTYPE VNAME , GLOBVARS | ε
         // equivalent BASIC syntax code: LN LET VNAME = 0
-        if(gbvars.children.isEmpty()){
-            return "";
+        StringBuilder sb = new StringBuilder();
+
+        for(int i = 0; i < gbvars.size(); i++){
+            AST.VarDecl gbvar = gbvars.get(i);
+            // ensure that the variable is not already declared, scope analysis leaves a redeclaration unbound
+            if(gbvar.name().entry == null && declaredTwice(gbvars, i)){
+                throw new IllegalArgumentException("Variable " + gbvar.name().Value + " already declared");
+            }
+            generateBasicGlobalVariable(gbvar, indent, sb);
         }
 
-        StringBuilder sb = new StringBuilder();
+        return sb.toString();
+    }
+
+    private boolean declaredTwice(List<AST.VarDecl> gbvars, int index){
+        AST.VarDecl gbvar = gbvars.get(index);
+        for(int i = 0; i < gbvars.size(); i++){
+            if(i != index && gbvars.get(i).type() == gbvar.type() && gbvars.get(i).name().Value.equals(gbvar.name().Value)){
+                return true;
+            }
+        }
+        return false;
+    }
 
-        ParseNode vtype = gbvars.children.get(0);
-        ParseNode vname = gbvars.children.get(1);
+    private void generateBasicGlobalVariable(AST.VarDecl gbvar, String indent, StringBuilder sb){
+        String vname = gbvar.name().Value;
 
-        if(null == vtype.token.type){
-            throw new IllegalArgumentException("Unexpected value: " + vtype.token.type);
-        } else switch (vtype.token.type) {
+        switch (gbvar.type()) {
             case NUM -> {
-                sb.append(Line()).append(indent).append(" LET ").append(vname.token.Value).append(" = 0\n");
-                // ensure that the variable is not already declared
-                if(st.numvtable.containsKey(vname.token.Value)){
-                    throw new IllegalArgumentException("Variable " + vname.token.Value + " already declared");
-                }
-                st.numvtable.put(vname.token.Value, vname.token.Value);
+                sb.append(Line()).append(indent).append(" LET ").append(vname).append(" = 0\n");
             }
             case VTEXT -> {
-                sb.append(Line()).append(indent).append(" LET ").append(vname.token.Value).append("$ = \"\"\n");
-                // ensure that the variable is not already declared
-                if(st.textvtable.containsKey(vname.token.Value)){
-                    throw new IllegalArgumentException("Variable " + vname.token.Value + " already declared");
-                }
-                st.textvtable.put(vname.token.Value, vname.token.Value);
+                sb.append(Line()).append(indent).append(" LET ").append(vname).append("$ = \"\"\n");
             }
-            default -> throw new IllegalArgumentException("Unexpected value: " + vtype.token.type);
-        }
-
-        if(gbvars.children.size() > 3){
-            sb.append(generateBasicGlobalVariables(gbvars.children.get(3), indent));
+            default -> throw new IllegalArgumentException("Unexpected value: " + gbvar.type());
         }
-
-        return sb.toString();
     }
 
-    private String generateBasicAlgo(ParseNode algo, String indent){
+    private String generateBasicAlgo(AST.Algo algo, String indent){
         // expected: ALGO := begin INSTRUC end
         // ignore begin and end
-        return generateBasicInstruc(algo.children.get(1), indent);
+        return generateBasicInstruc(algo.instructions(), indent);
     }
 
-    private String generateBasicFunctions(ParseNode functions, String indent){
+    private String generateBasicFunctions(List<AST.Decl> functions, String indent){
         // expected: FUNCTIONS := DECL FUNCTIONS | ε
-        if(functions.children.isEmpty()){
-            return "";
-        }
-        
         StringBuilder sb = new StringBuilder();
 
-        sb.append(Line()).append("\n");
-        
-        sb.append(generateBasicDecl(functions.children.get(0), indent));
+        for(AST.Decl decl : functions){
+            sb.append(Line()).append("\n");
 
-        if(functions.children.size() > 1){
-            sb.append(generateBasicFunctions(functions.children.get(1), indent));
+            sb.append(generateBasicDecl(decl, indent));
         }
 
         return sb.toString();
     }
 
-    private String generateBasicDecl(ParseNode decl, String indent){
+    private String generateBasicDecl(AST.Decl decl, String indent){
         // expected: DECL := HEADER BODY
         StringBuilder sb = new StringBuilder();
 
-        sb.append(Line()).append(" ").append(generateBasicHeader(decl.children.get(0), indent));
-        sb.append(generateBasicBody(decl.children.get(1), indent));
+        sb.append(Line()).append(" ").append(generateBasicHeader(decl.header(), indent));
+        sb.append(generateBasicBody(decl.body(), indent));
 
         return sb.toString();
     }
 
-    private String generateBasicHeader(ParseNode header, String indent){
+    private String generateBasicHeader(AST.Header header, String indent){
         // expected: HEADER := FTYPE FNAME ( ARG1, ARG2, ARG3 )
         // equivalent BASIC syntax code: SUB FNAME(ARG1, ARG2, ARG3)
         StringBuilder sb = new StringBuilder();
 
         sb.append(indent);
         sb.append("SUB ");
-        sb.append(header.children.get(1).token.Value);
+        sb.append(header.name().Value);
         sb.append("(");
-        sb.append(header.children.get(3).token.Value);
-        st.ftableArgs.add(header.children.get(3).token.Value);
-        sb.append(", ");
-        sb.append(header.children.get(5).token.Value);
-        st.ftableArgs.add(header.children.get(5).token.Value);
-        sb.append(", ");
-        sb.append(header.children.get(7).token.Value);
-        st.ftableArgs.add(header.children.get(7).token.Value);
+        for(int i = 0; i < header.params().size(); i++){
+            String param = header.params().get(i).Value;
+            if(i > 0){
+                sb.append(", ");
+            }
+            sb.append(param);
+        }
         sb.append(")\n");
 
         return sb.toString();
     }
 
-    private String generateBasicBody(ParseNode body, String indent){
+    private String generateBasicBody(AST.Body body, String indent){
         // expected: BODY := { locvars algo } subfunctions end
         // equivalent BASIC syntax code:
         // LN LOCAL VNAME1, VNAME2
@@ -156,72 +144,48 @@ public class CodeGenBasic {
 
         StringBuilder sb = new StringBuilder();
 
-        sb.append(Line()).append(indent).append("\t").append(generateBasicLocvars(body.children.get(1)));
+        sb.append(Line()).append(indent).append("\t").append(generateBasicLocvars(body.locals()));
 
-        sb.append(generateBasicAlgo(body.children.get(2), indent + "\t"));
+        sb.append(generateBasicAlgo(body.algo(), indent + "\t"));
 
         sb.append(Line()).append(indent).append(" ").append("END SUB\n");
 
-        st.ftableArgs.clear();
-        st.fnumvtable.clear();
-        st.ftextvtable.clear();
-
-        if(body.children.get(4).token == null){
-            sb.append(generateBasicFunctions(body.children.get(4), indent));
-        }
+        sb.append(generateBasicFunctions(body.functions(), indent));
 
         return sb.toString();
     }
 
-    private String generateBasicLocvars(ParseNode locvars){
+    private String generateBasicLocvars(List<AST.VarDecl> locvars){
         // expected: LOCVARS := VTYPE VNAME , VTYPE VNAME , VTYPE VNAME ,
         // equivalent BASIC syntax code: LN LOCAL VNAME1, VNAME2, VNAME3
         StringBuilder sb = new StringBuilder();
 
         sb.append(" LOCAL ");
-        if(locvars.children.get(0).token.type == TokenType.NUM){
-            st.fnumvtable.put(locvars.children.get(1).token.Value, locvars.children.get(1).token.Value);
-        } else if(locvars.children.get(0).token.type == TokenType.VTEXT){
-            st.ftextvtable.put(locvars.children.get(1).token.Value, locvars.children.get(1).token.Value);
-        }
-        sb.append(locvars.children.get(1).token.Value);
-        sb.append(", ");
-        if(locvars.children.get(3).token.type == TokenType.NUM){
-            st.fnumvtable.put(locvars.children.get(4).token.Value, locvars.children.get(4).token.Value);
-        } else if(locvars.children.get(3).token.type == TokenType.VTEXT){
-            st.ftextvtable.put(locvars.children.get(4).token.Value, locvars.children.get(4).token.Value);
-        }
-        sb.append(locvars.children.get(4).token.Value);
-        sb.append(", ");
-        if(locvars.children.get(6).token.type == TokenType.NUM){
-            st.fnumvtable.put(locvars.children.get(7).token.Value, locvars.children.get(7).token.Value);
-        } else if(locvars.children.get(6).token.type == TokenType.VTEXT){
-            st.ftextvtable.put(locvars.children.get(7).token.Value, locvars.children.get(7).token.Value);
+        for(int i = 0; i < locvars.size(); i++){
+            AST.VarDecl locvar = locvars.get(i);
+            String vname = locvar.name().Value;
+            if(i > 0){
+                sb.append(", ");
+            }
+            sb.append(vname);
         }
-        sb.append(locvars.children.get(7).token.Value);
         sb.append("\n");
 
         return sb.toString();
     }
 
-    private String generateBasicInstruc(ParseNode instruc, String indent){
+    private String generateBasicInstruc(List<AST.Command> instruc, String indent){
         // expected: INSTRUC := COMMAND ; INSTRUC | ε
-        if(instruc.children.isEmpty()){
-            return "";
-        }
-
         StringBuilder sb = new StringBuilder();
 
-        sb.append(generateBasicCommand(instruc.children.get(0), indent));
-
-        if(instruc.children.size() > 2){
-            sb.append(generateBasicInstruc(instruc.children.get(2), indent));
+        for(AST.Command command : instruc){
+            sb.append(generateBasicCommand(command, indent));
         }
 
         return sb.toString();
     }
 
-    private String generateBasicCommand(ParseNode command, String indent){
+    private String generateBasicCommand(AST.Command command, String indent){
         // expected: COMMAND := skip | halt | print ATOMIC | ASSIGN | CALL | BRANCH
         // equivalent BASIC syntax code:
         // skip: LN GOTO LN+10
@@ -233,128 +197,107 @@ public class CodeGenBasic {
 
         StringBuilder sb = new StringBuilder();
 
-        if(command.children.get(0).type == ParseType.TERMINAL){
-            switch(command.children.get(0).token.type){
-                case TokenType.SKIP -> sb.append(Line()).append(indent).append(" GOTO ").append(this.line + 10).append("\n");
-                case TokenType.HALT -> sb.append(Line()).append(indent).append(" END\n");
-                case TokenType.PRINT -> {
-                    sb.append(Line()).append(indent).append(" PRINT ");
-                    sb.append(generateBasicAtomic(command.children.get(1)));
-                    sb.append("\n");
-                }
-                case TokenType.RETURN -> {
-                    sb.append(Line()).append(indent).append(" RETURN ");
-                    sb.append(generateBasicAtomic(command.children.get(1)));
-                    sb.append("\n");
-                }
-                default -> throw new IllegalArgumentException("Unexpected value: " + command.children.get(0).token.type);
+        switch(command){
+            case AST.Skip skip -> sb.append(Line()).append(indent).append(" GOTO ").append(this.line + 10).append("\n");
+            case AST.Halt halt -> sb.append(Line()).append(indent).append(" END\n");
+            case AST.Print print -> {
+                sb.append(Line()).append(indent).append(" PRINT ");
+                sb.append(generateBasicAtomic(print.value()));
+                sb.append("\n");
             }
-        }else{
-            switch(command.children.get(0).nonterminalname){
-                case "ASSIGN" -> {
-                    sb.append(generateBasicAssign(command.children.get(0), indent));
-                }
-                case "CALL" -> {
-                    sb.append(generateBasicCall(command.children.get(0), indent));
-                }
-                case "BRANCH" -> {
-                    sb.append(generateBasicBranch(command.children.get(0), indent));
-                }
-                default -> throw new IllegalArgumentException("Unexpected value: " + command.children.get(0).nonterminalname);
+            case AST.Return ret -> {
+                sb.append(Line()).append(indent).append(" RETURN ");
+                sb.append(generateBasicAtomic(ret.value()));
+                sb.append("\n");
             }
+            case AST.Assign assign -> sb.append(generateBasicAssign(assign, indent));
+            case AST.Input input -> sb.append(generateBasicInput(input, indent));
+            case AST.Call call -> sb.append(generateBasicCall(call, indent));
+            case AST.Branch branch -> sb.append(generateBasicBranch(branch, indent));
         }
 
         return sb.toString();
     }
 
-    private String generateBasicAtomic(ParseNode atomic){
+    private String generateBasicAtomic(AST.Atomic atomic){
         // expected: ATOMIC := VNAME | CONST
-        if(atomic.children.get(0).token.type == TokenType.VNAME){
-            return generateBasicVname(atomic);
-        }else{
-            return geneareBasicConst(atomic);
-        }
+        return switch(atomic){
+            case AST.Var var -> generateBasicVname(var.name());
+            case AST.Const constant -> geneareBasicConst(constant);
+        };
     }
 
-    private String generateBasicAssign(ParseNode assign, String indent){
+    private String generateBasicAssign(AST.Assign assign, String indent){
         // expected: ASSIGN := VNAME = EXPR
         // equivalent BASIC syntax code: LN VNAME = EXPR
         StringBuilder sb = new StringBuilder();
 
         sb.append(Line()).append(indent).append(" ");
-        if(assign.children.get(1).token.type == TokenType.LESS_THAN_SIGN){
-            // we are receiving input from user
-            sb.append("INPUT ");
-            sb.append(generateBasicVname(assign));
-            sb.append("\n");
-        } else {
-            sb.append(generateBasicVname(assign));
-            sb.append(" = ");
-            sb.append(generateBasicExpr(assign.children.get(2)));
-            sb.append("\n");
-        }
+        sb.append(generateBasicVname(assign.name()));
+        sb.append(" = ");
+        sb.append(generateBasicExpr(assign.value()));
+        sb.append("\n");
 
         return sb.toString();
     }
 
-    private String generateBasicExpr(ParseNode expr){
+    private String generateBasicInput(AST.Input input, String indent){
+        // expected: ASSIGN := VNAME < input
+        // equivalent BASIC syntax code: LN INPUT VNAME
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(Line()).append(indent).append(" ");
+        sb.append("INPUT ");
+        sb.append(generateBasicVname(input.name()));
+        sb.append("\n");
+
+        return sb.toString();
+    }
+
+    private String generateBasicExpr(AST.Term expr){
         // expected: EXPR := ATOMIC | FNAME ( ATOMIC, ATMOIC, ATOMIC ) | OP
-        if(expr.children.get(0).token != null){
-            return generateBasicAtomic(expr);
-        }
-        switch (expr.children.get(0).nonterminalname) {
-            case "CALL" -> {
-                StringBuilder sb = new StringBuilder();
-                ParseNode fname = expr.children.get(0);
-                
-                sb.append(fname.children.get(0).token.Value);
-                sb.append("(");
-                sb.append(generateBasicAtomic(fname.children.get(2)));
-                sb.append(", ");
-                sb.append(generateBasicAtomic(fname.children.get(4)));
-                sb.append(", ");
-                sb.append(generateBasicAtomic(fname.children.get(6)));
-                sb.append(")");
-                
-                return sb.toString();
+        switch (expr) {
+            case AST.Atomic atomic -> {
+                return generateBasicAtomic(atomic);
             }
-            default -> {
-                String op = generateBasicOP(expr.children.get(0));
+            case AST.Call call -> {
+                return call.name().Value + generateBasicArgs(call.args());
+            }
+            case AST.Op op -> {
+                String code = generateBasicOP(op);
                 // remove the first and last character which are "(" and ")" to conform to the expected output
-                return op.substring(1, op.length() - 1);
+                return code.substring(1, code.length() - 1);
             }
         }
     }
 
-    private String generateBasicOP(ParseNode op){
+    private String generateBasicOP(AST.Op op){
         // expected: OP := OR, AND, EQ, GT, ADD, SUB, MUL, DIV (ARG1, ARG2) | NOT, SQRT (ARG)
         // equivalent BASIC syntax code: (ARG OP ARG)
         StringBuilder sb = new StringBuilder();
 
-        switch (op.children.get(0).token.type) {
-            case NOT -> {
+        switch (op) {
+            case AST.Unop unop when unop.op().type == TokenType.NOT -> {
                 sb.append("(");
                 sb.append("NOT ");
-                sb.append(generateBasicArg(op.children.get(2)));
+                sb.append(generateBasicArg(unop.arg()));
                 sb.append(")");
-                return sb.toString();
             }
-            case SQRT -> {
+            case AST.Unop unop -> {
                 sb.append("(");
                 sb.append("SQRT ");
                 sb.append("(");
-                sb.append(generateBasicArg(op.children.get(2)));
+                sb.append(generateBasicArg(unop.arg()));
                 sb.append(")");
                 sb.append(")");
-                return sb.toString();
             }
-            default -> {
+            case AST.Binop binop -> {
                 sb.append("(");
-                sb.append(generateBasicArg(op.children.get(2)));
+                sb.append(generateBasicArg(binop.left()));
                 sb.append(" ");
-                sb.append(generateBasicOPrepr(op.children.get(0).token.type));
+                sb.append(generateBasicOPrepr(binop.op().type));
                 sb.append(" ");
-                sb.append(generateBasicArg(op.children.get(4)));
+                sb.append(generateBasicArg(binop.right()));
                 sb.append(")");
             }
         }
@@ -362,35 +305,42 @@ public class CodeGenBasic {
         return sb.toString();
     }
 
-    private String generateBasicArg(ParseNode arg){
+    private String generateBasicArg(AST.Arg arg){
         // expected: ARG := ATOMIC | OP
-        if(arg.children.get(0).nonterminalname.equals("ATOMIC")){
-            return generateBasicAtomic(arg.children.get(0));
-        }else{
-            return generateBasicOP(arg.children.get(0));
-        }
+        return switch(arg){
+            case AST.Atomic atomic -> generateBasicAtomic(atomic);
+            case AST.Op op -> generateBasicOP(op);
+        };
     }
 
-    private String generateBasicCall(ParseNode call, String indent){
+    private String generateBasicCall(AST.Call call, String indent){
         // expected: CALL := FNAME
         // equivalent BASIC syntax code: LN FNAME(arg1, arg2, arg3)
         StringBuilder sb = new StringBuilder();
 
         sb.append(Line()).append(indent).append(" ");
-        sb.append(call.children.get(0).token.Value);
-        sb.append("(");
-        sb.append(generateBasicAtomic(call.children.get(2)));
-        sb.append(", ");
-        sb.append(generateBasicAtomic(call.children.get(4)));
-        sb.append(", ");
-        sb.append(generateBasicAtomic(call.children.get(6)));
-        sb.append(")");
+        sb.append(call.name().Value);
+        sb.append(generateBasicArgs(call.args()));
         sb.append("\n");
 
         return sb.toString();
     }
 
-    private String generateBasicBranch(ParseNode branch, String indent){
+    private String generateBasicArgs(List<AST.Atomic> args){
+        // equivalent BASIC syntax code: (arg1, arg2, arg3)
+        StringBuilder sb = new StringBuilder("(");
+
+        for(int i = 0; i < args.size(); i++){
+            if(i > 0){
+                sb.append(", ");
+            }
+            sb.append(generateBasicAtomic(args.get(i)));
+        }
+
+        return sb.append(")").toString();
+    }
+
+    private String generateBasicBranch(AST.Branch branch, String indent){
         // expected: BRANCH := if COND then ALGO else ALGO
         // equivalent BASIC syntax code: 
         //LN IF COND THEN GOTO LN+10 ELSE GOTO LN+20
@@ -402,14 +352,15 @@ public class CodeGenBasic {
         StringBuilder sb = new StringBuilder();
 
         sb.append(Line()).append(indent).append(" IF ");
-        sb.append(generateBasicCond(branch.children.get(1)));
+        sb.append(generateBasicCond(branch.cond()));
         sb.append(" THEN GOTO ");
         sb.append(this.line + 10);
         sb.append(" ELSE GOTO ");
-        String instruc1 = generateBasicAlgo(branch.children.get(3), indent + "\t");
+        String instruc1 = generateBasicAlgo(branch.then(), indent + "\t");
         String instruc2 = Line() + indent + " GOTO ";
         sb.append(this.line + 10);
-        String instruc3 = generateBasicAlgo(branch.children.get(5), indent + "\t");
+        // without an else the else branch is empty
+        String instruc3 = branch.orElse() == null ? "" : generateBasicAlgo(branch.orElse(), indent + "\t");
         instruc2 += String.valueOf((this.line + 10));
         sb.append("\n");
         sb.append(instruc1);
@@ -422,91 +373,37 @@ public class CodeGenBasic {
         return sb.toString();
     }
 
-    private String generateBasicCond(ParseNode cond){
+    private String generateBasicCond(AST.Op cond){
         // expected: COND := UNOP | BINOP
-        StringBuilder sb = new StringBuilder();
-
-        if(cond.children.get(0).nonterminalname.equals("UNOPSIMPLE")){
-            sb.append(generateBasicUnop(cond.children.get(0)));
-        }else{
-            sb.append(generateBasicBinopComposite(cond.children.get(0)));
-        }
-
-        String op = sb.toString();
+        // a condition is written like any other operator
+        String op = generateBasicOP(cond);
         // remove the first and last character which are "(" and ")" to conform to the expected output
         return op.substring(1, op.length() - 1);
     }
 
-    private String generateBasicUnop(ParseNode unop){
-        // expected: UNOP := not|sqrt(BINOP)
-        // equivalent BASIC syntax code: (NOT ARG) | (SQRT (ARG))
-        StringBuilder sb = new StringBuilder();
-
-        if(unop.children.get(0).token.type == TokenType.NOT){
-            sb.append("(");
-            sb.append("NOT ");
-            sb.append(generateBasicArg(unop.children.get(1)));
-            sb.append(")");
-        }else{
-            sb.append("(");
-            sb.append("SQRT ");
-            sb.append("(");
-            sb.append(generateBasicBinop(unop.children.get(2)));
-            sb.append(")");
-            sb.append(")");
-        }
-
-        return sb.toString();
-    }
-
-    private String generateBasicBinopComposite(ParseNode binop){
-        // expected: BINOP := ATOMIC RELOP ATOMIC
-        // equivalent BASIC syntax code: 
-        // (ARG RELOP ARG)
-        StringBuilder sb = new StringBuilder();
-
-        sb.append("(");
-        sb.append(generateBasicBinop(binop.children.get(2)));
-        sb.append(" ");
-        sb.append(generateBasicOPrepr(binop.children.get(0).token.type));
-        sb.append(" ");
-        sb.append(generateBasicBinop(binop.children.get(4)));
-        sb.append(")");
-
-        return sb.toString();
-    }
-
-    private String generateBasicBinop(ParseNode binop){
-        if(binop.children.get(0).nonterminalname.equals("ATOMIC")){
-            return generateBasicAtomic(binop.children.get(0));
-        }else{
-            return generateBasicOP(binop.children.get(0));
-        }
-    }
-
-    private String generateBasicVname(ParseNode vname){
+    private String generateBasicVname(Token vname){
         // expected: VNAME := ID
         // equivalent BASIC syntax code: ID
-        // ensure that the variable is declared
+        // ensure that the variable is declared, scope analysis bound it to its declaration
         // f-args will always be of type NUM
-        if(st.numvtable.containsKey(vname.children.get(0).token.Value) || st.fnumvtable.containsKey(vname.children.get(0).token.Value) || st.ftableArgs.contains(vname.children.get(0).token.Value)){
-            return vname.children.get(0).token.Value;
-        } else if(st.textvtable.containsKey(vname.children.get(0).token.Value) || st.ftextvtable.containsKey(vname.children.get(0).token.Value)){
-            return vname.children.get(0).token.Value + "$";
-        } else {
-            throw new IllegalArgumentException("Variable " + vname.children.get(0).token.Value + " not declared");
+        SymbolTableEntry entry = vname.entry;
+        if(entry == null || !entry.kind.equals("variable")){
+            throw new IllegalArgumentException("Variable " + vname.Value + " not declared");
         }
+        // scope analysis records the declared type, type checking rewrites it to its letter
+        return entry.valueType == ValueType.TEXT ? vname.Value + "$" : vname.Value;
     }
 
-    private String geneareBasicConst(ParseNode constant){
+    private String geneareBasicConst(AST.Const constant){
         // expected: CONST := NUMLIT | TEXTLIT
         // equivalent BASIC syntax code: 0 | "TEXT"
-        if(constant.children.get(0).type == ParseType.TERMINAL && constant.children.get(0).token.type == TokenType.NUMLIT){
-            return constant.children.get(0).token.Value;
-        }else if(constant.children.get(0).type == ParseType.TERMINAL && constant.children.get(0).token.type == TokenType.TEXTLIT){
-            return "\"" + constant.children.get(0).token.Value + "\"";
+        Token value = constant.value();
+        if(value.type == TokenType.NUMLIT){
+            return value.Value;
+        }else if(value.type == TokenType.TEXTLIT){
+            return "\"" + value.Value + "\"";
         }else{
-            throw new IllegalArgumentException("Unexpected value: " + constant.children.get(0).token.type);
+            throw new IllegalArgumentException("Unexpected value: " + value.type);
         }
     }
 
@@ -0,0 +1,99 @@
+package Interfaces;
+
+import java.util.List;
+
+/**
+ * Typed syntax tree. Every construct of the grammar gets its own record with
+ * named fields, punctuation and keywords are dropped, and the right-recursive
+ * lists (GLOBVARS, INSTRUC, FUNCTIONS) become plain lists. Names and literals
+ * keep their token for the value and the source position.
+ *
+ * Built from the parse tree by {@link Utils.ASTBuilder}, walked with switch
+ * pattern matching over the sealed interfaces.
+ */
+public final class AST {
+    private AST() {
+    }
+
+    // PROG := main GLOBVARS ALGO FUNCTIONS
+    public record Prog(List<VarDecl> globals, Algo algo, List<Decl> functions) {
+    }
+
+    // VTYPE VNAME, type is NUM or VTEXT
+    public record VarDecl(TokenType type, Token name) {
+    }
+
+    // ALGO := begin INSTRUC end
+    public record Algo(List<Command> instructions) {
+    }
+
+    // DECL := HEADER BODY
+    public record Decl(Header header, Body body) {
+    }
+
+    // HEADER := FTYPE FNAME ( VNAME , VNAME , VNAME ), type is NUM or FVOID
+    public record Header(TokenType type, Token name, List<Token> params) {
+    }
+
+    // BODY := { LOCALVARS ALGO } FUNCTIONS end
+    public record Body(List<VarDecl> locals, Algo algo, List<Decl> functions) {
+    }
+
+    public sealed interface Command permits Skip, Halt, Print, Return, Assign, Input, Call, Branch {
+    }
+
+    public record Skip() implements Command {
+    }
+
+    public record Halt() implements Command {
+    }
+
+    public record Print(Atomic value) implements Command {
+    }
+
+    public record Return(Atomic value) implements Command {
+    }
+
+    // VNAME = TERM
+    public record Assign(Token name, Term value) implements Command {
+    }
+
+    // VNAME < input
+    public record Input(Token name) implements Command {
+    }
+
+    // FNAME ( ATOMIC , ATOMIC , ATOMIC ), a command or a term
+    public record Call(Token name, List<Atomic> args) implements Command, Term {
+    }
+
+    // if COND then ALGO else ALGO, orElse is null without an else
+    public record Branch(Op cond, Algo then, Algo orElse) implements Command {
+    }
+
+    public sealed interface Term permits Atomic, Call, Op {
+    }
+
+    // the operand of an operator
+    public sealed interface Arg permits Atomic, Op {
+    }
+
+    public sealed interface Atomic extends Term, Arg permits Var, Const {
+    }
+
+    public record Var(Token name) implements Atomic {
+    }
+
+    // NUMLIT or TEXTLIT
+    public record Const(Token value) implements Atomic {
+    }
+
+    // OP, and the UNOPSIMPLE / BINOPCOMPOSITE forms of a condition
+    public sealed interface Op extends Term, Arg permits Unop, Binop {
+    }
+
+    public record Unop(Token op, Arg arg) implements Op {
+    }
+
+    public record Binop(Token op, Arg left, Arg right) implements Op {
+    }
+}
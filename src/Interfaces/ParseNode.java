@@ -1,5 +1,8 @@
 package Interfaces;
 
+import Utils.XMLGenerator;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,6 +38,23 @@ public class ParseNode {
         this.children.add(child);
     }
 
+    /**
+     * Flattened view of a right-recursive list (GLOBVARS, INSTRUC, FUNCTIONS):
+     * this node and every link nested in its last child, in source order.
+     * An empty list gives no links. Walking the list this way needs no
+     * recursion, however long the program is.
+     */
+    public List<ParseNode> flattenList() {
+        List<ParseNode> links = new ArrayList<>();
+        ParseNode link = this;
+        while (link != null && link.nonterminalname != null && !link.children.isEmpty()) {
+            links.add(link);
+            ParseNode last = link.children.get(link.children.size() - 1);
+            link = this.nonterminalname.equals(last.nonterminalname) ? last : null;
+        }
+        return links;
+    }
+
     @Override
     public String toString() {
         return toString("", true);
@@ -58,28 +78,14 @@ public class ParseNode {
         return sb.toString();
     }
 
+    // the subtree as parser.xml markup, see XMLGenerator.writeParseTree
     public String toXML(String prefix) {
-        StringBuilder xml = new StringBuilder();
-        if (this.type == ParseType.TERMINAL) {
-            xml.append(prefix).append("<").append(this.token.type).append(">\n")
-                    .append(prefix).append(" <ID>").append(this.token.uuid).append("</ID>\n")
-                    .append(prefix).append(" <VALUE>").append(ltCheck(this.token.Value)).append("</VALUE>\n")
-                    .append(prefix).append("</").append(this.token.type).append(">");
-        } else {
-            xml.append(prefix).append("<").append(this.nonterminalname).append(">\n");
-            for (ParseNode child : this.children) {
-                xml.append(child.toXML(prefix + "  ")).append("\n");
-            }
-            xml.append(prefix).append("</").append(this.nonterminalname).append(">\n");
+        StringWriter xml = new StringWriter();
+        try {
+            XMLGenerator.writeParseTree(this, prefix, xml);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
         return xml.toString();
     }
-
-    private static String ltCheck(String value) {
-        if (value.equals("<")) {
-            return "&lt;";
-        } else {
-            return value;
-        }
-    }
 }
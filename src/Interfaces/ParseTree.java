@@ -0,0 +1,296 @@
+package Interfaces;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Compact parse tree. Nodes live in parallel int arrays (kind, first child,
+ * next sibling, token index) instead of one {@link ParseNode} object with its
+ * own children list each. A node is addressed by its int handle, which is
+ * also the cursor the tree walks use:
+ *
+ *     for (int child = tree.firstChild(node); child != ParseTree.NONE; child = tree.nextSibling(child))
+ *
+ * The kind of a node is a TokenType ordinal: the token type for a terminal,
+ * the nonterminal name (PROG, INSTRUC, ...) otherwise. Nonterminals have
+ * token index NONE. A tree parsed from a {@link TokenBuffer} records the
+ * buffer index of each terminal and only builds its Token when somebody asks
+ * for it, once, so every caller sees the same object. Any other tree indexes
+ * into a table of the Tokens it was given.
+ */
+public class ParseTree {
+    public static final int NONE = -1;
+
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private int[] kinds, firstChildren, lastChildren, nextSiblings, tokenIndices;
+    private int size;
+    private final TokenBuffer buffer; // null if the terminals are Token objects
+    private Token[] tokens;           // the terminals' tokens, for a buffer tree built on demand
+    private int tokenCount;
+    private int root = NONE;
+
+    public ParseTree() {
+        this(64);
+    }
+
+    public ParseTree(int capacity) {
+        this(null, capacity);
+        this.tokens = new Token[this.kinds.length];
+    }
+
+    // a tree whose terminals are tokens of the buffer
+    public ParseTree(TokenBuffer buffer, int capacity) {
+        this.buffer = buffer;
+        int initial = Math.max(capacity, 16);
+        this.kinds = new int[initial];
+        this.firstChildren = new int[initial];
+        this.lastChildren = new int[initial];
+        this.nextSiblings = new int[initial];
+        this.tokenIndices = new int[initial];
+    }
+
+    public int nonterminal(TokenType kind) {
+        return newNode(kind, NONE);
+    }
+
+    public int terminal(Token token) {
+        if (buffer != null) {
+            throw new IllegalStateException("Terminals of a buffer tree are added by token index");
+        }
+        if (tokenCount == tokens.length) {
+            tokens = Arrays.copyOf(tokens, tokenCount * 2);
+        }
+        tokens[tokenCount] = token;
+        return newNode(token.type, tokenCount++);
+    }
+
+    // a terminal for the index-th token of the tree's buffer
+    public int terminal(int index) {
+        return newNode(buffer.type(index), index);
+    }
+
+    private int newNode(TokenType kind, int tokenIndex) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            lastChildren = Arrays.copyOf(lastChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            tokenIndices = Arrays.copyOf(tokenIndices, capacity);
+        }
+        kinds[size] = kind.ordinal();
+        firstChildren[size] = NONE;
+        lastChildren[size] = NONE;
+        nextSiblings[size] = NONE;
+        tokenIndices[size] = tokenIndex;
+        return size++;
+    }
+
+    // appends a child, NONE is discarded like a null ParseNode child
+    public void addChild(int parent, int child) {
+        if (child == NONE) {
+            return;
+        }
+        if (firstChildren[parent] == NONE) {
+            firstChildren[parent] = child;
+        } else {
+            nextSiblings[lastChildren[parent]] = child;
+        }
+        lastChildren[parent] = child;
+    }
+
+    // copies a subtree of another tree into this one and returns the copy, not linked to a parent yet
+    public int graft(ParseTree other, int node) {
+        int copy = copyNode(other, node);
+        Deque<Integer> nodes = new ArrayDeque<>();
+        Deque<Integer> copies = new ArrayDeque<>();
+        nodes.push(node);
+        copies.push(copy);
+
+        while (!nodes.isEmpty()) {
+            int current = nodes.pop();
+            int parent = copies.pop();
+            for (int child = other.firstChildren[current]; child != NONE; child = other.nextSiblings[child]) {
+                int childCopy = copyNode(other, child);
+                addChild(parent, childCopy);
+                nodes.push(child);
+                copies.push(childCopy);
+            }
+        }
+
+        return copy;
+    }
+
+    private int copyNode(ParseTree other, int node) {
+        if (!other.isTerminal(node)) {
+            return nonterminal(other.kind(node));
+        }
+        return buffer != null && other.buffer == buffer ? terminal(other.tokenIndices[node]) : terminal(other.token(node));
+    }
+
+    public void setRoot(int root) {
+        this.root = root;
+    }
+
+    public int root() {
+        return root;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType kind(int node) {
+        return TYPES[kinds[node]];
+    }
+
+    public boolean isTerminal(int node) {
+        return tokenIndices[node] != NONE;
+    }
+
+    public int firstChild(int node) {
+        return firstChildren[node];
+    }
+
+    public int lastChild(int node) {
+        return lastChildren[node];
+    }
+
+    public int nextSibling(int node) {
+        return nextSiblings[node];
+    }
+
+    // the index-th child, walking the sibling links
+    public int child(int node, int index) {
+        int child = firstChildren[node];
+        for (int i = 0; i < index && child != NONE; i++) {
+            child = nextSiblings[child];
+        }
+        if (child == NONE) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for node " + node);
+        }
+        return child;
+    }
+
+    public int childCount(int node) {
+        int count = 0;
+        for (int child = firstChildren[node]; child != NONE; child = nextSiblings[child]) {
+            count++;
+        }
+        return count;
+    }
+
+    public boolean hasChildren(int node) {
+        return firstChildren[node] != NONE;
+    }
+
+    public Token token(int node) {
+        int index = tokenIndices[node];
+        if (index == NONE || buffer == null) {
+            return index == NONE ? null : tokens[index];
+        }
+        if (tokens == null) {
+            tokens = new Token[buffer.size()];
+        }
+        Token token = tokens[index];
+        if (token == null) {
+            token = buffer.token(index);
+            tokens[index] = token;
+        }
+        return token;
+    }
+
+    // the terminal's value, read from the buffer without building its Token
+    public String value(int node) {
+        int index = tokenIndices[node];
+        return buffer == null ? tokens[index].Value : buffer.value(index);
+    }
+
+    public int tokenId(int node) {
+        int index = tokenIndices[node];
+        return buffer == null ? tokens[index].id : buffer.id(index);
+    }
+
+    // the nonterminal name of a node, as ParseNode.nonterminalname would hold it
+    public String name(int node) {
+        return isTerminal(node) ? null : kind(node).name();
+    }
+
+    /**
+     * Flattened view of a right-recursive list (GLOBVARS, INSTRUC, FUNCTIONS),
+     * see {@link ParseNode#flattenList}.
+     */
+    public int[] flattenList(int node) {
+        int[] links = new int[8];
+        int count = 0;
+        int link = node;
+        while (link != NONE && !isTerminal(link) && hasChildren(link)) {
+            if (count == links.length) {
+                links = Arrays.copyOf(links, count * 2);
+            }
+            links[count++] = link;
+            int last = lastChildren[link];
+            link = !isTerminal(last) && kinds[last] == kinds[node] ? last : NONE;
+        }
+        return Arrays.copyOf(links, count);
+    }
+
+    // builds the equivalent ParseNode tree, for code that still works on objects
+    public ParseNode toParseNode(int node) {
+        ParseNode result = newParseNode(node);
+        Deque<Integer> nodes = new ArrayDeque<>();
+        Deque<ParseNode> parseNodes = new ArrayDeque<>();
+        nodes.push(node);
+        parseNodes.push(result);
+
+        while (!nodes.isEmpty()) {
+            int current = nodes.pop();
+            ParseNode parent = parseNodes.pop();
+            for (int child = firstChildren[current]; child != NONE; child = nextSiblings[child]) {
+                ParseNode childNode = newParseNode(child);
+                parent.addChild(childNode);
+                nodes.push(child);
+                parseNodes.push(childNode);
+            }
+        }
+
+        return result;
+    }
+
+    private ParseNode newParseNode(int node) {
+        return isTerminal(node) ? new ParseNode(token(node), ParseType.TERMINAL) : new ParseNode(kind(node).name());
+    }
+
+    // builds a compact tree from an object tree
+    public static ParseTree of(ParseNode parseTree) {
+        ParseTree tree = new ParseTree();
+        tree.setRoot(tree.newNode(parseTree));
+
+        Deque<ParseNode> parseNodes = new ArrayDeque<>();
+        Deque<Integer> nodes = new ArrayDeque<>();
+        parseNodes.push(parseTree);
+        nodes.push(tree.root());
+
+        while (!parseNodes.isEmpty()) {
+            ParseNode parent = parseNodes.pop();
+            int node = nodes.pop();
+            if (parent.type == ParseType.TERMINAL || parent.children == null) {
+                continue;
+            }
+            for (ParseNode child : parent.children) {
+                int childNode = tree.newNode(child);
+                tree.addChild(node, childNode);
+                parseNodes.push(child);
+                nodes.push(childNode);
+            }
+        }
+
+        return tree;
+    }
+
+    private int newNode(ParseNode parseNode) {
+        return parseNode.type == ParseType.TERMINAL ? terminal(parseNode.token) : nonterminal(TokenType.valueOf(parseNode.nonterminalname));
+    }
+}
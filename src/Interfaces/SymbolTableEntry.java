@@ -1,7 +1,8 @@
 package Interfaces;
 
 public class SymbolTableEntry {
-    public String type; // e.g., num, text, void
+    public final String type; // as declared, e.g., num, text, void, param
+    public final ValueType valueType; // the type the declaration gives the name, null if unknown
     public String kind; // e.g., variable, function
     public int scopeLevel;
     public String uniqueName;
@@ -10,6 +11,7 @@ public class SymbolTableEntry {
 
     public SymbolTableEntry(String originalName, String uniqueName, String type, int scopeLevel, SyntaxTreeNode declarationNode, String kind) {
         this.type = type;
+        this.valueType = type == null ? null : ValueType.of(type);
         this.kind = kind;
         this.uniqueName = uniqueName;
         this.scopeLevel = scopeLevel;
@@ -8,6 +8,8 @@ public class SyntaxTreeNode {
     public char type;   // The value inside <TYPE>, can be null
     public String value;  // The value inside <VALUE>, can be null
     public TokenType symbol; // The tag name
+    public SymbolTableEntry entry; // What a VNAME or FNAME resolves to, bound once by scope analysis
+    public Token token; // The parse tree token of a VNAME or FNAME, null when read from XML
     public List<SyntaxTreeNode> children = new ArrayList<>();
 
     public SyntaxTreeNode(TokenType symbol) {
@@ -22,4 +24,16 @@ public class SyntaxTreeNode {
     public void addChild(SyntaxTreeNode child) {
         children.add(child);
     }
+
+    // flattened view of a right-recursive list (GLOBVARS, INSTRUC, FUNCTIONS), see ParseNode.flattenList
+    public List<SyntaxTreeNode> flattenList() {
+        List<SyntaxTreeNode> links = new ArrayList<>();
+        SyntaxTreeNode link = this;
+        while (link != null && !link.children.isEmpty()) {
+            links.add(link);
+            SyntaxTreeNode last = link.children.get(link.children.size() - 1);
+            link = last.symbol == this.symbol ? last : null;
+        }
+        return links;
+    }
 }
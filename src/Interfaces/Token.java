@@ -1,19 +1,28 @@
 package Interfaces;
 public class Token {
     public TokenType type;
-    public String uuid;
+    public int id; // sequential per compilation, 0 if never assigned
     public String fileName;
     public int Line;
     public int Column;
     public String Value;
+    public int Offset; // start of the token in the source, -1 if unknown
+    public double Number; // canonical value of a NUMLIT, NaN for every other token
+    public SymbolTableEntry entry; // what a VNAME or FNAME resolves to, bound by scope analysis
 
     public Token(TokenType type, String fileName, int Line, int Column, String Value) {
-        this.uuid = java.util.UUID.randomUUID().toString();
+        this(0, type, fileName, Line, Column, Value, -1);
+    }
+
+    public Token(int id, TokenType type, String fileName, int Line, int Column, String Value, int Offset) {
+        this.id = id;
         this.type = type;
         this.fileName = fileName;
         this.Line = Line;
         this.Column = Column;
         this.Value = Value;
+        this.Offset = Offset;
+        this.Number = Double.NaN;
     }
 
     @Override
@@ -0,0 +1,181 @@
+package Interfaces;
+
+import java.util.Arrays;
+
+/**
+ * Compact token storage for one compilation. Tokens are kept in parallel
+ * primitive arrays (type ordinal, start offset, length, line, column) and
+ * their text stays in the source until somebody asks for it, so no per-token
+ * object or String exists until the parser materialises one.
+ *
+ * Token i has the id i + 1. The canonical values of number literals live in
+ * a side table so that other tokens do not pay for them.
+ */
+public class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final CharSequence source;
+    private final String fileName;
+    private byte[] types;
+    private int[] starts, lengths, lines, columns;
+    private int size;
+    // side table: token indices of the NUMLITs, in ascending order, and their values
+    private int[] numberTokens = new int[16];
+    private double[] numbers = new double[16];
+    private int numberCount;
+
+    public TokenBuffer(CharSequence source, String fileName) {
+        this(source, fileName, 16);
+    }
+
+    public TokenBuffer(CharSequence source, String fileName, int capacity) {
+        this.source = source;
+        this.fileName = fileName;
+        int initial = Math.max(capacity, 16);
+        this.types = new byte[initial];
+        this.starts = new int[initial];
+        this.lengths = new int[initial];
+        this.lines = new int[initial];
+        this.columns = new int[initial];
+    }
+
+    public void add(TokenType type, int start, int length, int line, int column, double number) {
+        addNumber(size, number);
+        add(type, start, length, line, column);
+    }
+
+    private void addNumber(int index, double number) {
+        if (numberCount == numbers.length) {
+            numberTokens = Arrays.copyOf(numberTokens, numberCount * 2);
+            numbers = Arrays.copyOf(numbers, numberCount * 2);
+        }
+        numberTokens[numberCount] = index;
+        numbers[numberCount] = number;
+        numberCount++;
+    }
+
+    public void add(TokenType type, int start, int length, int line, int column) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+        }
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        lines[size] = line;
+        columns[size] = column;
+        size++;
+    }
+
+    // appends every token of another buffer over the same source, shifting its line numbers
+    public void addAll(TokenBuffer other, int lineOffset) {
+        int required = size + other.size;
+        if (required > types.length) {
+            int capacity = Math.max(required, types.length * 2);
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+        }
+        System.arraycopy(other.types, 0, types, size, other.size);
+        System.arraycopy(other.starts, 0, starts, size, other.size);
+        System.arraycopy(other.lengths, 0, lengths, size, other.size);
+        System.arraycopy(other.columns, 0, columns, size, other.size);
+        for (int i = 0; i < other.size; i++) {
+            lines[size + i] = other.lines[i] + lineOffset;
+        }
+        for (int i = 0; i < other.numberCount; i++) {
+            addNumber(size + other.numberTokens[i], other.numbers[i]);
+        }
+        size = required;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public CharSequence source() {
+        return source;
+    }
+
+    public String fileName() {
+        return fileName;
+    }
+
+    public TokenType type(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int id(int index) {
+        return index + 1;
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public int length(int index) {
+        return lengths[index];
+    }
+
+    public int line(int index) {
+        return lines[index];
+    }
+
+    public int column(int index) {
+        return columns[index];
+    }
+
+    // canonical value of a NUMLIT token, NaN for every other token
+    public double number(int index) {
+        int slot = Arrays.binarySearch(numberTokens, 0, numberCount, index);
+        return slot >= 0 ? numbers[slot] : Double.NaN;
+    }
+
+    // compares the token text with a string without copying it out of the source
+    public boolean textEquals(int index, String text) {
+        if (lengths[index] != text.length()) {
+            return false;
+        }
+        int start = starts[index];
+        for (int i = 0; i < text.length(); i++) {
+            if (source.charAt(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the token value as a String, quotes stripped from text literals
+    public String value(int index) {
+        int start = starts[index];
+        int end = start + lengths[index];
+        if (type(index) == TokenType.TEXTLIT) {
+            return source.subSequence(start + 1, end - 1).toString();
+        }
+        return source.subSequence(start, end).toString();
+    }
+
+    // appends the token value straight from the source
+    public void appendValue(StringBuilder sb, int index) {
+        int start = starts[index];
+        int end = start + lengths[index];
+        if (type(index) == TokenType.TEXTLIT) {
+            sb.append(source, start + 1, end - 1);
+        } else {
+            sb.append(source, start, end);
+        }
+    }
+
+    // materialises a single token, e.g. for a parse tree terminal
+    public Token token(int index) {
+        Token token = new Token(id(index), type(index), fileName, lines[index], columns[index], value(index), starts[index]);
+        token.Number = number(index);
+        return token;
+    }
+}
@@ -0,0 +1,20 @@
+package Interfaces;
+
+/**
+ * Source of tokens that the parser pulls from on demand.
+ */
+public interface TokenStream {
+    // next token, or null once the input is exhausted
+    Token next();
+
+    // k-th token after the last one returned by next() (k >= 1), or null past the end
+    Token peek(int k);
+
+    // text of a source line, only used when formatting diagnostics
+    String lineText(int line);
+
+    // name of the source file, for diagnostics on an input without tokens
+    default String fileName() {
+        return "";
+    }
+}
@@ -0,0 +1,27 @@
+package Interfaces;
+
+/**
+ * What a declared name holds. Scope analysis fixes it when it declares the
+ * name, the later phases only read it.
+ */
+public enum ValueType {
+    NUM('n'),
+    TEXT('t'),
+    VOID('v');
+
+    public final char code; // the letter the type checker uses for the type
+
+    ValueType(char code) {
+        this.code = code;
+    }
+
+    // the type of a declared "num", "text" or "void", parameters are numbers; null for anything else
+    public static ValueType of(String declared) {
+        return switch (declared) {
+            case "num", "param" -> NUM;
+            case "text" -> TEXT;
+            case "void" -> VOID;
+            default -> null;
+        };
+    }
+}
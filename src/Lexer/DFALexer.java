@@ -0,0 +1,456 @@
+package Lexer;
+
+import Interfaces.Token;
+import Interfaces.TokenBuffer;
+import Interfaces.TokenType;
+import Utils.Errors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Table driven lexer. Every keyword, operator, name, literal and punctuation
+ * mark is recognised by one precomputed DFA in a single forward pass, so no
+ * character is ever read twice. {@link Lexer} is kept as the reference
+ * implementation that this class is checked against.
+ *
+ * The source may be any CharSequence, including a memory mapped
+ * {@link Utils.ByteSource}, in which case the raw bytes are scanned in place.
+ *
+ * Whitespace is skipped by a fast path and never becomes a token unless the
+ * caller (a formatter or an IDE, say) asks to keep trivia.
+ *
+ * By default the first disallowed character throws. With recovery turned on
+ * the error is recorded instead, the offending word is skipped up to the next
+ * whitespace and lexing carries on to the end.
+ */
+public class DFALexer {
+    static final int ALPHABET = 128;
+    static final int REJECT = -1;
+    static final int START = 0;
+
+    // transition table: TRANSITIONS[state][char] -> next state or REJECT
+    static final int[][] TRANSITIONS;
+    // accepted token type per state, null if the state is not accepting
+    static final TokenType[] ACCEPT;
+    // fixed spelling of the accepted token, null if the text must be sliced from the source
+    static final String[] SPELLING;
+
+    // 10^0 .. 10^22, every one of them exactly representable as a double
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        TableBuilder builder = new TableBuilder();
+
+        // single-character tokens
+        builder.single('(', TokenType.LEFT_PAREN);
+        builder.single(')', TokenType.RIGHT_PAREN);
+        builder.single('{', TokenType.LEFT_BRACE);
+        builder.single('}', TokenType.RIGHT_BRACE);
+        builder.single(',', TokenType.COMMA);
+        builder.single(';', TokenType.SEMICOLON);
+        builder.single('=', TokenType.EQUAL_SIGN);
+        builder.single('<', TokenType.LESS_THAN_SIGN);
+
+        // whitespace, only emitted when trivia is kept
+        builder.single(' ', TokenType.NULLTYPE);
+        builder.single('\r', TokenType.NULLTYPE);
+        builder.single('\t', TokenType.NULLTYPE);
+        builder.single('\0', TokenType.NULLTYPE);
+        builder.single('\n', TokenType.NULLTYPE);
+
+        // keywords and operators
+        builder.keyword("main", TokenType.MAIN);
+        builder.keyword("begin", TokenType.BEGIN);
+        builder.keyword("end", TokenType.END);
+        builder.keyword("num", TokenType.NUM);
+        builder.keyword("text", TokenType.VTEXT);
+        builder.keyword("void", TokenType.FVOID);
+        builder.keyword("if", TokenType.IF);
+        builder.keyword("then", TokenType.THEN);
+        builder.keyword("else", TokenType.ELSE);
+        builder.keyword("skip", TokenType.SKIP);
+        builder.keyword("halt", TokenType.HALT);
+        builder.keyword("print", TokenType.PRINT);
+        builder.keyword("input", TokenType.INPUT);
+        builder.keyword("return", TokenType.RETURN);
+        builder.keyword("not", TokenType.NOT);
+        builder.keyword("sqrt", TokenType.SQRT);
+        builder.keyword("or", TokenType.OR);
+        builder.keyword("and", TokenType.AND);
+        builder.keyword("eq", TokenType.EQ);
+        builder.keyword("grt", TokenType.GT);
+        builder.keyword("add", TokenType.ADD);
+        builder.keyword("sub", TokenType.SUB);
+        builder.keyword("mul", TokenType.MUL);
+        builder.keyword("div", TokenType.DIV);
+
+        // V_[a-z]([a-z]|[0-9])* and F_[a-z]([a-z]|[0-9])*
+        builder.name('V', TokenType.VNAME);
+        builder.name('F', TokenType.FNAME);
+
+        // "[A-Z][a-z]{0,8}"
+        builder.textLiteral();
+
+        // 0 | -?0\.[0-9]*[1-9] | -?[1-9][0-9]* | -?[1-9][0-9]*\.[0-9]*[1-9]
+        builder.numberLiteral();
+
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+
+        TRANSITIONS = builder.transitions();
+        ACCEPT = builder.accept();
+        SPELLING = builder.spelling();
+    }
+
+    private final CharSequence source;
+    private final String fileName;
+    private final int limit; // end of the range being lexed
+    private final boolean keepTrivia;
+    private int position, line, lineStart, nextId;
+    private boolean recovery;
+    private final List<String> errors = new ArrayList<>();
+
+    public DFALexer(CharSequence source, String fileName) {
+        this(source, fileName, false);
+    }
+
+    public DFALexer(CharSequence source, String fileName, boolean keepTrivia) {
+        this(source, fileName, keepTrivia, 0, source.length(), 1);
+    }
+
+    // lexes only source[start, end), which must begin at the start of the given line
+    public DFALexer(CharSequence source, String fileName, boolean keepTrivia, int start, int end, int line) {
+        this.source = source;
+        this.fileName = fileName;
+        this.keepTrivia = keepTrivia;
+        this.limit = end;
+        this.position = start;
+        this.line = line;
+        this.lineStart = start;
+        this.nextId = 0;
+    }
+
+    // line the lexer has reached, one past the last line once the range ends in a newline
+    int currentLine() {
+        return this.line;
+    }
+
+    // record lexer errors and keep going instead of throwing on the first one
+    public void setRecovery(boolean recovery) {
+        this.recovery = recovery;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public List<Token> scanTokens() {
+        List<Token> tokens = new ArrayList<>();
+        while (true) {
+            if (!this.keepTrivia) {
+                skipWhitespace();
+            }
+            if (this.position >= this.limit) {
+                break;
+            }
+            Token token = nextToken();
+            if (token != null) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Scans the whole source into a compact {@link TokenBuffer} instead of a
+     * list of Token objects. Whitespace is always skipped.
+     */
+    public TokenBuffer scanTokenBuffer() {
+        // most SPL tokens are a few characters long plus a separator
+        TokenBuffer buffer = new TokenBuffer(this.source, this.fileName, (this.limit - this.position) / 4);
+        while (true) {
+            skipWhitespace();
+            if (this.position >= this.limit) {
+                break;
+            }
+            int start = this.position;
+            int column = start - this.lineStart + 1;
+            int tokenLine = this.line;
+            int state = runAutomaton();
+            if (state == REJECT) {
+                continue;
+            }
+            if (ACCEPT[state] == TokenType.NUMLIT) {
+                buffer.add(TokenType.NUMLIT, start, this.position - start, tokenLine, column, numericValue(this.source, start, this.position));
+            } else {
+                buffer.add(ACCEPT[state], start, this.position - start, tokenLine, column);
+            }
+        }
+        return buffer;
+    }
+
+    private void skipWhitespace() {
+        while (this.position < this.limit) {
+            char c = this.source.charAt(this.position);
+            if (c == '\n') {
+                ++this.line;
+                this.lineStart = this.position + 1;
+            } else if (c != ' ' && c != '\t' && c != '\r' && c != '\0') {
+                return;
+            }
+            ++this.position;
+        }
+    }
+
+    private Token nextToken() {
+        int start = this.position;
+        int column = start - this.lineStart + 1;
+        int tokenLine = this.line;
+        int state = runAutomaton();
+        if (state == REJECT) {
+            return null;
+        }
+        TokenType type = ACCEPT[state];
+
+        // whitespace is never written out, so only significant tokens take an id
+        int id = type == TokenType.NULLTYPE ? 0 : ++this.nextId;
+        Token token = new Token(id, type, fileName, tokenLine, column, valueOf(state, type, start, this.position), start);
+        if (type == TokenType.NUMLIT) {
+            token.Number = numericValue(this.source, start, this.position);
+        }
+        return token;
+    }
+
+    /**
+     * Canonical value of a literal the automaton has already accepted, so the
+     * grammar needs no second check. Up to 15 significant digits and 22
+     * fraction digits the value is built exactly from a long and one division
+     * by a power of ten, without allocating; longer literals fall back to
+     * {@link Double#parseDouble}.
+     */
+    static double numericValue(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = text.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                fraction = true;
+                continue;
+            }
+            mantissa = mantissa * 10 + (c - '0');
+            if (mantissa != 0) {
+                digits++;
+            }
+            if (fraction) {
+                scale++;
+            }
+            if (digits > 15 || scale >= POWERS_OF_TEN.length) {
+                return Double.parseDouble(text.subSequence(start, end).toString());
+            }
+        }
+
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    // runs the automaton from the current position to the end of one token and returns its accepting state,
+    // or REJECT once a recovered error has been skipped
+    private int runAutomaton() {
+        int start = this.position;
+        int end = start;
+        int state = START;
+
+        // run the automaton until there is no transition for the next character
+        while (end < this.limit) {
+            char c = this.source.charAt(end);
+            int next = c < ALPHABET ? TRANSITIONS[state][c] : REJECT;
+            if (next == REJECT) {
+                break;
+            }
+            state = next;
+            ++end;
+        }
+
+        if (ACCEPT[state] == null) {
+            String error = lexerError(end < this.limit ? end : start);
+            if (!this.recovery) {
+                throw new RuntimeException(error);
+            }
+            errors.add(error);
+            skipWord(start);
+            return REJECT;
+        }
+
+        this.position = end;
+        if (this.source.charAt(start) == '\n') {
+            ++this.line;
+            this.lineStart = end;
+        }
+
+        return state;
+    }
+
+    // panic mode: drops everything up to the next whitespace, at least one character
+    private void skipWord(int start) {
+        this.position = start + 1;
+        while (this.position < this.limit) {
+            char c = this.source.charAt(this.position);
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\0') {
+                return;
+            }
+            ++this.position;
+        }
+    }
+
+    private String valueOf(int state, TokenType type, int start, int end) {
+        if (SPELLING[state] != null) {
+            return SPELLING[state];
+        }
+        if (type == TokenType.TEXTLIT) {
+            // strip the quotes
+            return this.source.subSequence(start + 1, end - 1).toString();
+        }
+        return this.source.subSequence(start, end).toString();
+    }
+
+    private String lexerError(int offset) {
+        // the line runs from lineStart to the next newline, also past the end of a range lexer's range,
+        // scanning only that much keeps recovery linear when it reports many errors
+        int lineEnd = this.lineStart;
+        while (lineEnd < this.source.length() && this.source.charAt(lineEnd) != '\n') {
+            ++lineEnd;
+        }
+        if (lineEnd > this.lineStart && this.source.charAt(lineEnd - 1) == '\r') {
+            --lineEnd;
+        }
+        String lineContent = this.source.subSequence(this.lineStart, lineEnd).toString();
+        return Errors.formatLexerError(fileName, line, offset - lineStart, this.source.charAt(offset), lineContent);
+    }
+
+    /**
+     * Builds the transition table once when the class is loaded.
+     */
+    private static class TableBuilder {
+        private final List<int[]> transitions = new ArrayList<>();
+        private final List<TokenType> accept = new ArrayList<>();
+        private final List<String> spelling = new ArrayList<>();
+
+        TableBuilder() {
+            newState(null, null); // START
+        }
+
+        private int newState(TokenType type, String word) {
+            int[] row = new int[ALPHABET];
+            Arrays.fill(row, REJECT);
+            transitions.add(row);
+            accept.add(type);
+            spelling.add(word);
+            return transitions.size() - 1;
+        }
+
+        private int step(int from, char c) {
+            int next = transitions.get(from)[c];
+            if (next == REJECT) {
+                next = newState(null, null);
+                transitions.get(from)[c] = next;
+            }
+            return next;
+        }
+
+        private void edge(int from, char lo, char hi, int to) {
+            for (char c = lo; c <= hi; c++) {
+                transitions.get(from)[c] = to;
+            }
+        }
+
+        void single(char c, TokenType type) {
+            transitions.get(START)[c] = newState(type, String.valueOf(c));
+        }
+
+        void keyword(String word, TokenType type) {
+            int state = START;
+            for (int i = 0; i < word.length(); i++) {
+                state = step(state, word.charAt(i));
+            }
+            accept.set(state, type);
+            spelling.set(state, word);
+        }
+
+        void name(char prefix, TokenType type) {
+            int underscore = step(step(START, prefix), '_');
+            int body = newState(type, null);
+            edge(underscore, 'a', 'z', body);
+            edge(underscore, 'A', 'Z', body);
+            edge(body, 'a', 'z', body);
+            edge(body, 'A', 'Z', body);
+            edge(body, '0', '9', body);
+        }
+
+        void textLiteral() {
+            int open = newState(null, null);
+            int close = newState(TokenType.TEXTLIT, null);
+            transitions.get(START)['"'] = open;
+
+            int previous = newState(null, null);
+            edge(open, 'A', 'Z', previous);
+            transitions.get(previous)['"'] = close;
+            // at most 8 lower case letters after the capital
+            for (int i = 1; i < 9; i++) {
+                int letter = newState(null, null);
+                edge(previous, 'a', 'z', letter);
+                transitions.get(letter)['"'] = close;
+                previous = letter;
+            }
+        }
+
+        void numberLiteral() {
+            int zero = newState(TokenType.NUMLIT, "0");
+            int minus = newState(null, null);
+            int minusZero = newState(null, null);
+            int integer = newState(TokenType.NUMLIT, null);
+            // fraction digits ending in 0 (or none yet) are not accepting
+            int fractionZero = newState(null, null);
+            int fractionNonZero = newState(TokenType.NUMLIT, null);
+
+            transitions.get(START)['0'] = zero;
+            transitions.get(START)['-'] = minus;
+            edge(START, '1', '9', integer);
+
+            transitions.get(minus)['0'] = minusZero;
+            edge(minus, '1', '9', integer);
+
+            edge(integer, '0', '9', integer);
+            transitions.get(integer)['.'] = fractionZero;
+            transitions.get(zero)['.'] = fractionZero;
+            transitions.get(minusZero)['.'] = fractionZero;
+
+            for (int state : new int[] { fractionZero, fractionNonZero }) {
+                transitions.get(state)['0'] = fractionZero;
+                edge(state, '1', '9', fractionNonZero);
+            }
+        }
+
+        int[][] transitions() {
+            return transitions.toArray(new int[0][]);
+        }
+
+        TokenType[] accept() {
+            return accept.toArray(new TokenType[0]);
+        }
+
+        String[] spelling() {
+            return spelling.toArray(new String[0]);
+        }
+    }
+}
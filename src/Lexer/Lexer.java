@@ -3,6 +3,7 @@ package Lexer;
 import Interfaces.Token;
 import Interfaces.TokenType;
 import Utils.Errors;
+import Utils.SourceMap;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,8 +11,7 @@ public class Lexer {
     private final String source;
     private final String fileName;
     private char current;
-    private int line, column, seekValue, lineColumn;
-    private String currentLine;
+    private int line, column, seekValue, lineColumn, nextId;
 
     public Lexer(String source, String fileName) {
         this.fileName = fileName;
@@ -20,16 +20,26 @@ public class Lexer {
         this.line = 1;
         this.column = 0;
         this.seekValue = 0;
-        this.currentLine = "";
     }
 
     public List<Token> scanTokens() {
-        this.currentLine += this.current;
         List<Token> tokens = new ArrayList<>();
         while (!isAtEnd()) {
+            int start = this.column;
             Token token = processCurrentChar();
             if (token == null){
-                throw new RuntimeException(Errors.formatLexerError(fileName, line, column, current, currentLine));
+                // the line text is only sliced out once a diagnostic is reported
+                SourceMap sourceMap = new SourceMap(source);
+                int errorLine = sourceMap.lineOf(column);
+                int errorColumn = column - sourceMap.lineStart(errorLine);
+                throw new RuntimeException(Errors.formatLexerError(fileName, line, errorColumn, current, sourceMap.lineText(errorLine)));
+            }
+            token.Offset = start;
+            if (token.type == TokenType.NUMLIT) {
+                token.Number = Double.parseDouble(token.Value);
+            }
+            if (token.type != TokenType.NULLTYPE) {
+                token.id = ++this.nextId;
             }
             this.seekValue = 0;
             advance();
@@ -411,7 +421,6 @@ public class Lexer {
         }
         ++this.lineColumn;
         ++this.column;
-        this.currentLine += this.source.charAt(this.column);
         return this.current = this.source.charAt(this.column);
     }
 
@@ -431,9 +440,6 @@ public class Lexer {
         this.column -= steps;
         this.current = this.source.charAt(this.column);
         this.seekValue = 0;
-        // pop currentLine by steps
-
-        this.currentLine = this.currentLine.substring(0, this.column + 1);
         return true;
     }
 }
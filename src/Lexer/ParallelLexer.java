@@ -0,0 +1,164 @@
+package Lexer;
+
+import Interfaces.TokenBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Lexes large sources on several cores. No SPL token can contain a newline
+ * (text literals are a single word), so the source is cut into chunks just
+ * after a newline and each chunk is lexed independently with {@link DFALexer}.
+ * The chunk buffers are then stitched together in order with their line
+ * numbers shifted.
+ *
+ * With recovery turned on, chunks that had errors are lexed again in order
+ * with their real first line, so that every error is reported exactly.
+ */
+public class ParallelLexer {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final CharSequence source;
+    private final String fileName;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+    private boolean recovery;
+    private final List<String> errors = new ArrayList<>();
+
+    public ParallelLexer(CharSequence source, String fileName) {
+        this(source, fileName, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public ParallelLexer(CharSequence source, String fileName, int chunkSize, ForkJoinPool pool) {
+        this.source = source;
+        this.fileName = fileName;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+    }
+
+    // record lexer errors and keep going instead of throwing on the first one
+    public void setRecovery(boolean recovery) {
+        this.recovery = recovery;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public TokenBuffer scanTokenBuffer() {
+        List<Integer> bounds = splitAtNewlines();
+
+        // not worth the hand-off for a single chunk
+        if (bounds.size() <= 2) {
+            DFALexer lexer = new DFALexer(source, fileName);
+            lexer.setRecovery(recovery);
+            TokenBuffer tokens = lexer.scanTokenBuffer();
+            errors.addAll(lexer.getErrors());
+            return tokens;
+        }
+
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+        for (int i = 0; i + 1 < bounds.size(); i++) {
+            int start = bounds.get(i);
+            int end = bounds.get(i + 1);
+            tasks.add(pool.submit(() -> lexChunk(start, end)));
+        }
+
+        // join in order, the first chunk that failed is the error to report
+        List<Chunk> chunks = new ArrayList<>();
+        int lineOffset = 0;
+        int size = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            Chunk chunk = tasks.get(i).join();
+            if (chunk.error != null && !recovery) {
+                cancelFrom(tasks, i + 1);
+                throw relexError(i, bounds, lineOffset + 1);
+            }
+            chunks.add(chunk);
+            lineOffset += chunk.lines;
+            size += chunk.tokens != null ? chunk.tokens.size() : 0;
+        }
+
+        TokenBuffer tokens = new TokenBuffer(source, fileName, size);
+        lineOffset = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            if (chunk.hasErrors) {
+                // the chunk lexer only knew relative line numbers
+                DFALexer lexer = new DFALexer(source, fileName, false, bounds.get(i), bounds.get(i + 1), lineOffset + 1);
+                lexer.setRecovery(true);
+                tokens.addAll(lexer.scanTokenBuffer(), 0);
+                errors.addAll(lexer.getErrors());
+                lineOffset = lexer.currentLine() - 1;
+                continue;
+            }
+            tokens.addAll(chunk.tokens, lineOffset);
+            lineOffset += chunk.lines;
+        }
+        return tokens;
+    }
+
+    // every earlier chunk lexed cleanly, so the first error is in chunk i;
+    // lex it again knowing its real first line so the report is exact
+    private RuntimeException relexError(int i, List<Integer> bounds, int line) {
+        try {
+            new DFALexer(source, fileName, false, bounds.get(i), bounds.get(i + 1), line).scanTokenBuffer();
+        } catch (RuntimeException e) {
+            return e;
+        }
+        // the lexer is deterministic, a range that failed once fails again
+        return new IllegalStateException("Chunk " + i + " of " + fileName + " lexed cleanly on the second pass");
+    }
+
+    // chunk boundaries, each chunk but the last ending just after a newline
+    private List<Integer> splitAtNewlines() {
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int length = source.length();
+        int position = chunkSize;
+        while (position < length) {
+            while (position < length && source.charAt(position - 1) != '\n') {
+                position++;
+            }
+            if (position >= length) {
+                break;
+            }
+            bounds.add(position);
+            position += chunkSize;
+        }
+        bounds.add(length);
+        return bounds;
+    }
+
+    private Chunk lexChunk(int start, int end) {
+        DFALexer lexer = new DFALexer(source, fileName, false, start, end, 1);
+        lexer.setRecovery(recovery);
+        try {
+            TokenBuffer tokens = lexer.scanTokenBuffer();
+            return new Chunk(tokens, lexer.currentLine() - 1, null, !lexer.getErrors().isEmpty());
+        } catch (RuntimeException e) {
+            return new Chunk(null, 0, e, true);
+        }
+    }
+
+    private static void cancelFrom(List<ForkJoinTask<Chunk>> tasks, int from) {
+        for (int i = from; i < tasks.size(); i++) {
+            tasks.get(i).cancel(false);
+        }
+    }
+
+    private static class Chunk {
+        final TokenBuffer tokens;
+        final int lines; // newlines inside the chunk
+        final RuntimeException error;
+        final boolean hasErrors;
+
+        Chunk(TokenBuffer tokens, int lines, RuntimeException error, boolean hasErrors) {
+            this.tokens = tokens;
+            this.lines = lines;
+            this.error = error;
+            this.hasErrors = hasErrors;
+        }
+    }
+}
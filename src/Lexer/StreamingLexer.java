@@ -0,0 +1,235 @@
+package Lexer;
+
+import Interfaces.Token;
+import Interfaces.TokenStream;
+import Interfaces.TokenType;
+import Utils.Errors;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Pull based lexer over a {@link Reader}. The input is read in fixed size
+ * chunks and tokens are only produced when the parser asks for them, so
+ * memory is bounded by the chunk and the lookahead buffer rather than by the
+ * size of the program. Uses the same transition table as {@link DFALexer}.
+ *
+ * For diagnostics only the first {@value #LINE_WINDOW} characters of a line
+ * are kept, so on a longer line an error message shows a cut line. The text
+ * of the lines the lookahead has moved past stays available.
+ */
+public class StreamingLexer implements TokenStream {
+    private static final int CHUNK_SIZE = 8192;
+    private static final int LOOKAHEAD = 4;
+    private static final int LINE_WINDOW = 1024;
+    // the line being read plus every line the parser may still be at behind the lookahead
+    private static final int RECENT_LINES = LOOKAHEAD + 2;
+
+    private final Reader reader;
+    private final String fileName;
+    private final boolean keepTrivia;
+    private final char[] chunk;
+    private int chunkLength, chunkPosition;
+    private boolean endOfInput;
+
+    // position of the next unread character
+    private int offset, line, lineStart, nextId;
+    // characters of the token being recognised, kept across chunk boundaries
+    private final StringBuilder text = new StringBuilder();
+    // the first LINE_WINDOW characters of recent lines that hold a token, for diagnostics, as a ring
+    private final char[][] lineTexts = new char[RECENT_LINES][LINE_WINDOW];
+    private final int[] lineLengths = new int[RECENT_LINES];
+    private final int[] lineNumbers = new int[RECENT_LINES];
+    private int lineSlot; // the line being read
+    private boolean lineHasToken;
+
+    // tokens lexed ahead by peek(), as a ring buffer
+    private final Token[] lookahead = new Token[LOOKAHEAD];
+    private int lookaheadHead, lookaheadCount;
+
+    public StreamingLexer(Reader reader, String fileName) {
+        this(reader, fileName, CHUNK_SIZE);
+    }
+
+    public StreamingLexer(Reader reader, String fileName, int chunkSize) {
+        this(reader, fileName, chunkSize, false);
+    }
+
+    public StreamingLexer(Reader reader, String fileName, int chunkSize, boolean keepTrivia) {
+        this.reader = reader;
+        this.fileName = fileName;
+        this.keepTrivia = keepTrivia;
+        this.chunk = new char[chunkSize];
+        this.line = 1;
+        this.lineNumbers[0] = 1;
+    }
+
+    @Override
+    public Token next() {
+        if (lookaheadCount > 0) {
+            Token token = lookahead[lookaheadHead];
+            lookahead[lookaheadHead] = null;
+            lookaheadHead = (lookaheadHead + 1) % LOOKAHEAD;
+            lookaheadCount--;
+            return token;
+        }
+        return lex();
+    }
+
+    @Override
+    public Token peek(int k) {
+        if (k < 1 || k > LOOKAHEAD) {
+            throw new IllegalArgumentException("Lookahead must be between 1 and " + LOOKAHEAD + ": " + k);
+        }
+        while (lookaheadCount < k) {
+            Token token = lex();
+            if (token == null) {
+                return null;
+            }
+            lookahead[(lookaheadHead + lookaheadCount) % LOOKAHEAD] = token;
+            lookaheadCount++;
+        }
+        return lookahead[(lookaheadHead + k - 1) % LOOKAHEAD];
+    }
+
+    @Override
+    public String fileName() {
+        return fileName;
+    }
+
+    @Override
+    public String lineText(int line) {
+        for (int slot = 0; slot < RECENT_LINES; slot++) {
+            if (lineNumbers[slot] != line) {
+                continue;
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append(lineTexts[slot], 0, lineLengths[slot]);
+            if (slot == lineSlot) {
+                // the line read so far plus whatever of it is already buffered
+                for (int i = chunkPosition; i < chunkLength && chunk[i] != '\n' && chunk[i] != '\r' && sb.length() < LINE_WINDOW; i++) {
+                    sb.append(chunk[i]);
+                }
+            }
+            return sb.toString();
+        }
+        // further back than the lookahead reaches
+        return "";
+    }
+
+    private Token lex() {
+        int c = keepTrivia ? peekChar() : skipWhitespace();
+        if (c < 0) {
+            return null;
+        }
+
+        int start = offset;
+        int startColumn = offset - lineStart + 1;
+        lineHasToken = true;
+        int state = DFALexer.START;
+        text.setLength(0);
+
+        // the automaton state lives across refills, so a token may span chunks
+        while (c >= 0) {
+            int next = c < DFALexer.ALPHABET ? DFALexer.TRANSITIONS[state][c] : DFALexer.REJECT;
+            if (next == DFALexer.REJECT) {
+                break;
+            }
+            state = next;
+            text.append((char) c);
+            consumeChar();
+            c = peekChar();
+        }
+
+        TokenType type = DFALexer.ACCEPT[state];
+        if (type == null) {
+            throw new RuntimeException(Errors.formatLexerError(fileName, line, offset - lineStart, c < 0 ? '\0' : (char) c, lineText(line)));
+        }
+
+        int id = type == TokenType.NULLTYPE ? 0 : ++nextId;
+        Token token = new Token(id, type, fileName, line, startColumn, valueOf(state, type), start);
+        if (type == TokenType.NUMLIT) {
+            token.Number = DFALexer.numericValue(text, 0, text.length());
+        }
+
+        if (text.charAt(0) == '\n') {
+            newLine();
+        }
+
+        return token;
+    }
+
+    // skips whitespace and returns the first character after it, or -1 at the end
+    private int skipWhitespace() {
+        int c;
+        while ((c = peekChar()) >= 0) {
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\0' && c != '\n') {
+                break;
+            }
+            consumeChar();
+            if (c == '\n') {
+                newLine();
+            }
+        }
+        return c;
+    }
+
+    private void newLine() {
+        ++line;
+        lineStart = offset;
+        // a line without a token is never asked for, its slot is reused
+        if (lineHasToken) {
+            lineSlot = (lineSlot + 1) % RECENT_LINES;
+            lineHasToken = false;
+        }
+        lineNumbers[lineSlot] = line;
+        lineLengths[lineSlot] = 0;
+    }
+
+    private String valueOf(int state, TokenType type) {
+        if (DFALexer.SPELLING[state] != null) {
+            return DFALexer.SPELLING[state];
+        }
+        if (type == TokenType.TEXTLIT) {
+            // strip the quotes
+            return text.substring(1, text.length() - 1);
+        }
+        return text.toString();
+    }
+
+    private int peekChar() {
+        if (chunkPosition == chunkLength && !fill()) {
+            return -1;
+        }
+        return chunk[chunkPosition];
+    }
+
+    private void consumeChar() {
+        char c = chunk[chunkPosition++];
+        if (c != '\n' && c != '\r' && lineLengths[lineSlot] < LINE_WINDOW) {
+            lineTexts[lineSlot][lineLengths[lineSlot]++] = c;
+        }
+        offset++;
+    }
+
+    private boolean fill() {
+        if (endOfInput) {
+            return false;
+        }
+        try {
+            int read;
+            do {
+                read = reader.read(chunk, 0, chunk.length);
+            } while (read == 0);
+
+            if (read < 0) {
+                endOfInput = true;
+                return false;
+            }
+            chunkLength = read;
+            chunkPosition = 0;
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while reading " + fileName + ": " + e.getMessage());
+        }
+    }
+}
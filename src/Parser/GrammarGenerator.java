@@ -0,0 +1,331 @@
+package Parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Build-time generator for the table-driven parser. Reads the grammar in
+ * spl.grammar, computes the FIRST and FOLLOW sets, fills the LL(1) table and
+ * writes it out as SPLTable.java. A grammar that is not LL(1) is rejected with
+ * the conflicting entries.
+ *
+ * Only uses the JDK, so it runs straight from its source file:
+ *
+ *     java src/Parser/GrammarGenerator.java src/Parser/spl.grammar src/Parser/SPLTable.java
+ *
+ * SPLTable.java is committed, so the build does not write it. The
+ * generate-sources phase of the Maven build runs the generator with --check
+ * in front of the two paths instead, which fails when the committed table is
+ * not the one the grammar gives.
+ */
+public class GrammarGenerator {
+    static final String EPSILON = "ε";
+    static final String EOF = "EOF";
+
+    public static void main(String[] args) throws IOException {
+        boolean check = args.length > 0 && args[0].equals("--check");
+        int first = check ? 1 : 0;
+        if (args.length != first + 2) {
+            System.err.println("usage: GrammarGenerator [--check] <grammar> <table>");
+            System.exit(2);
+        }
+
+        String table = generate(Files.readString(Path.of(args[first])));
+        Path out = Path.of(args[first + 1]);
+        if (!check) {
+            Files.writeString(out, table);
+        } else if (!Files.exists(out) || !Files.readString(out).equals(table)) {
+            // leaves the stale table alone, regenerating it is a change to commit
+            System.err.println(out + " is out of date with " + args[first] + ", regenerate it with:");
+            System.err.println("    java src/Parser/GrammarGenerator.java " + args[first] + " " + out);
+            System.exit(1);
+        }
+    }
+
+    // the source of SPLTable for a grammar
+    public static String generate(String grammar) {
+        return new Grammar(grammar).toJava();
+    }
+
+    static class Rule {
+        final String name;
+        final String node; // null when the rule makes no node
+        final List<List<String>> alternatives = new ArrayList<>();
+
+        Rule(String name, String node) {
+            this.name = name;
+            this.node = node;
+        }
+    }
+
+    static class Grammar {
+        final Map<String, Rule> rules = new LinkedHashMap<>();
+        final List<String> nonterminals = new ArrayList<>();
+        final List<String> terminals = new ArrayList<>();
+        final Map<String, Set<String>> first = new LinkedHashMap<>();
+        final Map<String, Set<String>> follow = new LinkedHashMap<>();
+        final Set<String> nullable = new LinkedHashSet<>();
+        // production index per nonterminal and lookahead
+        final Map<String, Map<String, Integer>> table = new LinkedHashMap<>();
+        final List<String> productionNames = new ArrayList<>();
+        final List<List<String>> productions = new ArrayList<>();
+
+        Grammar(String text) {
+            parse(text);
+            computeFirst();
+            computeFollow();
+            buildTable();
+        }
+
+        private void parse(String text) {
+            Rule rule = null;
+            for (String rawLine : text.split("\n")) {
+                String line = rawLine.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String body;
+                if (line.startsWith("|")) {
+                    // continues the alternatives of the previous rule
+                    if (rule == null) {
+                        throw new IllegalArgumentException("Alternative without a rule: " + line);
+                    }
+                    body = line.substring(1);
+                } else {
+                    int equals = line.indexOf('=');
+                    if (equals < 0) {
+                        throw new IllegalArgumentException("Expected NAME = ...: " + line);
+                    }
+                    String head = line.substring(0, equals).strip();
+                    boolean hidden = head.startsWith("~");
+                    if (hidden) {
+                        head = head.substring(1);
+                    }
+                    String name = head;
+                    String node = head;
+                    int colon = head.indexOf(':');
+                    if (colon >= 0) {
+                        name = head.substring(0, colon);
+                        node = head.substring(colon + 1);
+                    }
+                    if (rules.containsKey(name)) {
+                        throw new IllegalArgumentException("Rule defined twice: " + name);
+                    }
+                    rule = new Rule(name, hidden ? null : node);
+                    rules.put(name, rule);
+                    nonterminals.add(name);
+                    body = line.substring(equals + 1);
+                }
+
+                for (String alternative : body.split("\\|", -1)) {
+                    List<String> symbols = new ArrayList<>();
+                    for (String symbol : alternative.strip().split("\\s+")) {
+                        if (!symbol.isEmpty() && !symbol.equals(EPSILON)) {
+                            symbols.add(symbol);
+                        }
+                    }
+                    if (!alternative.isBlank() || body.isBlank()) {
+                        rule.alternatives.add(symbols);
+                    }
+                }
+            }
+
+            for (Rule r : rules.values()) {
+                for (List<String> alternative : r.alternatives) {
+                    for (String symbol : alternative) {
+                        if (!rules.containsKey(symbol) && !terminals.contains(symbol)) {
+                            terminals.add(symbol);
+                        }
+                    }
+                }
+            }
+            if (!terminals.contains(EOF)) {
+                terminals.add(EOF);
+            }
+        }
+
+        private boolean isTerminal(String symbol) {
+            return !rules.containsKey(symbol);
+        }
+
+        // FIRST of a symbol string, EPSILON included when all of it can be empty
+        Set<String> firstOf(List<String> symbols) {
+            Set<String> result = new LinkedHashSet<>();
+            for (String symbol : symbols) {
+                if (isTerminal(symbol)) {
+                    result.add(symbol);
+                    return result;
+                }
+                result.addAll(first.get(symbol));
+                if (!nullable.contains(symbol)) {
+                    return result;
+                }
+            }
+            result.add(EPSILON);
+            return result;
+        }
+
+        private void computeFirst() {
+            for (String nonterminal : nonterminals) {
+                first.put(nonterminal, new LinkedHashSet<>());
+            }
+
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (Rule rule : rules.values()) {
+                    for (List<String> alternative : rule.alternatives) {
+                        Set<String> symbols = firstOf(alternative);
+                        if (symbols.remove(EPSILON)) {
+                            changed |= nullable.add(rule.name);
+                        }
+                        changed |= first.get(rule.name).addAll(symbols);
+                    }
+                }
+            }
+        }
+
+        private void computeFollow() {
+            for (String nonterminal : nonterminals) {
+                follow.put(nonterminal, new LinkedHashSet<>());
+            }
+            follow.get(nonterminals.get(0)).add(EOF);
+
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (Rule rule : rules.values()) {
+                    for (List<String> alternative : rule.alternatives) {
+                        for (int i = 0; i < alternative.size(); i++) {
+                            String symbol = alternative.get(i);
+                            if (isTerminal(symbol)) {
+                                continue;
+                            }
+                            Set<String> rest = firstOf(alternative.subList(i + 1, alternative.size()));
+                            if (rest.remove(EPSILON)) {
+                                changed |= follow.get(symbol).addAll(follow.get(rule.name));
+                            }
+                            changed |= follow.get(symbol).addAll(rest);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void buildTable() {
+            List<String> conflicts = new ArrayList<>();
+            for (Rule rule : rules.values()) {
+                Map<String, Integer> row = new LinkedHashMap<>();
+                table.put(rule.name, row);
+                for (List<String> alternative : rule.alternatives) {
+                    int production = productions.size();
+                    productions.add(alternative);
+                    productionNames.add(rule.name);
+
+                    Set<String> lookaheads = firstOf(alternative);
+                    if (lookaheads.remove(EPSILON)) {
+                        lookaheads.addAll(follow.get(rule.name));
+                    }
+                    for (String lookahead : lookaheads) {
+                        Integer previous = row.putIfAbsent(lookahead, production);
+                        if (previous != null) {
+                            conflicts.add(rule.name + " on " + lookahead + ": " + describe(previous) + " / " + describe(production));
+                        }
+                    }
+                }
+            }
+            if (!conflicts.isEmpty()) {
+                throw new IllegalArgumentException("Grammar is not LL(1):\n  " + String.join("\n  ", conflicts));
+            }
+        }
+
+        private String describe(int production) {
+            List<String> symbols = productions.get(production);
+            return productionNames.get(production) + " = " + (symbols.isEmpty() ? EPSILON : String.join(" ", symbols));
+        }
+
+        String toJava() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("package Parser;\n\n");
+            sb.append("import Interfaces.TokenType;\n\n");
+            sb.append("// Generated from spl.grammar by GrammarGenerator, do not edit.\n");
+            sb.append("final class SPLTable {\n");
+            sb.append("    private SPLTable() {\n    }\n\n");
+
+            sb.append("    // nonterminals, the first one is the start symbol\n");
+            sb.append("    static final String[] NONTERMINALS = {\n");
+            for (String nonterminal : nonterminals) {
+                sb.append("        \"").append(nonterminal).append("\",\n");
+            }
+            sb.append("    };\n\n");
+
+            sb.append("    // node each nonterminal builds, null when its children go to the parent\n");
+            sb.append("    static final TokenType[] NODES = {\n");
+            for (String nonterminal : nonterminals) {
+                String node = rules.get(nonterminal).node;
+                sb.append("        ").append(node == null ? "null" : "TokenType." + node).append(",\n");
+            }
+            sb.append("    };\n\n");
+
+            sb.append("    // right-hand sides, a nonterminal as its index and a terminal as ~ordinal\n");
+            sb.append("    static final int[][] PRODUCTIONS = {\n");
+            for (int p = 0; p < productions.size(); p++) {
+                sb.append("        // ").append(p).append(": ").append(describe(p)).append("\n");
+                sb.append("        {");
+                List<String> symbols = productions.get(p);
+                for (int i = 0; i < symbols.size(); i++) {
+                    sb.append(i == 0 ? " " : ", ").append(encode(symbols.get(i)));
+                }
+                sb.append(symbols.isEmpty() ? "},\n" : " },\n");
+            }
+            sb.append("    };\n\n");
+
+            sb.append("    // LL(1) table: nonterminal, lookahead, production\n");
+            sb.append("    static final int[][] ENTRIES = {\n");
+            for (Map.Entry<String, Map<String, Integer>> row : table.entrySet()) {
+                int nonterminal = nonterminals.indexOf(row.getKey());
+                for (Map.Entry<String, Integer> entry : row.getValue().entrySet()) {
+                    sb.append("        { ").append(nonterminal).append(", TokenType.").append(entry.getKey())
+                            .append(".ordinal(), ").append(entry.getValue()).append(" },\n");
+                }
+            }
+            sb.append("    };\n\n");
+
+            appendSets(sb, "FIRST", first);
+            sb.append("\n");
+            appendSets(sb, "FOLLOW", follow);
+
+            sb.append("\n    private static int t(TokenType type) {\n");
+            sb.append("        return ~type.ordinal();\n");
+            sb.append("    }\n");
+            sb.append("}\n");
+            return sb.toString();
+        }
+
+        private String encode(String symbol) {
+            return isTerminal(symbol) ? "t(TokenType." + symbol + ")" : String.valueOf(nonterminals.indexOf(symbol));
+        }
+
+        private void appendSets(StringBuilder sb, String name, Map<String, Set<String>> sets) {
+            sb.append("    // ").append(name).append(" set of each nonterminal\n");
+            sb.append("    static final TokenType[][] ").append(name).append(" = {\n");
+            for (String nonterminal : nonterminals) {
+                sb.append("        /* ").append(nonterminal).append(" */ {");
+                int i = 0;
+                for (String terminal : sets.get(nonterminal)) {
+                    sb.append(i++ == 0 ? " " : ", ").append("TokenType.").append(terminal);
+                }
+                sb.append(i == 0 ? "},\n" : " },\n");
+            }
+            sb.append("    };\n");
+        }
+    }
+}
@@ -0,0 +1,588 @@
+package Parser;
+
+import Interfaces.ParseNode;
+import Interfaces.ParseType;
+import Interfaces.Token;
+import Interfaces.TokenBuffer;
+import Interfaces.TokenType;
+import Lexer.DFALexer;
+import Utils.SourceMap;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the tokens and parse tree of a source that is edited in place. No
+ * SPL token spans a line, so an edit only re-lexes the lines it touches; the
+ * tokens after it keep their objects, and a {@link TokenGapList} shifts them
+ * lazily. Then only the enclosing part of the tree is parsed again: the run
+ * of "COMMAND ;" links of the innermost INSTRUC list holding the edit, up to
+ * the first old link (or the "end" of the list) the parser lines up with,
+ * otherwise the enclosing function DECL. Everything else, including the rest
+ * of the list, is reused by reference.
+ *
+ * Both re-lexing and re-parsing recover from errors the way a full pass
+ * does, and the diagnostics are kept by position: an edit replaces the ones
+ * on the re-lexed lines and in the re-parsed region, and moves the ones
+ * after them by the lines it adds or removes. So an error elsewhere in the
+ * file does not make an edit any slower. Only an edit that no INSTRUC list
+ * or complete function holds, or that the parser cannot line up with the old
+ * tree again, lexes and parses the whole source.
+ */
+public class IncrementalParser {
+    private final String fileName;
+    private final StringBuilder source;
+    // by position, getErrors reports the lexer's before the parser's like a full pass does
+    private final List<Diagnostic> lexerErrors = new ArrayList<>();
+    private final List<Diagnostic> parserErrors = new ArrayList<>();
+    private TokenGapList tokens;
+    private ParseNode tree;
+    private final List<Step> path = new ArrayList<>(); // the last walk down to an edit, see findSite
+    private int reparsedTokens;
+
+    public IncrementalParser(CharSequence source, String fileName) {
+        this.fileName = fileName;
+        this.source = new StringBuilder(source);
+        parseAll();
+    }
+
+    // the tree and the tokens bring every token position up to date first, which reads the tokens after the last edit
+    public ParseNode tree() {
+        tokens.settle();
+        return tree;
+    }
+
+    public List<Token> tokens() {
+        tokens.settle();
+        return tokens;
+    }
+
+    public CharSequence source() {
+        return source;
+    }
+
+    public List<String> getErrors() {
+        List<String> errors = new ArrayList<>(lexerErrors.size() + parserErrors.size());
+        for (Diagnostic diagnostic : lexerErrors) {
+            errors.add(diagnostic.format());
+        }
+        for (Diagnostic diagnostic : parserErrors) {
+            errors.add(diagnostic.format());
+        }
+        return errors;
+    }
+
+    // tokens the last edit ran through the parser again
+    public int reparsedTokens() {
+        return reparsedTokens;
+    }
+
+    // replaces source[start, end) with text and brings the tokens and the tree up to date
+    public void edit(int start, int end, String text) {
+        int removedLines = countNewlines(source, start, end);
+        int removedLength = end - start;
+        source.replace(start, end, text);
+
+        if (tree != null) {
+            try {
+                if (update(start, removedLength, removedLines, text)) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // a syntax error recovery could not contain in the damaged region, the full pass reports it
+            }
+        }
+        parseAll();
+    }
+
+    private void parseAll() {
+        DFALexer lexer = new DFALexer(source, fileName);
+        lexer.setRecovery(true);
+        List<Token> scanned = lexer.scanTokens();
+        tokens = new TokenGapList(scanned);
+
+        Parser parser = new Parser(scanned, new SourceMap(source));
+        parser.setRecovery(true);
+        tree = parser.parse();
+
+        lexerErrors.clear();
+        lexerErrors.addAll(diagnostics(lexer.getErrors()));
+        parserErrors.clear();
+        parserErrors.addAll(diagnostics(parser.getErrors()));
+
+        path.clear();
+        reparsedTokens = tokens.size();
+    }
+
+    private boolean update(int start, int removedLength, int removedLines, String text) {
+        int delta = text.length() - removedLength;
+
+        // the damaged lines, in the new source
+        int damageStart = start;
+        while (damageStart > 0 && source.charAt(damageStart - 1) != '\n') {
+            damageStart--;
+        }
+        int damageEnd = start + text.length();
+        while (damageEnd < source.length() && source.charAt(damageEnd) != '\n') {
+            damageEnd++;
+        }
+        if (damageEnd < source.length()) {
+            damageEnd++;
+        }
+
+        // the old tokens on those lines
+        int first = firstTokenAt(damageStart);
+        int last = firstTokenAt(damageEnd - delta);
+        if (first == tokens.size()) {
+            return false;
+        }
+
+        int line;
+        if (first > 0) {
+            Token previous = tokens.get(first - 1);
+            line = previous.Line + countNewlines(source, previous.Offset, damageStart);
+        } else {
+            line = 1 + countNewlines(source, 0, damageStart);
+        }
+        DFALexer lexer = new DFALexer(source, fileName, false, damageStart, damageEnd, line);
+        lexer.setRecovery(true);
+        List<Token> relexed = lexer.scanTokens();
+
+        Site site = findSite(first, last);
+        if (site == null) {
+            return false;
+        }
+        // where the re-parsed region starts, before the edit
+        long regionStart = position(tokens.get(site.start));
+
+        int lineDelta = countNewlines(text, 0, text.length()) - removedLines;
+        tokens.replace(first, last, relexed, delta, lineDelta);
+        int tail = first + relexed.size();
+
+        Parser parser = new Parser(new SiteStream(site.start));
+        parser.setRecovery(true);
+        long regionEnd = site.node.nonterminalname.equals("DECL") ? reparseDecl(parser, site) : reparseInstructions(parser, site, tail);
+        if (regionEnd < 0) {
+            return false;
+        }
+
+        // the diagnostics of the re-lexed lines and the re-parsed region, the positions are the ones before the edit
+        long linesEnd = damageEnd == source.length()
+                ? Long.MAX_VALUE
+                : position(line + countNewlines(source, damageStart, damageEnd) - lineDelta, 0);
+        replace(lexerErrors, position(line, 0), linesEnd, lineDelta, diagnostics(lexer.getErrors()));
+        if (regionEnd != Long.MAX_VALUE) {
+            regionEnd -= (long) lineDelta << 32;
+        }
+        replace(parserErrors, regionStart, regionEnd, lineDelta, diagnostics(parser.getErrors()));
+        // the steps from the site down are gone from the tree
+        path.subList(site.depth, path.size()).clear();
+        return true;
+    }
+
+    /**
+     * Parses "COMMAND ;" links until the parser reaches an old link or the
+     * end of the list after the damage. Returns the position the re-parsed
+     * region ends before, or -1 if the parser cannot line up with the old
+     * tree, as when recovery ends the list early.
+     */
+    private long reparseInstructions(Parser parser, Site site, int damageEnd) {
+        List<ParseNode> links = new ArrayList<>();
+        ParseNode oldLink = site.node;
+        ParseNode rest;
+        long end;
+
+        while (true) {
+            Token current = parser.current();
+            int index = current.id - 1;
+            if (current == site.end) {
+                rest = null;
+                // an error reported at the "end" of the list belongs to the list
+                end = position(current) + 1;
+                break;
+            }
+            if (!links.isEmpty() && !endsWithSemicolon(links.get(links.size() - 1))) {
+                // recovery ended the list before the old "end"
+                return -1;
+            }
+            while (oldLink != null && startIndex(oldLink) < index) {
+                oldLink = nextLink(oldLink);
+            }
+            if (index >= damageEnd && oldLink != null && startIndex(oldLink) == index) {
+                rest = oldLink;
+                end = position(current);
+                break;
+            }
+            if (index < 0) {
+                return -1;
+            }
+            links.add(parser.parseInstruction());
+        }
+
+        for (int i = 0; i + 1 < links.size(); i++) {
+            links.get(i).addChild(links.get(i + 1));
+        }
+        if (!links.isEmpty()) {
+            links.get(links.size() - 1).addChild(rest);
+        }
+        ParseNode head = links.isEmpty() ? rest : links.get(0);
+        if (head != null) {
+            site.parent.children.set(site.index, head);
+        } else {
+            // the list is empty now, like the parser leaves it
+            site.parent.children.remove(site.index);
+        }
+
+        reparsedTokens = parser.current().id - 1 - site.start;
+        return end;
+    }
+
+    // parses the function again, returns the position the re-parsed region ends before or -1
+    private long reparseDecl(Parser parser, Site site) {
+        ParseNode decl = parser.parseDecl();
+
+        // the function must end where it did before
+        int next = tokens.indexOf(site.end) + 1;
+        Token current = parser.current();
+        boolean aligned = next == tokens.size() ? current.type == TokenType.EOF : current == tokens.get(next);
+        if (!aligned) {
+            return -1;
+        }
+
+        site.parent.children.set(site.index, decl);
+        reparsedTokens = next - site.start;
+        return next == tokens.size() ? Long.MAX_VALUE : position(current);
+    }
+
+    /**
+     * Walks down to the first damaged token and picks the innermost node on
+     * the way that can be parsed again on its own: an INSTRUC link whose list
+     * ends after the damage, or a complete DECL whose closing "end" is after
+     * it. A DECL that recovery cut short may be followed by skipped tokens,
+     * so it cannot be parsed again on its own. Indexes are old token indexes.
+     *
+     * The walk starts from the deepest step of the previous one that the
+     * damage is still inside, so the long INSTRUC and FUNCTIONS chains are
+     * only walked down again when an edit moves elsewhere.
+     */
+    private Site findSite(int first, int last) {
+        if (path.isEmpty()) {
+            path.add(new Step(tree, -1, -1, null, null));
+        }
+        int low = 1;
+        int high = path.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (reaches(path.get(middle), first)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        path.subList(low, path.size()).clear();
+
+        Step step = path.get(path.size() - 1);
+        ParseNode node = step.node;
+        while (node.type != ParseType.TERMINAL) {
+            int chosen = -1;
+            for (int i = 0; i < node.children.size(); i++) {
+                int childStart = startIndex(node.children.get(i));
+                if (childStart != -1 && childStart <= first) {
+                    chosen = i;
+                }
+            }
+            if (chosen == -1) {
+                break;
+            }
+            // the walk stays in the chosen child up to where the next sibling starts
+            Token until = step.until;
+            for (int i = chosen + 1; i < node.children.size(); i++) {
+                Token next = firstToken(node.children.get(i));
+                if (next != null) {
+                    until = next;
+                    break;
+                }
+            }
+            node = node.children.get(chosen);
+            int algo = "ALGO".equals(node.nonterminalname) ? path.size() : step.algo;
+            step = new Step(node, chosen, algo, firstToken(node), until);
+            path.add(step);
+        }
+
+        for (int k = path.size() - 1; k > 0; k--) {
+            ParseNode candidate = path.get(k).node;
+            if (candidate.type == ParseType.TERMINAL) {
+                continue;
+            }
+
+            if (candidate.nonterminalname.equals("INSTRUC")
+                    && (k + 1 == path.size() || !"INSTRUC".equals(path.get(k + 1).node.nonterminalname))) {
+                List<ParseNode> algoChildren = path.get(path.get(k).algo).node.children;
+                Token end = algoChildren.get(algoChildren.size() - 1).token;
+                if (tokens.indexOf(end) >= last) {
+                    return new Site(path.get(k - 1).node, path.get(k).index, candidate, end, startIndex(candidate), k);
+                }
+            } else if (candidate.nonterminalname.equals("DECL") && candidate.children.size() == 2) {
+                Token end = endToken(candidate);
+                if (tokens.indexOf(end) >= last) {
+                    return new Site(path.get(k - 1).node, path.get(k).index, candidate, end, startIndex(candidate), k);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    // whether the walk from the root still goes through the step for the token index
+    private boolean reaches(Step step, int first) {
+        int start = step.from == null ? -1 : tokens.indexOf(step.from);
+        int end = step.until == null ? tokens.size() : tokens.indexOf(step.until);
+        return start != -1 && start <= first && first < end;
+    }
+
+    private static Token firstToken(ParseNode node) {
+        while (node.type != ParseType.TERMINAL) {
+            if (node.children.isEmpty()) {
+                return null;
+            }
+            node = node.children.get(0);
+        }
+        return node.token;
+    }
+
+    // index of the first token of a subtree, -1 for an empty one or a token that was removed
+    private int startIndex(ParseNode node) {
+        Token token = firstToken(node);
+        return token == null ? -1 : tokens.indexOf(token);
+    }
+
+    private static Token endToken(ParseNode node) {
+        while (node.type != ParseType.TERMINAL) {
+            node = node.children.get(node.children.size() - 1);
+        }
+        return node.token;
+    }
+
+    private static ParseNode nextLink(ParseNode link) {
+        if (link.children.isEmpty()) {
+            return null;
+        }
+        ParseNode last = link.children.get(link.children.size() - 1);
+        return "INSTRUC".equals(last.nonterminalname) ? last : null;
+    }
+
+    // false for a link recovery ended before its ";"
+    private static boolean endsWithSemicolon(ParseNode link) {
+        if (link.children.isEmpty()) {
+            return false;
+        }
+        ParseNode last = link.children.get(link.children.size() - 1);
+        return last.type == ParseType.TERMINAL && last.token.type == TokenType.SEMICOLON;
+    }
+
+    // index of the first token starting at or after the offset
+    private int firstTokenAt(int offset) {
+        int low = 0;
+        int high = tokens.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (tokens.offset(middle) < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int countNewlines(CharSequence text, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // a line and column in one number, ordered like the source
+    private static long position(int line, int column) {
+        return ((long) line << 32) | column;
+    }
+
+    private static long position(Token token) {
+        return position(token.Line, token.Column);
+    }
+
+    /**
+     * Replaces the diagnostics at old positions [from, to) with the new ones
+     * and moves the ones after them by the lines the edit added or removed.
+     */
+    private static void replace(List<Diagnostic> diagnostics, long from, long to, int lineDelta, List<Diagnostic> replacement) {
+        int start = 0;
+        while (start < diagnostics.size() && diagnostics.get(start).position() < from) {
+            start++;
+        }
+        int end = start;
+        while (end < diagnostics.size() && diagnostics.get(end).position() < to) {
+            end++;
+        }
+        for (int i = end; i < diagnostics.size(); i++) {
+            diagnostics.get(i).line += lineDelta;
+        }
+        diagnostics.subList(start, end).clear();
+        diagnostics.addAll(start, replacement);
+    }
+
+    private static List<Diagnostic> diagnostics(List<String> errors) {
+        List<Diagnostic> diagnostics = new ArrayList<>(errors.size());
+        for (String error : errors) {
+            diagnostics.add(Diagnostic.of(error));
+        }
+        return diagnostics;
+    }
+
+    /**
+     * An error as the lexer or parser formats it, "file:line:column: error:
+     * ...", split around the line number so that the line can move.
+     */
+    private static class Diagnostic {
+        private final String file;
+        private int line;
+        private final int column;
+        private final String rest; // from the ":" before the column on
+
+        private Diagnostic(String file, int line, int column, String rest) {
+            this.file = file;
+            this.line = line;
+            this.column = column;
+            this.rest = rest;
+        }
+
+        static Diagnostic of(String error) {
+            int message = error.indexOf(": error: ");
+            int columnStart = error.lastIndexOf(':', message - 1);
+            int lineStart = error.lastIndexOf(':', columnStart - 1);
+            return new Diagnostic(error.substring(0, lineStart),
+                    Integer.parseInt(error.substring(lineStart + 1, columnStart)),
+                    Integer.parseInt(error.substring(columnStart + 1, message)),
+                    error.substring(columnStart));
+        }
+
+        long position() {
+            return IncrementalParser.position(line, column);
+        }
+
+        String format() {
+            return file + ":" + line + rest;
+        }
+    }
+
+    /**
+     * The tokens from a site on, for the parser that parses it again. A token
+     * is brought up to date when the parser reads it, and the text of a line
+     * is found by scanning the source from the site, since the parser only
+     * reports errors inside the region it parses.
+     */
+    private class SiteStream implements Parser.IndexedStream {
+        private final int start;
+        private int index;
+
+        SiteStream(int start) {
+            this.start = start;
+            this.index = start;
+        }
+
+        @Override
+        public Token next() {
+            return index < tokens.size() ? tokens.get(index++) : null;
+        }
+
+        @Override
+        public Token peek(int k) {
+            int position = index + k - 1;
+            return position < tokens.size() ? tokens.get(position) : null;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public void seek(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int size() {
+            return tokens.size();
+        }
+
+        @Override
+        public TokenType type(int index) {
+            return tokens.raw(index).type;
+        }
+
+        @Override
+        public Token token(int index) {
+            return tokens.get(index);
+        }
+
+        @Override
+        public TokenBuffer buffer() {
+            return null;
+        }
+
+        @Override
+        public String fileName() {
+            return fileName;
+        }
+
+        @Override
+        public String lineText(int line) {
+            Token anchor = tokens.get(start);
+            int offset = anchor.Offset;
+            while (offset > 0 && source.charAt(offset - 1) != '\n') {
+                offset--;
+            }
+            int at = anchor.Line;
+            while (at < line && offset < source.length()) {
+                if (source.charAt(offset++) == '\n') {
+                    at++;
+                }
+            }
+            while (at > line && offset > 0) {
+                // back over the newline ending the line before, then to its start
+                offset--;
+                while (offset > 0 && source.charAt(offset - 1) != '\n') {
+                    offset--;
+                }
+                at--;
+            }
+            if (at != line) {
+                return "";
+            }
+            int end = offset;
+            while (end < source.length() && source.charAt(end) != '\n') {
+                end++;
+            }
+            if (end > offset && source.charAt(end - 1) == '\r') {
+                end--;
+            }
+            return source.substring(offset, end);
+        }
+    }
+
+    // the node parsed again, where it hangs in the tree, the token closing it, the first token it starts at and its depth
+    private record Site(ParseNode parent, int index, ParseNode node, Token end, int start, int depth) {
+    }
+
+    /**
+     * A node on the walk down to an edit: its index among its parent's
+     * children, the depth of the nearest ALGO at or above it, and the tokens
+     * the walk reaches it for, from its first token up to the first token of
+     * whatever follows it, null for the end of the file.
+     */
+    private record Step(ParseNode node, int index, int algo, Token from, Token until) {
+    }
+}
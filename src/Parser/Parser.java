@@ -1,670 +1,1244 @@
 package Parser;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import Interfaces.ParseNode;
-import Interfaces.ParseType;
+import Interfaces.ParseTree;
 import Interfaces.Token;
+import Interfaces.TokenBuffer;
+import Interfaces.TokenStream;
 import Interfaces.TokenType;
 import Utils.Errors;
-
+import Utils.SourceMap;
+
+/**
+ * Recursive descent parser for SPL. By default the first syntax error
+ * throws. With recovery turned on (panic mode) each error is recorded, the
+ * parser drops tokens until a ";", "end", "}" or function header and carries
+ * on, so one pass reports every error. Errors at a token that already failed
+ * are not reported twice.
+ *
+ * The tree is built as a compact {@link ParseTree}, parse() turns it into
+ * ParseNode objects for the callers that still want those.
+ */
 public class Parser {
-    private final List<Token> tokens;
-    private Token current;
-    private int index;
-    private int line;
-    private String currentLine;
-    
+    // top-level functions are only parsed on the pool in batches of at least this many tokens
+    private static final int MIN_BATCH_TOKENS = 4096;
+
+    private final TokenStream tokens;
+    private final TokenCursor current;
+    private boolean recovery;
+    private final List<String> errors = new ArrayList<>();
+    private SyntaxError lastError;
+    private int lastErrorPosition = -1;
+    private ParseTree tree;
+    private ForkJoinPool pool;
+
     public Parser(List<Token> tokens) {
-        this.tokens = tokens;
-        this.index = -1;
-        this.line = 0;
-        this.current = null;
-        this.currentLine = "";
-        this.advance();
+        this(tokens, null);
     }
-    
-    private Token advance(){
-        if (this.index + 1 < this.tokens.size()) {
-            this.index++;
-            this.current = this.tokens.get(this.index);
-            if(this.current.Line != this.line){
-                this.line = this.current.Line;
-                this.currentLine = this.current.Value;
-            } else {
-                this.currentLine += this.current.Value;
-            }
 
-            while(this.current.type == TokenType.NULLTYPE && this.index + 1 < this.tokens.size()){
-                this.index++;
-                this.current = this.tokens.get(this.index);
-                if(this.current.Line != this.line){
-                    this.line = this.current.Line;
-                    this.currentLine = this.current.Value;
-                } else {
-                    this.currentLine += this.current.Value;
-                }
-            }
+    public Parser(List<Token> tokens, SourceMap sourceMap) {
+        this(new TokenListStream(tokens, sourceMap));
+    }
 
-            if(this.current.type == TokenType.NULLTYPE){
-                this.current = new Token(TokenType.EOF, this.current.fileName, this.current.Line, this.current.Column, "EOF");
-            }
+    public Parser(TokenBuffer tokens) {
+        this(new TokenBufferStream(tokens));
+    }
 
-            return this.current;
-        } else if( this.current.type == TokenType.END){
-            this.current = new Token(TokenType.EOF, this.current.fileName, this.current.Line, this.current.Column, "EOF");
-            return this.current;
-        }
-        else {
+    public Parser(TokenStream tokens) {
+        this.tokens = tokens;
+        this.current = new TokenCursor(tokens);
+        this.advance();
+    }
+    
+    private void advance(){
+        // whitespace only reaches the parser when the lexer keeps trivia, the cursor skips it
+        if (!this.current.advance()) {
             // throw error that we reached unexpected EOF without fully building the syntax tree
-            throw new RuntimeException(Errors.formatParserError(this.current, "Reached unexpected EOF with incomplete parse tree", currentLine));
+            throw new SyntaxError(Errors.formatParserError(this.current.token(), "Reached unexpected EOF with incomplete parse tree", currentLine()));
         }
     }
 
     private void matchType(TokenType type){
         if(this.current.type != type){
-            throw new RuntimeException(Errors.formatParserError(this.current, Errors.stringRepresentation(type), currentLine));
+            throw new SyntaxError(Errors.formatParserError(this.current.token(), Errors.stringRepresentation(type), currentLine()));
         }
     }
 
     private void matchTwoTypes(TokenType type1, TokenType type2){
         if(this.current.type != type1 && this.current.type != type2){
-            throw new RuntimeException(Errors.formatParserError(this.current, Errors.stringRepresentation(type1) + " or " + Errors.stringRepresentation(type2), currentLine));
+            throw new SyntaxError(Errors.formatParserError(this.current.token(), Errors.stringRepresentation(type1) + " or " + Errors.stringRepresentation(type2), currentLine()));
+        }
+    }
+
+    // record syntax errors and keep going instead of throwing on the first one
+    public void setRecovery(boolean recovery) {
+        this.recovery = recovery;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    // parse the top-level function declarations concurrently on the pool, null parses sequentially
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // records an error in recovery mode, otherwise rethrows it
+    private void report(SyntaxError error) {
+        if (!this.recovery) {
+            throw error;
+        }
+        if (error != this.lastError && this.current.position() != this.lastErrorPosition) {
+            errors.add(error.getMessage());
         }
+        this.lastError = error;
+        this.lastErrorPosition = this.current.position();
+    }
+
+    private boolean atFunctionHeader() {
+        if (this.current.type != TokenType.NUM && this.current.type != TokenType.FVOID) {
+            return false;
+        }
+        return this.current.peekType() == TokenType.FNAME;
+    }
+
+    // panic mode: drops tokens until one of the given types, a function header or the end of the input
+    private void synchronize(TokenType... stops) {
+        while (this.current.type != TokenType.EOF && !atFunctionHeader()) {
+            for (TokenType stop : stops) {
+                if (this.current.type == stop) {
+                    return;
+                }
+            }
+            skipToken();
+        }
+    }
+
+    // like advance, but running off the end of the input gives EOF instead of an error
+    private void skipToken() {
+        if (this.current.peekType() == null) {
+            this.current.eof(this.current.token());
+        } else {
+            this.advance();
+        }
+    }
+
+    // text of the line holding the current token, only built when an error is reported
+    private String currentLine(){
+        return this.current.lineText();
     }
 
     public ParseNode parse() {
-        return parsePROG();
+        ParseTree tree = parseTree();
+        return tree == null ? null : tree.toParseNode(tree.root());
     }
 
-    private ParseNode parsePROG() {
-        ParseNode node = new ParseNode("PROG");
+    // parses into the compact tree, parse() builds the ParseNode objects from it
+    public ParseTree parseTree() {
+        this.tree = this.current.newTree(64);
+        try {
+            this.tree.setRoot(parsePROG());
+            return this.tree;
+        } catch (SyntaxError e) {
+            // nothing left to resynchronise on, only reached in recovery mode
+            report(e);
+            return null;
+        }
+    }
+
+    // one "COMMAND ;" link of an INSTRUC list, without its tail, for re-parsing part of a list;
+    // in recovery mode a link without its ";" ends the list, as it does in parseInstruc
+    public ParseNode parseInstruction() {
+        this.tree = this.current.newTree(16);
+        int node = tree.nonterminal(TokenType.INSTRUC);
+        parseLink(node);
+        return tree.toParseNode(node);
+    }
+
+    // one function DECL, for re-parsing a single function
+    public ParseNode parseDecl() {
+        ParseTree decl = parseDeclTree();
+        return decl.toParseNode(decl.root());
+    }
+
+    private ParseTree parseDeclTree() {
+        this.tree = this.current.newTree(64);
+        int node = tree.nonterminal(TokenType.DECL);
+        tree.addChild(node, parseFuncHeader());
+        tree.addChild(node, parseFuncBody());
+        tree.setRoot(node);
+        return tree;
+    }
+
+    // the token the parser will read next
+    public Token current() {
+        return this.current.token();
+    }
+
+    private int parsePROG() {
+        int node = tree.nonterminal(TokenType.PROG);
 
         // main
         matchType(TokenType.MAIN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // globvars
-        ParseNode gbVars = parseGLOBVARS();
-        if(gbVars != null){
-            node.addChild(gbVars);
+        int gbVars = ParseTree.NONE;
+        try {
+            gbVars = parseGLOBVARS();
+        } catch (SyntaxError e) {
+            report(e);
+            synchronize(TokenType.BEGIN);
+        }
+        if(gbVars != ParseTree.NONE){
+            tree.addChild(node, gbVars);
         } else {
-            node.addChild(new ParseNode("GLOBVARS"));
+            tree.addChild(node, tree.nonterminal(TokenType.GLOBVARS));
         }
 
         // algo
-        node.addChild(parseAlgo());
+        try {
+            tree.addChild(node, parseAlgo());
+        } catch (SyntaxError e) {
+            report(e);
+            synchronize();
+        }
 
         // functions
-        ParseNode functions = parseFUNCTIONS();
-        if(functions != null){
-            node.addChild(functions);
+        int functions = this.pool != null && this.tokens instanceof IndexedStream indexed ? parseFUNCTIONSParallel(indexed) : parseFUNCTIONS();
+        if(functions != ParseTree.NONE){
+            tree.addChild(node, functions);
         } else {
-            node.addChild(new ParseNode("FUNCTIONS"));
+            tree.addChild(node, tree.nonterminal(TokenType.FUNCTIONS));
         }
 
         return node;
     }
 
-    private ParseNode parseGLOBVARS() {
-        ParseNode node = new ParseNode("GLOBVARS");
-
+    private int parseGLOBVARS() {
         if(this.current.type == TokenType.BEGIN){
-            return null;
+            return ParseTree.NONE;
         }
 
-        // VTYPE
-        matchTwoTypes(TokenType.NUM, TokenType.VTEXT);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
-        this.advance();
+        // GLOBVARS := VTYPE VNAME , GLOBVARS is parsed with a loop, each link nests inside the previous one
+        int head = tree.nonterminal(TokenType.GLOBVARS);
+        int node = head;
 
-        // VNAME
-        matchType(TokenType.VNAME);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
-        this.advance();
+        while (true) {
+            // VTYPE
+            matchTwoTypes(TokenType.NUM, TokenType.VTEXT);
+            tree.addChild(node, this.current.terminal(tree));
+            this.advance();
 
-        // if "," then parse GLOBVARS else return node
-        if (this.current.type == TokenType.COMMA) {
-            node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+            // VNAME
+            matchType(TokenType.VNAME);
+            tree.addChild(node, this.current.terminal(tree));
             this.advance();
-            node.addChild(parseGLOBVARS());
+
+            // if "," then parse the next link else return the list
+            if (this.current.type != TokenType.COMMA) {
+                break;
+            }
+            tree.addChild(node, this.current.terminal(tree));
+            this.advance();
+
+            if (this.current.type == TokenType.BEGIN) {
+                break;
+            }
+            int next = tree.nonterminal(TokenType.GLOBVARS);
+            tree.addChild(node, next);
+            node = next;
         }
 
-        return node;
+        return head;
     }
 
-    private ParseNode parseAlgo(){
-        ParseNode node = new ParseNode("ALGO");
+    private int parseAlgo(){
+        int node = tree.nonterminal(TokenType.ALGO);
 
         // begin
         matchType(TokenType.BEGIN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // instruc
-        node.addChild(parseInstruc());
+        tree.addChild(node, parseInstruc());
 
         // end
         matchType(TokenType.END);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         return node;
     }
 
-    private ParseNode parseFUNCTIONS(){
-        ParseNode node = new ParseNode("FUNCTIONS");
+    private int parseFUNCTIONS(){
+        if(this.current.type == TokenType.END || this.current.type == TokenType.EOF){
+            return ParseTree.NONE;
+        }
+
+        // FUNCTIONS := DECL FUNCTIONS is parsed with a loop, each link nests inside the previous one
+        int head = tree.nonterminal(TokenType.FUNCTIONS);
+        int node = head;
+
+        while (true) {
+            int decl = tree.nonterminal(TokenType.DECL);
+            int start = this.current.position();
+
+            try {
+                // match header
+                tree.addChild(decl, parseFuncHeader());
 
+                // match body
+                tree.addChild(decl, parseFuncBody());
+            } catch (SyntaxError e) {
+                report(e);
+                if (this.current.position() == start) {
+                    skipToken();
+                }
+                // resume at the next function header
+                synchronize();
+            }
+
+            tree.addChild(node, decl);
+
+            // match another header type
+            if(this.current.type != TokenType.NUM && this.current.type != TokenType.FVOID){
+                break;
+            }
+            int next = tree.nonterminal(TokenType.FUNCTIONS);
+            tree.addChild(node, next);
+            node = next;
+        }
+
+        return head;
+    }
+
+    /**
+     * FUNCTIONS with every top-level DECL parsed on the pool. A cheap scan
+     * over the token types finds where each DECL ends: its body is the first
+     * "}" after the header, followed by nested DECLs and the closing "end".
+     * The DECLs are parsed in batches without recovery and copied into the
+     * tree in source order. If the scan or any batch fails, the whole list is
+     * parsed again sequentially, so diagnostics are exactly the sequential
+     * ones whatever the scheduling.
+     */
+    private int parseFUNCTIONSParallel(IndexedStream stream) {
         if(this.current.type == TokenType.END || this.current.type == TokenType.EOF){
-            return null;
+            return ParseTree.NONE;
         }
 
-        ParseNode decl = new ParseNode("DECL");
+        List<Integer> bounds = scanDecls(stream, stream.index() - 1);
+        if (bounds == null) {
+            return parseFUNCTIONS();
+        }
 
-        // match header
-        decl.addChild(parseFuncHeader());
+        // group the DECLs into batches, not worth the hand-off for a single one
+        List<Integer> batches = new ArrayList<>();
+        batches.add(0);
+        for (int i = 1; i < bounds.size() - 1; i++) {
+            if (bounds.get(i) - bounds.get(batches.get(batches.size() - 1)) >= MIN_BATCH_TOKENS) {
+                batches.add(i);
+            }
+        }
+        batches.add(bounds.size() - 1);
+        if (batches.size() <= 2) {
+            return parseFUNCTIONS();
+        }
 
-        // match body
-        decl.addChild(parseFuncBody());
+        List<ForkJoinTask<List<ParseTree>>> tasks = new ArrayList<>();
+        for (int b = 0; b + 1 < batches.size(); b++) {
+            int from = batches.get(b);
+            int to = batches.get(b + 1);
+            tasks.add(this.pool.submit(() -> parseDecls(stream, bounds, from, to)));
+        }
 
-        node.addChild(decl);
+        List<ParseTree> decls = new ArrayList<>();
+        for (ForkJoinTask<List<ParseTree>> task : tasks) {
+            List<ParseTree> batch = task.join();
+            if (batch == null) {
+                return parseFUNCTIONS();
+            }
+            decls.addAll(batch);
+        }
 
-        // match another header type
-        if(this.current.type == TokenType.NUM || this.current.type == TokenType.FVOID){
-            node.addChild(parseFUNCTIONS());
+        int head = tree.nonterminal(TokenType.FUNCTIONS);
+        int node = head;
+        for (int i = 0; i < decls.size(); i++) {
+            ParseTree decl = decls.get(i);
+            tree.addChild(node, tree.graft(decl, decl.root()));
+            if (i + 1 < decls.size()) {
+                int next = tree.nonterminal(TokenType.FUNCTIONS);
+                tree.addChild(node, next);
+                node = next;
+            }
         }
 
-        return node;
+        // the input is used up, as after the last "end" of the sequential parse
+        Token last = stream.token(bounds.get(bounds.size() - 1) - 1);
+        stream.seek(stream.size());
+        this.current.eof(last);
+
+        return head;
+    }
+
+    // DECLs bounds[from] .. bounds[to] on their own parsers, null on a syntax error
+    private static List<ParseTree> parseDecls(IndexedStream stream, List<Integer> bounds, int from, int to) {
+        List<ParseTree> decls = new ArrayList<>();
+        try {
+            for (int i = from; i < to; i++) {
+                Parser parser = new Parser(new TokenRangeStream(stream, bounds.get(i), bounds.get(i + 1)));
+                decls.add(parser.parseDeclTree());
+                if (parser.current.type != TokenType.EOF) {
+                    return null;
+                }
+            }
+        } catch (SyntaxError e) {
+            return null;
+        }
+        return decls;
+    }
+
+    // start index of every top-level DECL plus the end of the last one, null unless they run to the end of the input
+    private static List<Integer> scanDecls(IndexedStream stream, int start) {
+        List<Integer> bounds = new ArrayList<>();
+        int size = stream.size();
+        int i = skipTrivia(stream, start);
+
+        while (i < size) {
+            bounds.add(i);
+            int depth = 0;
+            do {
+                if (isHeader(stream, i)) {
+                    // no braces inside a body, its nested functions come after the "}"
+                    while (i < size && stream.type(i) != TokenType.RIGHT_BRACE) {
+                        i++;
+                    }
+                    if (i == size) {
+                        return null;
+                    }
+                    depth++;
+                } else if (stream.type(i) == TokenType.END) {
+                    depth--;
+                } else {
+                    return null;
+                }
+                i = skipTrivia(stream, i + 1);
+            } while (depth > 0 && i < size);
+
+            if (depth > 0) {
+                return null;
+            }
+        }
+
+        bounds.add(size);
+        return bounds;
+    }
+
+    private static boolean isHeader(IndexedStream stream, int i) {
+        TokenType type = stream.type(i);
+        int next = skipTrivia(stream, i + 1);
+        return (type == TokenType.NUM || type == TokenType.FVOID) && next < stream.size() && stream.type(next) == TokenType.FNAME;
+    }
+
+    private static int skipTrivia(IndexedStream stream, int i) {
+        while (i < stream.size() && stream.type(i) == TokenType.NULLTYPE) {
+            i++;
+        }
+        return i;
     }
 
-    private ParseNode parseFuncHeader(){
-        ParseNode node = new ParseNode("HEADER");
+    private int parseFuncHeader(){
+        int node = tree.nonterminal(TokenType.HEADER);
 
         // match ftype
         matchTwoTypes(TokenType.NUM, TokenType.FVOID);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // match fname
         matchType(TokenType.FNAME);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // (
         matchType(TokenType.LEFT_PAREN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // vname 1
         matchType(TokenType.VNAME);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // ,
         matchType(TokenType.COMMA);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // vname 2
         matchType(TokenType.VNAME);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // ,
         matchType(TokenType.COMMA);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // vname 3
         matchType(TokenType.VNAME);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // )
         matchType(TokenType.RIGHT_PAREN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         return node;
     }
 
-    private ParseNode parseFuncBody(){
-        ParseNode node = new ParseNode("BODY");
+    private int parseFuncBody(){
+        int node = tree.nonterminal(TokenType.BODY);
 
         // {
         matchType(TokenType.LEFT_BRACE);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
-        // locvars
-        node.addChild(parseLocalVars());
+        try {
+            // locvars
+            tree.addChild(node, parseLocalVars());
 
-        // algo
-        node.addChild(parseAlgo());
+            // algo
+            tree.addChild(node, parseAlgo());
 
-        // }
-        matchType(TokenType.RIGHT_BRACE);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+            // }
+            matchType(TokenType.RIGHT_BRACE);
+        } catch (SyntaxError e) {
+            report(e);
+            synchronize(TokenType.RIGHT_BRACE);
+            if (this.current.type != TokenType.RIGHT_BRACE) {
+                throw e;
+            }
+        }
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // subfunctions
         if(this.current.type == TokenType.NUM || this.current.type == TokenType.FVOID){
-            node.addChild(parseFUNCTIONS());
+            tree.addChild(node, parseFUNCTIONS());
         }
 
         // end
         matchType(TokenType.END);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         return node;
     }
 
-    private ParseNode parseLocalVars(){
-        ParseNode node = new ParseNode("LOCALVARS");
+    private int parseLocalVars(){
+        int node = tree.nonterminal(TokenType.LOCALVARS);
 
         // VTYPE
         matchTwoTypes(TokenType.NUM, TokenType.VTEXT);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // VNAME
         matchType(TokenType.VNAME);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // ,
         matchType(TokenType.COMMA);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // VTYPE
         matchTwoTypes(TokenType.NUM, TokenType.VTEXT);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // VNAME
         matchType(TokenType.VNAME);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // ,
         matchType(TokenType.COMMA);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // VTYPE
         matchTwoTypes(TokenType.NUM, TokenType.VTEXT);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // VNAME
         matchType(TokenType.VNAME);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // ,
         matchType(TokenType.COMMA);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         return node;
     }
 
-    private ParseNode parseInstruc(){
-        ParseNode node = new ParseNode("INSTRUC");
-
+    private int parseInstruc(){
         if(this.current.type == TokenType.END){
-            return null;
+            return ParseTree.NONE;
         }
 
-        // command
-        node.addChild(parseCommand());
+        // INSTRUC := COMMAND ; INSTRUC is parsed with a loop, each link nests inside the previous one
+        int head = tree.nonterminal(TokenType.INSTRUC);
+        int node = head;
 
-        // semi-colon
-        matchType(TokenType.SEMICOLON);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
-        this.advance();
-        node.addChild(parseInstruc());
+        while (true) {
+            if (!parseLink(node)) {
+                break;
+            }
 
-        return node;
+            if(this.current.type == TokenType.END){
+                break;
+            }
+            int next = tree.nonterminal(TokenType.INSTRUC);
+            tree.addChild(node, next);
+            node = next;
+        }
+
+        return head;
+    }
+
+    // parses "COMMAND ;" into the link, false if recovery stopped before a ";" and the list ends
+    private boolean parseLink(int node) {
+        try {
+            // command
+            tree.addChild(node, parseCommand());
+
+            // semi-colon
+            matchType(TokenType.SEMICOLON);
+        } catch (SyntaxError e) {
+            report(e);
+            synchronize(TokenType.SEMICOLON, TokenType.END, TokenType.RIGHT_BRACE);
+            if (this.current.type != TokenType.SEMICOLON) {
+                return false;
+            }
+        }
+        tree.addChild(node, this.current.terminal(tree));
+        this.advance();
+        return true;
     }
 
-    private ParseNode parseCommand(){
-        ParseNode node = new ParseNode("COMMAND");
+    private int parseCommand(){
+        int node = tree.nonterminal(TokenType.COMMAND);
 
         switch (this.current.type) {
             case SKIP -> {
-                node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+                tree.addChild(node, this.current.terminal(tree));
                 this.advance();
                 return node;
             }
             case HALT -> {
-                node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+                tree.addChild(node, this.current.terminal(tree));
                 this.advance();
                 return node;
             }
             case PRINT -> {
-                node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+                tree.addChild(node, this.current.terminal(tree));
                 this.advance();
-                node.addChild(parseAtomic());
+                tree.addChild(node, parseAtomic());
                 return node;
             }
             case VNAME -> {
                 //ASSIGN
-                node.addChild(parseVNAMEASSIGN());
+                tree.addChild(node, parseVNAMEASSIGN());
                 return node;
             }
             case FNAME -> {
                 //CALL
-                node.addChild(parseFNAMECALL());
+                tree.addChild(node, parseFNAMECALL());
                 return node;
             }
             case IF -> {
                 //IF
-                node.addChild(parseIF());
+                tree.addChild(node, parseIF());
                 return node;
             }
             case RETURN -> {
                 //RETURN
-                node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+                tree.addChild(node, this.current.terminal(tree));
                 this.advance();
-                node.addChild(parseAtomic());
+                tree.addChild(node, parseAtomic());
                 return node;
             }
-            default -> throw new RuntimeException(Errors.formatParserError(this.current, "SKIP, HALT, PRINT, VNAME, FNAME, IF, INPUT", currentLine));
+            default -> throw new SyntaxError(Errors.formatParserError(this.current.token(), "SKIP, HALT, PRINT, VNAME, FNAME, IF, INPUT", currentLine()));
         }
     }
 
-    private ParseNode parseVNAMEASSIGN(){
-        ParseNode node = new ParseNode("ASSIGN");
+    private int parseVNAMEASSIGN(){
+        int node = tree.nonterminal(TokenType.ASSIGN);
 
         // VNAME
-        node.addChild(parseVNAME());
+        tree.addChild(node, parseVNAME());
 
         // < or =
         TokenType type = this.current.type;
         matchTwoTypes(TokenType.LESS_THAN_SIGN, TokenType.EQUAL_SIGN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         if(type == TokenType.LESS_THAN_SIGN){
             // <
             // expect input
             matchType(TokenType.INPUT);
-            node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+            tree.addChild(node, this.current.terminal(tree));
             this.advance();
         }
         else{
             // =
             // TERM
-            node.addChild(parseTerm());
+            tree.addChild(node, parseTerm());
         }
 
         return node;
     }
 
-    private ParseNode parseAtomic(){
-        ParseNode node = new ParseNode("ATOMIC");
+    private int parseAtomic(){
+        int node = tree.nonterminal(TokenType.ATOMIC);
 
         if(this.current.type == TokenType.VNAME){
-            node.addChild(parseVNAME());
+            tree.addChild(node, parseVNAME());
             return node;
         }
         else{
-            node.addChild(parseCONST());
+            tree.addChild(node, parseCONST());
             return node;
         }
     }
 
-    private ParseNode parseVNAME(){
+    private int parseVNAME(){
         matchType(TokenType.VNAME);
-        ParseNode node = new ParseNode(this.current, ParseType.TERMINAL);
+        int node = this.current.terminal(tree);
         this.advance();
         return node;
     }
 
-    private ParseNode parseFNAMECALL(){
-        ParseNode node = new ParseNode("CALL");
+    private int parseFNAMECALL(){
+        int node = tree.nonterminal(TokenType.CALL);
 
         // FNAME
         matchType(TokenType.FNAME);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // (
         matchType(TokenType.LEFT_PAREN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // ATOMIC
-        node.addChild(parseAtomic());
+        tree.addChild(node, parseAtomic());
 
         // ,
         matchType(TokenType.COMMA);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // ATOMIC
-        node.addChild(parseAtomic());
+        tree.addChild(node, parseAtomic());
 
         // ,
         matchType(TokenType.COMMA);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // ATOMIC
-        node.addChild(parseAtomic());
+        tree.addChild(node, parseAtomic());
 
         // )
         matchType(TokenType.RIGHT_PAREN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         return node;
     }
 
-    private ParseNode parseCONST(){
+    private int parseCONST(){
         matchTwoTypes(TokenType.NUMLIT, TokenType.TEXTLIT);
-        ParseNode node = new ParseNode(this.current, ParseType.TERMINAL);
+        int node = this.current.terminal(tree);
         this.advance();
         return node;
     }
 
-    private ParseNode parseTerm(){
-        ParseNode node = new ParseNode("TERM");
+    private int parseTerm(){
+        int node = tree.nonterminal(TokenType.TERM);
 
         switch (this.current.type){
             case NUMLIT, TEXTLIT -> {
-                node.addChild(parseCONST());
+                tree.addChild(node, parseCONST());
                 break;
             }
             case VNAME -> {
-                node.addChild(parseVNAME());
+                tree.addChild(node, parseVNAME());
                 break;
             }
             case FNAME -> {
-                node.addChild(parseFNAMECALL());
+                tree.addChild(node, parseFNAMECALL());
                 break;
             }
-            default -> node.addChild(parseOp());
+            default -> tree.addChild(node, parseOp());
         }
 
         return node;
     }
 
-    private ParseNode parseOp(){
-        ParseNode node = new ParseNode("OP");
+    private int parseOp(){
+        int node = tree.nonterminal(TokenType.OP);
 
         switch (this.current.type) {// unop or binop
             case NOT, SQRT -> {
                 // expect unop
-                node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+                tree.addChild(node, this.current.terminal(tree));
                 this.advance();
 
                 // advance and expect (
                 matchType(TokenType.LEFT_PAREN);
-                node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+                tree.addChild(node, this.current.terminal(tree));
                 this.advance();
 
-                node.addChild(parseArg());
+                tree.addChild(node, parseArg());
 
                 // advance and expect )
                 matchType(TokenType.RIGHT_PAREN);
-                node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+                tree.addChild(node, this.current.terminal(tree));
                 this.advance();
             }
             case OR, AND, EQ, GT, ADD, SUB, MUL, DIV -> {
                 // expect binop
-                node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+                tree.addChild(node, this.current.terminal(tree));
                 this.advance();
 
                 // advance and expect (
                 matchType(TokenType.LEFT_PAREN);
-                node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+                tree.addChild(node, this.current.terminal(tree));
                 this.advance();
 
-                node.addChild(parseArg());
+                tree.addChild(node, parseArg());
 
                 // advance and expect ,
                 matchType(TokenType.COMMA);
-                node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+                tree.addChild(node, this.current.terminal(tree));
                 this.advance();
 
-                node.addChild(parseArg());
+                tree.addChild(node, parseArg());
 
                 // advance and expect )
                 matchType(TokenType.RIGHT_PAREN);
-                node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+                tree.addChild(node, this.current.terminal(tree));
                 this.advance();
             }
-            default -> throw new RuntimeException(Errors.formatParserError(this.current, "NOT, SQRT, OR, AND, EQ, GT, ADD, SUB, MUL, DIV", currentLine));
+            default -> throw new SyntaxError(Errors.formatParserError(this.current.token(), "NOT, SQRT, OR, AND, EQ, GT, ADD, SUB, MUL, DIV", currentLine()));
         }
 
         return node;
     }
 
-    private ParseNode parseArg(){
-        ParseNode node = new ParseNode("ARG");
+    private int parseArg(){
+        int node = tree.nonterminal(TokenType.ARG);
 
         switch (this.current.type) {// unop or binop
-            case NOT, SQRT, OR, AND, EQ, GT, ADD, SUB, MUL, DIV -> node.addChild(parseOp());
-            default -> node.addChild(parseAtomic());
+            case NOT, SQRT, OR, AND, EQ, GT, ADD, SUB, MUL, DIV -> tree.addChild(node, parseOp());
+            default -> tree.addChild(node, parseAtomic());
         }
 
         return node;
     }
 
-    private ParseNode parseIF(){
-        ParseNode node = new ParseNode("BRANCH");
+    private int parseIF(){
+        int node = tree.nonterminal(TokenType.BRANCH);
 
         // if
         matchType(TokenType.IF);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // condition
-        node.addChild(parseCondition());
+        tree.addChild(node, parseCondition());
 
         // then
         matchType(TokenType.THEN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // instruc
-        node.addChild(parseAlgo());
+        tree.addChild(node, parseAlgo());
 
         // else
         if (this.current.type == TokenType.ELSE) {
-            node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+            tree.addChild(node, this.current.terminal(tree));
             this.advance();
-            node.addChild(parseAlgo());
+            tree.addChild(node, parseAlgo());
         }
 
         return node;
     }
 
-    private ParseNode parseCondition(){
-        ParseNode node = new ParseNode("COND");
+    private int parseCondition(){
+        int node = tree.nonterminal(TokenType.COND);
 
         switch (this.current.type) {// unop or binop
-            case NOT, SQRT -> node.addChild(parseUnopBuilder());
-            case OR, AND, EQ, GT, ADD, SUB, MUL, DIV -> node.addChild(parseBinopBuilder(true));
-            default -> throw new RuntimeException(Errors.formatParserError(this.current, "NOT, SQRT, OR, AND, EQ, GT, ADD, SUB, MUL, DIV", currentLine));
+            case NOT, SQRT -> tree.addChild(node, parseUnopBuilder());
+            case OR, AND, EQ, GT, ADD, SUB, MUL, DIV -> tree.addChild(node, parseBinopBuilder(true));
+            default -> throw new SyntaxError(Errors.formatParserError(this.current.token(), "NOT, SQRT, OR, AND, EQ, GT, ADD, SUB, MUL, DIV", currentLine()));
         }
 
         return node;
     }
 
-    private ParseNode parseBinop(Boolean recursive){
-        ParseNode node = new ParseNode("BINOPSIMPLE");
+    private int parseBinop(Boolean recursive){
+        int node = tree.nonterminal(TokenType.BINOPSIMPLE);
 
         if((this.current.type == TokenType.OR || this.current.type == TokenType.AND || this.current.type == TokenType.EQ || this.current.type == TokenType.GT
                 || this.current.type == TokenType.ADD || this.current.type == TokenType.SUB || this.current.type == TokenType.MUL || this.current.type == TokenType.DIV)
                 && recursive){
-            node.addChild(parseBinopBuilder(false));
+            tree.addChild(node, parseBinopBuilder(false));
         } else {
-            node.addChild(parseAtomic());
+            tree.addChild(node, parseAtomic());
         }
 
         return node;
     }
 
-    private ParseNode parseUnopBuilder(){
-        ParseNode node = new ParseNode("UNOPSIMPLE");
+    private int parseUnopBuilder(){
+        int node = tree.nonterminal(TokenType.UNOPSIMPLE);
 
         // expect unop
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // advance and expect (
         matchType(TokenType.LEFT_PAREN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         if((this.current.type != TokenType.OR && this.current.type != TokenType.AND 
         && this.current.type != TokenType.EQ && this.current.type != TokenType.GT
         && this.current.type != TokenType.ADD && this.current.type != TokenType.SUB 
         && this.current.type != TokenType.MUL && this.current.type != TokenType.DIV)){
-            throw new RuntimeException(Errors.formatParserError(this.current, "OR, AND, EQ, GT, ADD, SUB, MUL, DIV", currentLine));
+            throw new SyntaxError(Errors.formatParserError(this.current.token(), "OR, AND, EQ, GT, ADD, SUB, MUL, DIV", currentLine()));
         } 
-        node.addChild(parseBinopBuilder(false));
+        tree.addChild(node, parseBinopBuilder(false));
 
         // advance and expect )
         matchType(TokenType.RIGHT_PAREN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         return node;
     }
 
-    private ParseNode parseBinopBuilder(Boolean recursive){
-        ParseNode node = new ParseNode("BINOPCOMPOSITE");
+    private int parseBinopBuilder(Boolean recursive){
+        int node = tree.nonterminal(TokenType.BINOPCOMPOSITE);
         
         // expect binop
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         // advance and expect (
         matchType(TokenType.LEFT_PAREN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
-        node.addChild(parseBinop(recursive));
+        tree.addChild(node, parseBinop(recursive));
 
         // advance and expect ,
         matchType(TokenType.COMMA);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
-        node.addChild(parseBinop(recursive));
+        tree.addChild(node, parseBinop(recursive));
 
         // advance and expect )
         matchType(TokenType.RIGHT_PAREN);
-        node.addChild(new ParseNode(this.current, ParseType.TERMINAL));
+        tree.addChild(node, this.current.terminal(tree));
         this.advance();
 
         return node;
     }
 
+    // thrown for every syntax error, so recovery never swallows anything else
+    private static class SyntaxError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SyntaxError(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A token stream the parser can also read at any index, which is what
+     * the parallel function parsing needs.
+     */
+    interface IndexedStream extends TokenStream {
+        // index of the token next() returns
+        int index();
+
+        void seek(int index);
+
+        // one past the last index
+        int size();
+
+        TokenType type(int index);
+
+        Token token(int index);
+
+        // the buffer the indices point into, null if the tokens are objects already
+        TokenBuffer buffer();
+    }
+
+    /**
+     * Tokens [from, to) of an indexed stream, for parsing one range on its own.
+     */
+    private static class TokenRangeStream implements IndexedStream {
+        private final IndexedStream tokens;
+        private final int end;
+        private int index;
+
+        TokenRangeStream(IndexedStream tokens, int from, int to) {
+            this.tokens = tokens;
+            this.index = from;
+            this.end = to;
+        }
+
+        @Override
+        public Token next() {
+            return index < end ? tokens.token(index++) : null;
+        }
+
+        @Override
+        public Token peek(int k) {
+            int position = index + k - 1;
+            return position < end ? tokens.token(position) : null;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public void seek(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int size() {
+            return end;
+        }
+
+        @Override
+        public TokenType type(int index) {
+            return tokens.type(index);
+        }
+
+        @Override
+        public Token token(int index) {
+            return tokens.token(index);
+        }
+
+        @Override
+        public TokenBuffer buffer() {
+            return tokens.buffer();
+        }
+
+        @Override
+        public String fileName() {
+            return tokens.fileName();
+        }
+
+        @Override
+        public String lineText(int line) {
+            // errors in a range are thrown away, the sequential parse reports them
+            return "";
+        }
+    }
+
+    /**
+     * Adapts an already lexed token list to the pull interface.
+     */
+    static class TokenListStream implements IndexedStream {
+        private final List<Token> tokens;
+        private final SourceMap sourceMap;
+        private int[] lineTokens; // without a source map
+        private int index;
+
+        TokenListStream(List<Token> tokens, SourceMap sourceMap) {
+            this.tokens = tokens;
+            this.sourceMap = sourceMap;
+            this.index = 0;
+        }
+
+        @Override
+        public Token next() {
+            return index < tokens.size() ? tokens.get(index++) : null;
+        }
+
+        @Override
+        public Token peek(int k) {
+            int position = index + k - 1;
+            return position < tokens.size() ? tokens.get(position) : null;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public void seek(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int size() {
+            return tokens.size();
+        }
+
+        @Override
+        public TokenType type(int index) {
+            return tokens.get(index).type;
+        }
+
+        @Override
+        public Token token(int index) {
+            return tokens.get(index);
+        }
+
+        @Override
+        public TokenBuffer buffer() {
+            return null;
+        }
+
+        @Override
+        public String fileName() {
+            return tokens.isEmpty() ? "" : tokens.get(0).fileName;
+        }
+
+        @Override
+        public String lineText(int line) {
+            if (sourceMap != null) {
+                return sourceMap.lineText(line);
+            }
+
+            // without the source, stitch the line back together from its tokens
+            if (lineTokens == null) {
+                indexLines();
+            }
+            StringBuilder sb = new StringBuilder();
+            if (line >= 1 && line < lineTokens.length) {
+                for (int i = lineTokens[line - 1]; i < lineTokens[line]; i++) {
+                    if (!tokens.get(i).Value.equals("\n")) {
+                        sb.append(tokens.get(i).Value);
+                    }
+                }
+            }
+            return sb.toString();
+        }
+
+        // index of the first token on each line, built once on the first error, the tokens are in line order
+        private void indexLines() {
+            int lines = tokens.isEmpty() ? 0 : tokens.get(tokens.size() - 1).Line;
+            lineTokens = new int[lines + 1];
+            int i = 0;
+            for (int line = 1; line <= lines; line++) {
+                lineTokens[line - 1] = i;
+                while (i < tokens.size() && tokens.get(i).Line <= line) {
+                    i++;
+                }
+            }
+            lineTokens[lines] = tokens.size();
+        }
+    }
+
+    /**
+     * Reads a compact token buffer. The parser matches on the buffer's token
+     * types and adds terminals by index, a Token is only materialised when
+     * one is asked for.
+     */
+    static class TokenBufferStream implements IndexedStream {
+        private final TokenBuffer tokens;
+        private SourceMap sourceMap;
+        private int index;
+
+        TokenBufferStream(TokenBuffer tokens) {
+            this.tokens = tokens;
+            this.index = 0;
+        }
+
+        @Override
+        public Token next() {
+            return index < tokens.size() ? tokens.token(index++) : null;
+        }
+
+        @Override
+        public Token peek(int k) {
+            int position = index + k - 1;
+            return position < tokens.size() ? tokens.token(position) : null;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public void seek(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int size() {
+            return tokens.size();
+        }
+
+        @Override
+        public TokenType type(int index) {
+            return tokens.type(index);
+        }
+
+        @Override
+        public Token token(int index) {
+            return tokens.token(index);
+        }
+
+        @Override
+        public TokenBuffer buffer() {
+            return tokens;
+        }
+
+        @Override
+        public String fileName() {
+            return tokens.fileName();
+        }
+
+        @Override
+        public String lineText(int line) {
+            if (sourceMap == null) {
+                sourceMap = new SourceMap(tokens.source());
+            }
+            return sourceMap.lineText(line);
+        }
+    }
 }
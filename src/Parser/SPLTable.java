@@ -0,0 +1,501 @@
+package Parser;
+
+import Interfaces.TokenType;
+
+// Generated from spl.grammar by GrammarGenerator, do not edit.
+final class SPLTable {
+    private SPLTable() {
+    }
+
+    // nonterminals, the first one is the start symbol
+    static final String[] NONTERMINALS = {
+        "PROG",
+        "GLOBVARS",
+        "GLOBVARS_LIST",
+        "GLOBVARS_REST",
+        "GLOBVARS_NEXT",
+        "VTYPE",
+        "ALGO",
+        "INSTRUC_OPT",
+        "INSTRUC",
+        "INSTRUC_NEXT",
+        "COMMAND",
+        "ATOMIC",
+        "CONST",
+        "ASSIGN",
+        "ASSIGN_REST",
+        "CALL",
+        "TERM",
+        "OP",
+        "ARG",
+        "UNOP",
+        "BINOP",
+        "BRANCH",
+        "ELSE_OPT",
+        "COND",
+        "UNOPSIMPLE",
+        "BINOPCOMPOSITE",
+        "BINOPSIMPLE",
+        "BINOPFLAT",
+        "ATOMSIMPLE",
+        "FUNCTIONS",
+        "FUNCTIONS_LIST",
+        "FUNCTIONS_NEXT",
+        "DECL",
+        "HEADER",
+        "FTYPE",
+        "BODY",
+        "SUBFUNCTIONS",
+        "LOCALVARS",
+    };
+
+    // node each nonterminal builds, null when its children go to the parent
+    static final TokenType[] NODES = {
+        TokenType.PROG,
+        TokenType.GLOBVARS,
+        TokenType.GLOBVARS,
+        null,
+        null,
+        null,
+        TokenType.ALGO,
+        null,
+        TokenType.INSTRUC,
+        null,
+        TokenType.COMMAND,
+        TokenType.ATOMIC,
+        null,
+        TokenType.ASSIGN,
+        null,
+        TokenType.CALL,
+        TokenType.TERM,
+        TokenType.OP,
+        TokenType.ARG,
+        null,
+        null,
+        TokenType.BRANCH,
+        null,
+        TokenType.COND,
+        TokenType.UNOPSIMPLE,
+        TokenType.BINOPCOMPOSITE,
+        TokenType.BINOPSIMPLE,
+        TokenType.BINOPCOMPOSITE,
+        TokenType.BINOPSIMPLE,
+        TokenType.FUNCTIONS,
+        TokenType.FUNCTIONS,
+        null,
+        TokenType.DECL,
+        TokenType.HEADER,
+        null,
+        TokenType.BODY,
+        null,
+        TokenType.LOCALVARS,
+    };
+
+    // right-hand sides, a nonterminal as its index and a terminal as ~ordinal
+    static final int[][] PRODUCTIONS = {
+        // 0: PROG = MAIN GLOBVARS ALGO FUNCTIONS
+        { t(TokenType.MAIN), 1, 6, 29 },
+        // 1: GLOBVARS = VTYPE VNAME GLOBVARS_REST
+        { 5, t(TokenType.VNAME), 3 },
+        // 2: GLOBVARS = ε
+        {},
+        // 3: GLOBVARS_LIST = VTYPE VNAME GLOBVARS_REST
+        { 5, t(TokenType.VNAME), 3 },
+        // 4: GLOBVARS_REST = COMMA GLOBVARS_NEXT
+        { t(TokenType.COMMA), 4 },
+        // 5: GLOBVARS_REST = ε
+        {},
+        // 6: GLOBVARS_NEXT = GLOBVARS_LIST
+        { 2 },
+        // 7: GLOBVARS_NEXT = ε
+        {},
+        // 8: VTYPE = NUM
+        { t(TokenType.NUM) },
+        // 9: VTYPE = VTEXT
+        { t(TokenType.VTEXT) },
+        // 10: ALGO = BEGIN INSTRUC_OPT END
+        { t(TokenType.BEGIN), 7, t(TokenType.END) },
+        // 11: INSTRUC_OPT = INSTRUC
+        { 8 },
+        // 12: INSTRUC_OPT = ε
+        {},
+        // 13: INSTRUC = COMMAND SEMICOLON INSTRUC_NEXT
+        { 10, t(TokenType.SEMICOLON), 9 },
+        // 14: INSTRUC_NEXT = INSTRUC
+        { 8 },
+        // 15: INSTRUC_NEXT = ε
+        {},
+        // 16: COMMAND = SKIP
+        { t(TokenType.SKIP) },
+        // 17: COMMAND = HALT
+        { t(TokenType.HALT) },
+        // 18: COMMAND = PRINT ATOMIC
+        { t(TokenType.PRINT), 11 },
+        // 19: COMMAND = RETURN ATOMIC
+        { t(TokenType.RETURN), 11 },
+        // 20: COMMAND = ASSIGN
+        { 13 },
+        // 21: COMMAND = CALL
+        { 15 },
+        // 22: COMMAND = BRANCH
+        { 21 },
+        // 23: ATOMIC = VNAME
+        { t(TokenType.VNAME) },
+        // 24: ATOMIC = CONST
+        { 12 },
+        // 25: CONST = NUMLIT
+        { t(TokenType.NUMLIT) },
+        // 26: CONST = TEXTLIT
+        { t(TokenType.TEXTLIT) },
+        // 27: ASSIGN = VNAME ASSIGN_REST
+        { t(TokenType.VNAME), 14 },
+        // 28: ASSIGN_REST = LESS_THAN_SIGN INPUT
+        { t(TokenType.LESS_THAN_SIGN), t(TokenType.INPUT) },
+        // 29: ASSIGN_REST = EQUAL_SIGN TERM
+        { t(TokenType.EQUAL_SIGN), 16 },
+        // 30: CALL = FNAME LEFT_PAREN ATOMIC COMMA ATOMIC COMMA ATOMIC RIGHT_PAREN
+        { t(TokenType.FNAME), t(TokenType.LEFT_PAREN), 11, t(TokenType.COMMA), 11, t(TokenType.COMMA), 11, t(TokenType.RIGHT_PAREN) },
+        // 31: TERM = CONST
+        { 12 },
+        // 32: TERM = VNAME
+        { t(TokenType.VNAME) },
+        // 33: TERM = CALL
+        { 15 },
+        // 34: TERM = OP
+        { 17 },
+        // 35: OP = UNOP LEFT_PAREN ARG RIGHT_PAREN
+        { 19, t(TokenType.LEFT_PAREN), 18, t(TokenType.RIGHT_PAREN) },
+        // 36: OP = BINOP LEFT_PAREN ARG COMMA ARG RIGHT_PAREN
+        { 20, t(TokenType.LEFT_PAREN), 18, t(TokenType.COMMA), 18, t(TokenType.RIGHT_PAREN) },
+        // 37: ARG = OP
+        { 17 },
+        // 38: ARG = ATOMIC
+        { 11 },
+        // 39: UNOP = NOT
+        { t(TokenType.NOT) },
+        // 40: UNOP = SQRT
+        { t(TokenType.SQRT) },
+        // 41: BINOP = OR
+        { t(TokenType.OR) },
+        // 42: BINOP = AND
+        { t(TokenType.AND) },
+        // 43: BINOP = EQ
+        { t(TokenType.EQ) },
+        // 44: BINOP = GT
+        { t(TokenType.GT) },
+        // 45: BINOP = ADD
+        { t(TokenType.ADD) },
+        // 46: BINOP = SUB
+        { t(TokenType.SUB) },
+        // 47: BINOP = MUL
+        { t(TokenType.MUL) },
+        // 48: BINOP = DIV
+        { t(TokenType.DIV) },
+        // 49: BRANCH = IF COND THEN ALGO ELSE_OPT
+        { t(TokenType.IF), 23, t(TokenType.THEN), 6, 22 },
+        // 50: ELSE_OPT = ELSE ALGO
+        { t(TokenType.ELSE), 6 },
+        // 51: ELSE_OPT = ε
+        {},
+        // 52: COND = UNOPSIMPLE
+        { 24 },
+        // 53: COND = BINOPCOMPOSITE
+        { 25 },
+        // 54: UNOPSIMPLE = UNOP LEFT_PAREN BINOPFLAT RIGHT_PAREN
+        { 19, t(TokenType.LEFT_PAREN), 27, t(TokenType.RIGHT_PAREN) },
+        // 55: BINOPCOMPOSITE = BINOP LEFT_PAREN BINOPSIMPLE COMMA BINOPSIMPLE RIGHT_PAREN
+        { 20, t(TokenType.LEFT_PAREN), 26, t(TokenType.COMMA), 26, t(TokenType.RIGHT_PAREN) },
+        // 56: BINOPSIMPLE = BINOPFLAT
+        { 27 },
+        // 57: BINOPSIMPLE = ATOMIC
+        { 11 },
+        // 58: BINOPFLAT = BINOP LEFT_PAREN ATOMSIMPLE COMMA ATOMSIMPLE RIGHT_PAREN
+        { 20, t(TokenType.LEFT_PAREN), 28, t(TokenType.COMMA), 28, t(TokenType.RIGHT_PAREN) },
+        // 59: ATOMSIMPLE = ATOMIC
+        { 11 },
+        // 60: FUNCTIONS = DECL FUNCTIONS_NEXT
+        { 32, 31 },
+        // 61: FUNCTIONS = ε
+        {},
+        // 62: FUNCTIONS_LIST = DECL FUNCTIONS_NEXT
+        { 32, 31 },
+        // 63: FUNCTIONS_NEXT = FUNCTIONS_LIST
+        { 30 },
+        // 64: FUNCTIONS_NEXT = ε
+        {},
+        // 65: DECL = HEADER BODY
+        { 33, 35 },
+        // 66: HEADER = FTYPE FNAME LEFT_PAREN VNAME COMMA VNAME COMMA VNAME RIGHT_PAREN
+        { 34, t(TokenType.FNAME), t(TokenType.LEFT_PAREN), t(TokenType.VNAME), t(TokenType.COMMA), t(TokenType.VNAME), t(TokenType.COMMA), t(TokenType.VNAME), t(TokenType.RIGHT_PAREN) },
+        // 67: FTYPE = NUM
+        { t(TokenType.NUM) },
+        // 68: FTYPE = FVOID
+        { t(TokenType.FVOID) },
+        // 69: BODY = LEFT_BRACE LOCALVARS ALGO RIGHT_BRACE SUBFUNCTIONS END
+        { t(TokenType.LEFT_BRACE), 37, 6, t(TokenType.RIGHT_BRACE), 36, t(TokenType.END) },
+        // 70: SUBFUNCTIONS = FUNCTIONS_LIST
+        { 30 },
+        // 71: SUBFUNCTIONS = ε
+        {},
+        // 72: LOCALVARS = VTYPE VNAME COMMA VTYPE VNAME COMMA VTYPE VNAME COMMA
+        { 5, t(TokenType.VNAME), t(TokenType.COMMA), 5, t(TokenType.VNAME), t(TokenType.COMMA), 5, t(TokenType.VNAME), t(TokenType.COMMA) },
+    };
+
+    // LL(1) table: nonterminal, lookahead, production
+    static final int[][] ENTRIES = {
+        { 0, TokenType.MAIN.ordinal(), 0 },
+        { 1, TokenType.NUM.ordinal(), 1 },
+        { 1, TokenType.VTEXT.ordinal(), 1 },
+        { 1, TokenType.BEGIN.ordinal(), 2 },
+        { 2, TokenType.NUM.ordinal(), 3 },
+        { 2, TokenType.VTEXT.ordinal(), 3 },
+        { 3, TokenType.COMMA.ordinal(), 4 },
+        { 3, TokenType.BEGIN.ordinal(), 5 },
+        { 4, TokenType.NUM.ordinal(), 6 },
+        { 4, TokenType.VTEXT.ordinal(), 6 },
+        { 4, TokenType.BEGIN.ordinal(), 7 },
+        { 5, TokenType.NUM.ordinal(), 8 },
+        { 5, TokenType.VTEXT.ordinal(), 9 },
+        { 6, TokenType.BEGIN.ordinal(), 10 },
+        { 7, TokenType.SKIP.ordinal(), 11 },
+        { 7, TokenType.HALT.ordinal(), 11 },
+        { 7, TokenType.PRINT.ordinal(), 11 },
+        { 7, TokenType.RETURN.ordinal(), 11 },
+        { 7, TokenType.VNAME.ordinal(), 11 },
+        { 7, TokenType.FNAME.ordinal(), 11 },
+        { 7, TokenType.IF.ordinal(), 11 },
+        { 7, TokenType.END.ordinal(), 12 },
+        { 8, TokenType.SKIP.ordinal(), 13 },
+        { 8, TokenType.HALT.ordinal(), 13 },
+        { 8, TokenType.PRINT.ordinal(), 13 },
+        { 8, TokenType.RETURN.ordinal(), 13 },
+        { 8, TokenType.VNAME.ordinal(), 13 },
+        { 8, TokenType.FNAME.ordinal(), 13 },
+        { 8, TokenType.IF.ordinal(), 13 },
+        { 9, TokenType.SKIP.ordinal(), 14 },
+        { 9, TokenType.HALT.ordinal(), 14 },
+        { 9, TokenType.PRINT.ordinal(), 14 },
+        { 9, TokenType.RETURN.ordinal(), 14 },
+        { 9, TokenType.VNAME.ordinal(), 14 },
+        { 9, TokenType.FNAME.ordinal(), 14 },
+        { 9, TokenType.IF.ordinal(), 14 },
+        { 9, TokenType.END.ordinal(), 15 },
+        { 10, TokenType.SKIP.ordinal(), 16 },
+        { 10, TokenType.HALT.ordinal(), 17 },
+        { 10, TokenType.PRINT.ordinal(), 18 },
+        { 10, TokenType.RETURN.ordinal(), 19 },
+        { 10, TokenType.VNAME.ordinal(), 20 },
+        { 10, TokenType.FNAME.ordinal(), 21 },
+        { 10, TokenType.IF.ordinal(), 22 },
+        { 11, TokenType.VNAME.ordinal(), 23 },
+        { 11, TokenType.NUMLIT.ordinal(), 24 },
+        { 11, TokenType.TEXTLIT.ordinal(), 24 },
+        { 12, TokenType.NUMLIT.ordinal(), 25 },
+        { 12, TokenType.TEXTLIT.ordinal(), 26 },
+        { 13, TokenType.VNAME.ordinal(), 27 },
+        { 14, TokenType.LESS_THAN_SIGN.ordinal(), 28 },
+        { 14, TokenType.EQUAL_SIGN.ordinal(), 29 },
+        { 15, TokenType.FNAME.ordinal(), 30 },
+        { 16, TokenType.NUMLIT.ordinal(), 31 },
+        { 16, TokenType.TEXTLIT.ordinal(), 31 },
+        { 16, TokenType.VNAME.ordinal(), 32 },
+        { 16, TokenType.FNAME.ordinal(), 33 },
+        { 16, TokenType.NOT.ordinal(), 34 },
+        { 16, TokenType.SQRT.ordinal(), 34 },
+        { 16, TokenType.OR.ordinal(), 34 },
+        { 16, TokenType.AND.ordinal(), 34 },
+        { 16, TokenType.EQ.ordinal(), 34 },
+        { 16, TokenType.GT.ordinal(), 34 },
+        { 16, TokenType.ADD.ordinal(), 34 },
+        { 16, TokenType.SUB.ordinal(), 34 },
+        { 16, TokenType.MUL.ordinal(), 34 },
+        { 16, TokenType.DIV.ordinal(), 34 },
+        { 17, TokenType.NOT.ordinal(), 35 },
+        { 17, TokenType.SQRT.ordinal(), 35 },
+        { 17, TokenType.OR.ordinal(), 36 },
+        { 17, TokenType.AND.ordinal(), 36 },
+        { 17, TokenType.EQ.ordinal(), 36 },
+        { 17, TokenType.GT.ordinal(), 36 },
+        { 17, TokenType.ADD.ordinal(), 36 },
+        { 17, TokenType.SUB.ordinal(), 36 },
+        { 17, TokenType.MUL.ordinal(), 36 },
+        { 17, TokenType.DIV.ordinal(), 36 },
+        { 18, TokenType.NOT.ordinal(), 37 },
+        { 18, TokenType.SQRT.ordinal(), 37 },
+        { 18, TokenType.OR.ordinal(), 37 },
+        { 18, TokenType.AND.ordinal(), 37 },
+        { 18, TokenType.EQ.ordinal(), 37 },
+        { 18, TokenType.GT.ordinal(), 37 },
+        { 18, TokenType.ADD.ordinal(), 37 },
+        { 18, TokenType.SUB.ordinal(), 37 },
+        { 18, TokenType.MUL.ordinal(), 37 },
+        { 18, TokenType.DIV.ordinal(), 37 },
+        { 18, TokenType.VNAME.ordinal(), 38 },
+        { 18, TokenType.NUMLIT.ordinal(), 38 },
+        { 18, TokenType.TEXTLIT.ordinal(), 38 },
+        { 19, TokenType.NOT.ordinal(), 39 },
+        { 19, TokenType.SQRT.ordinal(), 40 },
+        { 20, TokenType.OR.ordinal(), 41 },
+        { 20, TokenType.AND.ordinal(), 42 },
+        { 20, TokenType.EQ.ordinal(), 43 },
+        { 20, TokenType.GT.ordinal(), 44 },
+        { 20, TokenType.ADD.ordinal(), 45 },
+        { 20, TokenType.SUB.ordinal(), 46 },
+        { 20, TokenType.MUL.ordinal(), 47 },
+        { 20, TokenType.DIV.ordinal(), 48 },
+        { 21, TokenType.IF.ordinal(), 49 },
+        { 22, TokenType.ELSE.ordinal(), 50 },
+        { 22, TokenType.SEMICOLON.ordinal(), 51 },
+        { 23, TokenType.NOT.ordinal(), 52 },
+        { 23, TokenType.SQRT.ordinal(), 52 },
+        { 23, TokenType.OR.ordinal(), 53 },
+        { 23, TokenType.AND.ordinal(), 53 },
+        { 23, TokenType.EQ.ordinal(), 53 },
+        { 23, TokenType.GT.ordinal(), 53 },
+        { 23, TokenType.ADD.ordinal(), 53 },
+        { 23, TokenType.SUB.ordinal(), 53 },
+        { 23, TokenType.MUL.ordinal(), 53 },
+        { 23, TokenType.DIV.ordinal(), 53 },
+        { 24, TokenType.NOT.ordinal(), 54 },
+        { 24, TokenType.SQRT.ordinal(), 54 },
+        { 25, TokenType.OR.ordinal(), 55 },
+        { 25, TokenType.AND.ordinal(), 55 },
+        { 25, TokenType.EQ.ordinal(), 55 },
+        { 25, TokenType.GT.ordinal(), 55 },
+        { 25, TokenType.ADD.ordinal(), 55 },
+        { 25, TokenType.SUB.ordinal(), 55 },
+        { 25, TokenType.MUL.ordinal(), 55 },
+        { 25, TokenType.DIV.ordinal(), 55 },
+        { 26, TokenType.OR.ordinal(), 56 },
+        { 26, TokenType.AND.ordinal(), 56 },
+        { 26, TokenType.EQ.ordinal(), 56 },
+        { 26, TokenType.GT.ordinal(), 56 },
+        { 26, TokenType.ADD.ordinal(), 56 },
+        { 26, TokenType.SUB.ordinal(), 56 },
+        { 26, TokenType.MUL.ordinal(), 56 },
+        { 26, TokenType.DIV.ordinal(), 56 },
+        { 26, TokenType.VNAME.ordinal(), 57 },
+        { 26, TokenType.NUMLIT.ordinal(), 57 },
+        { 26, TokenType.TEXTLIT.ordinal(), 57 },
+        { 27, TokenType.OR.ordinal(), 58 },
+        { 27, TokenType.AND.ordinal(), 58 },
+        { 27, TokenType.EQ.ordinal(), 58 },
+        { 27, TokenType.GT.ordinal(), 58 },
+        { 27, TokenType.ADD.ordinal(), 58 },
+        { 27, TokenType.SUB.ordinal(), 58 },
+        { 27, TokenType.MUL.ordinal(), 58 },
+        { 27, TokenType.DIV.ordinal(), 58 },
+        { 28, TokenType.VNAME.ordinal(), 59 },
+        { 28, TokenType.NUMLIT.ordinal(), 59 },
+        { 28, TokenType.TEXTLIT.ordinal(), 59 },
+        { 29, TokenType.NUM.ordinal(), 60 },
+        { 29, TokenType.FVOID.ordinal(), 60 },
+        { 29, TokenType.EOF.ordinal(), 61 },
+        { 30, TokenType.NUM.ordinal(), 62 },
+        { 30, TokenType.FVOID.ordinal(), 62 },
+        { 31, TokenType.NUM.ordinal(), 63 },
+        { 31, TokenType.FVOID.ordinal(), 63 },
+        { 31, TokenType.EOF.ordinal(), 64 },
+        { 31, TokenType.END.ordinal(), 64 },
+        { 32, TokenType.NUM.ordinal(), 65 },
+        { 32, TokenType.FVOID.ordinal(), 65 },
+        { 33, TokenType.NUM.ordinal(), 66 },
+        { 33, TokenType.FVOID.ordinal(), 66 },
+        { 34, TokenType.NUM.ordinal(), 67 },
+        { 34, TokenType.FVOID.ordinal(), 68 },
+        { 35, TokenType.LEFT_BRACE.ordinal(), 69 },
+        { 36, TokenType.NUM.ordinal(), 70 },
+        { 36, TokenType.FVOID.ordinal(), 70 },
+        { 36, TokenType.END.ordinal(), 71 },
+        { 37, TokenType.NUM.ordinal(), 72 },
+        { 37, TokenType.VTEXT.ordinal(), 72 },
+    };
+
+    // FIRST set of each nonterminal
+    static final TokenType[][] FIRST = {
+        /* PROG */ { TokenType.MAIN },
+        /* GLOBVARS */ { TokenType.NUM, TokenType.VTEXT },
+        /* GLOBVARS_LIST */ { TokenType.NUM, TokenType.VTEXT },
+        /* GLOBVARS_REST */ { TokenType.COMMA },
+        /* GLOBVARS_NEXT */ { TokenType.NUM, TokenType.VTEXT },
+        /* VTYPE */ { TokenType.NUM, TokenType.VTEXT },
+        /* ALGO */ { TokenType.BEGIN },
+        /* INSTRUC_OPT */ { TokenType.SKIP, TokenType.HALT, TokenType.PRINT, TokenType.RETURN, TokenType.VNAME, TokenType.FNAME, TokenType.IF },
+        /* INSTRUC */ { TokenType.SKIP, TokenType.HALT, TokenType.PRINT, TokenType.RETURN, TokenType.VNAME, TokenType.FNAME, TokenType.IF },
+        /* INSTRUC_NEXT */ { TokenType.SKIP, TokenType.HALT, TokenType.PRINT, TokenType.RETURN, TokenType.VNAME, TokenType.FNAME, TokenType.IF },
+        /* COMMAND */ { TokenType.SKIP, TokenType.HALT, TokenType.PRINT, TokenType.RETURN, TokenType.VNAME, TokenType.FNAME, TokenType.IF },
+        /* ATOMIC */ { TokenType.VNAME, TokenType.NUMLIT, TokenType.TEXTLIT },
+        /* CONST */ { TokenType.NUMLIT, TokenType.TEXTLIT },
+        /* ASSIGN */ { TokenType.VNAME },
+        /* ASSIGN_REST */ { TokenType.LESS_THAN_SIGN, TokenType.EQUAL_SIGN },
+        /* CALL */ { TokenType.FNAME },
+        /* TERM */ { TokenType.NUMLIT, TokenType.TEXTLIT, TokenType.VNAME, TokenType.FNAME, TokenType.NOT, TokenType.SQRT, TokenType.OR, TokenType.AND, TokenType.EQ, TokenType.GT, TokenType.ADD, TokenType.SUB, TokenType.MUL, TokenType.DIV },
+        /* OP */ { TokenType.NOT, TokenType.SQRT, TokenType.OR, TokenType.AND, TokenType.EQ, TokenType.GT, TokenType.ADD, TokenType.SUB, TokenType.MUL, TokenType.DIV },
+        /* ARG */ { TokenType.VNAME, TokenType.NOT, TokenType.SQRT, TokenType.OR, TokenType.AND, TokenType.EQ, TokenType.GT, TokenType.ADD, TokenType.SUB, TokenType.MUL, TokenType.DIV, TokenType.NUMLIT, TokenType.TEXTLIT },
+        /* UNOP */ { TokenType.NOT, TokenType.SQRT },
+        /* BINOP */ { TokenType.OR, TokenType.AND, TokenType.EQ, TokenType.GT, TokenType.ADD, TokenType.SUB, TokenType.MUL, TokenType.DIV },
+        /* BRANCH */ { TokenType.IF },
+        /* ELSE_OPT */ { TokenType.ELSE },
+        /* COND */ { TokenType.NOT, TokenType.SQRT, TokenType.OR, TokenType.AND, TokenType.EQ, TokenType.GT, TokenType.ADD, TokenType.SUB, TokenType.MUL, TokenType.DIV },
+        /* UNOPSIMPLE */ { TokenType.NOT, TokenType.SQRT },
+        /* BINOPCOMPOSITE */ { TokenType.OR, TokenType.AND, TokenType.EQ, TokenType.GT, TokenType.ADD, TokenType.SUB, TokenType.MUL, TokenType.DIV },
+        /* BINOPSIMPLE */ { TokenType.VNAME, TokenType.OR, TokenType.AND, TokenType.EQ, TokenType.GT, TokenType.ADD, TokenType.SUB, TokenType.MUL, TokenType.DIV, TokenType.NUMLIT, TokenType.TEXTLIT },
+        /* BINOPFLAT */ { TokenType.OR, TokenType.AND, TokenType.EQ, TokenType.GT, TokenType.ADD, TokenType.SUB, TokenType.MUL, TokenType.DIV },
+        /* ATOMSIMPLE */ { TokenType.VNAME, TokenType.NUMLIT, TokenType.TEXTLIT },
+        /* FUNCTIONS */ { TokenType.NUM, TokenType.FVOID },
+        /* FUNCTIONS_LIST */ { TokenType.NUM, TokenType.FVOID },
+        /* FUNCTIONS_NEXT */ { TokenType.NUM, TokenType.FVOID },
+        /* DECL */ { TokenType.NUM, TokenType.FVOID },
+        /* HEADER */ { TokenType.NUM, TokenType.FVOID },
+        /* FTYPE */ { TokenType.NUM, TokenType.FVOID },
+        /* BODY */ { TokenType.LEFT_BRACE },
+        /* SUBFUNCTIONS */ { TokenType.NUM, TokenType.FVOID },
+        /* LOCALVARS */ { TokenType.NUM, TokenType.VTEXT },
+    };
+
+    // FOLLOW set of each nonterminal
+    static final TokenType[][] FOLLOW = {
+        /* PROG */ { TokenType.EOF },
+        /* GLOBVARS */ { TokenType.BEGIN },
+        /* GLOBVARS_LIST */ { TokenType.BEGIN },
+        /* GLOBVARS_REST */ { TokenType.BEGIN },
+        /* GLOBVARS_NEXT */ { TokenType.BEGIN },
+        /* VTYPE */ { TokenType.VNAME },
+        /* ALGO */ { TokenType.EOF, TokenType.NUM, TokenType.FVOID, TokenType.SEMICOLON, TokenType.ELSE, TokenType.RIGHT_BRACE },
+        /* INSTRUC_OPT */ { TokenType.END },
+        /* INSTRUC */ { TokenType.END },
+        /* INSTRUC_NEXT */ { TokenType.END },
+        /* COMMAND */ { TokenType.SEMICOLON },
+        /* ATOMIC */ { TokenType.SEMICOLON, TokenType.COMMA, TokenType.RIGHT_PAREN },
+        /* CONST */ { TokenType.SEMICOLON, TokenType.COMMA, TokenType.RIGHT_PAREN },
+        /* ASSIGN */ { TokenType.SEMICOLON },
+        /* ASSIGN_REST */ { TokenType.SEMICOLON },
+        /* CALL */ { TokenType.SEMICOLON },
+        /* TERM */ { TokenType.SEMICOLON },
+        /* OP */ { TokenType.SEMICOLON, TokenType.RIGHT_PAREN, TokenType.COMMA },
+        /* ARG */ { TokenType.RIGHT_PAREN, TokenType.COMMA },
+        /* UNOP */ { TokenType.LEFT_PAREN },
+        /* BINOP */ { TokenType.LEFT_PAREN },
+        /* BRANCH */ { TokenType.SEMICOLON },
+        /* ELSE_OPT */ { TokenType.SEMICOLON },
+        /* COND */ { TokenType.THEN },
+        /* UNOPSIMPLE */ { TokenType.THEN },
+        /* BINOPCOMPOSITE */ { TokenType.THEN },
+        /* BINOPSIMPLE */ { TokenType.COMMA, TokenType.RIGHT_PAREN },
+        /* BINOPFLAT */ { TokenType.RIGHT_PAREN, TokenType.COMMA },
+        /* ATOMSIMPLE */ { TokenType.COMMA, TokenType.RIGHT_PAREN },
+        /* FUNCTIONS */ { TokenType.EOF },
+        /* FUNCTIONS_LIST */ { TokenType.EOF, TokenType.END },
+        /* FUNCTIONS_NEXT */ { TokenType.EOF, TokenType.END },
+        /* DECL */ { TokenType.EOF, TokenType.NUM, TokenType.FVOID, TokenType.END },
+        /* HEADER */ { TokenType.LEFT_BRACE },
+        /* FTYPE */ { TokenType.FNAME },
+        /* BODY */ { TokenType.EOF, TokenType.NUM, TokenType.FVOID, TokenType.END },
+        /* SUBFUNCTIONS */ { TokenType.END },
+        /* LOCALVARS */ { TokenType.BEGIN },
+    };
+
+    private static int t(TokenType type) {
+        return ~type.ordinal();
+    }
+}
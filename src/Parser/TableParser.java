@@ -0,0 +1,149 @@
+package Parser;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+
+import Interfaces.ParseNode;
+import Interfaces.ParseTree;
+import Interfaces.Token;
+import Interfaces.TokenBuffer;
+import Interfaces.TokenStream;
+import Interfaces.TokenType;
+import Utils.Errors;
+import Utils.SourceMap;
+
+/**
+ * Table-driven LL(1) parser for SPL. The grammar lives in spl.grammar and the
+ * parse table in the generated {@link SPLTable}, the engine here only pops
+ * symbols off an explicit stack: a terminal is matched against the current
+ * token, a nonterminal is replaced by the production the table picks for the
+ * current token. No Java recursion, so the nesting depth of the input is only
+ * bounded by the heap.
+ *
+ * Builds the same tree as {@link Parser}. Stops at the first syntax error,
+ * recovery and the parallel function pass stay with the hand-written parser.
+ * The only difference in what it accepts: tokens left over after the
+ * functions, which Parser stops before and ignores, are an error here.
+ */
+public class TableParser {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    // TABLE[nonterminal][token ordinal] is the production to expand, -1 for a syntax error
+    private static final int[][] TABLE = new int[SPLTable.NONTERMINALS.length][TYPES.length];
+
+    static {
+        for (int[] row : TABLE) {
+            Arrays.fill(row, -1);
+        }
+        for (int[] entry : SPLTable.ENTRIES) {
+            TABLE[entry[0]][entry[1]] = entry[2];
+        }
+    }
+
+    private final TokenCursor current;
+
+    public TableParser(List<Token> tokens) {
+        this(tokens, null);
+    }
+
+    public TableParser(List<Token> tokens, SourceMap sourceMap) {
+        this(new Parser.TokenListStream(tokens, sourceMap));
+    }
+
+    public TableParser(TokenBuffer tokens) {
+        this(new Parser.TokenBufferStream(tokens));
+    }
+
+    public TableParser(TokenStream tokens) {
+        this.current = new TokenCursor(tokens);
+        this.advance();
+    }
+
+    // same token handling as Parser: trivia is skipped and the input may end right after the last "end"
+    private void advance() {
+        if (!this.current.advance()) {
+            throw new RuntimeException(Errors.formatParserError(this.current.token(), "Reached unexpected EOF with incomplete parse tree", currentLine()));
+        }
+    }
+
+    private String currentLine() {
+        return this.current.lineText();
+    }
+
+    public ParseNode parse() {
+        ParseTree tree = parseTree();
+        return tree.toParseNode(tree.root());
+    }
+
+    public ParseTree parseTree() {
+        ParseTree tree = this.current.newTree(64);
+
+        // pending symbols and the node each one is added to, as parallel stacks
+        int[] symbols = new int[64];
+        int[] parents = new int[64];
+        int top = 0;
+        symbols[top] = 0;
+        parents[top] = ParseTree.NONE;
+        top++;
+
+        while (top > 0) {
+            top--;
+            int symbol = symbols[top];
+            int parent = parents[top];
+
+            if (symbol < 0) {
+                // terminal
+                TokenType expected = TYPES[~symbol];
+                if (this.current.type != expected) {
+                    throw new RuntimeException(Errors.formatParserError(this.current.token(), Errors.stringRepresentation(expected), currentLine()));
+                }
+                tree.addChild(parent, this.current.terminal(tree));
+                this.advance();
+                continue;
+            }
+
+            int production = TABLE[symbol][this.current.type.ordinal()];
+            if (production < 0) {
+                throw new RuntimeException(Errors.formatParserError(this.current.token(), expected(symbol), currentLine()));
+            }
+
+            // a nonterminal without a node of its own hands its children to the parent
+            int node = parent;
+            TokenType kind = SPLTable.NODES[symbol];
+            if (kind != null) {
+                node = tree.nonterminal(kind);
+                if (parent == ParseTree.NONE) {
+                    tree.setRoot(node);
+                } else {
+                    tree.addChild(parent, node);
+                }
+            }
+
+            int[] rhs = SPLTable.PRODUCTIONS[production];
+            if (top + rhs.length > symbols.length) {
+                int capacity = Math.max(symbols.length * 2, top + rhs.length);
+                symbols = Arrays.copyOf(symbols, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+            }
+            for (int i = rhs.length - 1; i >= 0; i--) {
+                symbols[top] = rhs[i];
+                parents[top] = node;
+                top++;
+            }
+        }
+
+        return tree;
+    }
+
+    // the tokens the table accepts for a nonterminal, for the error message
+    private static String expected(int nonterminal) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (TokenType type : TYPES) {
+            if (TABLE[nonterminal][type.ordinal()] >= 0 && type != TokenType.EOF) {
+                joiner.add(Errors.stringRepresentation(type));
+            }
+        }
+        return joiner.toString();
+    }
+}
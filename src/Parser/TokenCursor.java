@@ -0,0 +1,128 @@
+package Parser;
+
+import Interfaces.ParseTree;
+import Interfaces.Token;
+import Interfaces.TokenBuffer;
+import Interfaces.TokenStream;
+import Interfaces.TokenType;
+
+/**
+ * The token a parser is looking at. Over an indexed stream the cursor only
+ * reads token types, straight out of the buffer's arrays when the stream
+ * reads a {@link TokenBuffer}, and terminals go into the tree as buffer
+ * indices. A Token object is only built when an error message or a caller
+ * asks for the current token. A plain pull stream hands out Tokens anyway.
+ *
+ * Trivia is skipped, and the input may end right after the final "end", in
+ * which case the cursor moves to a synthesised EOF token. So does an input
+ * without any tokens, at line 1.
+ */
+class TokenCursor {
+    private final TokenStream tokens;
+    private final Parser.IndexedStream indexed; // null for a plain pull stream
+    private final TokenBuffer buffer;           // null unless the indexed stream reads a buffer
+
+    TokenType type;
+    private int index = -1;   // stream index of the current token, -1 for a pulled token or EOF
+    private Token token;      // the current token once built
+    private int position;     // counts the moves, tells two current tokens apart
+
+    TokenCursor(TokenStream tokens) {
+        this.tokens = tokens;
+        this.indexed = tokens instanceof Parser.IndexedStream stream ? stream : null;
+        this.buffer = this.indexed != null ? this.indexed.buffer() : null;
+    }
+
+    // moves to the next token that is not trivia, false if the input runs out before the final "end"
+    boolean advance() {
+        if (this.indexed != null) {
+            int i = this.indexed.index();
+            int size = this.indexed.size();
+            if (i < size) {
+                while (i < size && this.indexed.type(i) == TokenType.NULLTYPE) {
+                    i++;
+                }
+                this.indexed.seek(i < size ? i + 1 : size);
+                if (i == size) {
+                    // only trivia was left
+                    eof(this.indexed.token(size - 1));
+                } else {
+                    move(this.indexed.type(i), i, null);
+                }
+                return true;
+            }
+        } else {
+            Token next = this.tokens.next();
+            if (next != null) {
+                Token after;
+                while (next.type == TokenType.NULLTYPE && (after = this.tokens.next()) != null) {
+                    next = after;
+                }
+                if (next.type == TokenType.NULLTYPE) {
+                    eof(next);
+                } else {
+                    move(next.type, -1, next);
+                }
+                return true;
+            }
+        }
+
+        if (this.type == null) {
+            // no tokens at all, the parser reports that "main" is missing
+            move(TokenType.EOF, -1, new Token(TokenType.EOF, this.tokens.fileName(), 1, 0, "EOF"));
+            return true;
+        }
+        if (this.type == TokenType.END) {
+            eof(token());
+            return true;
+        }
+        return false;
+    }
+
+    // type of the token after the current one, trivia included, null past the end
+    TokenType peekType() {
+        if (this.indexed != null) {
+            int i = this.indexed.index();
+            return i < this.indexed.size() ? this.indexed.type(i) : null;
+        }
+        Token next = this.tokens.peek(1);
+        return next == null ? null : next.type;
+    }
+
+    // moves to an EOF token at the position of the given one
+    void eof(Token at) {
+        move(TokenType.EOF, -1, new Token(TokenType.EOF, at.fileName, at.Line, at.Column, "EOF"));
+    }
+
+    private void move(TokenType type, int index, Token token) {
+        this.type = type;
+        this.index = index;
+        this.token = token;
+        this.position++;
+    }
+
+    Token token() {
+        if (this.token == null) {
+            this.token = this.indexed.token(this.index);
+        }
+        return this.token;
+    }
+
+    int position() {
+        return this.position;
+    }
+
+    // an empty tree of the kind the terminals fit in
+    ParseTree newTree(int capacity) {
+        return this.buffer != null ? new ParseTree(this.buffer, capacity) : new ParseTree(capacity);
+    }
+
+    // adds the current token to the tree as a terminal
+    int terminal(ParseTree tree) {
+        return this.buffer != null ? tree.terminal(this.index) : tree.terminal(token());
+    }
+
+    String lineText() {
+        return this.tokens.lineText(token().Line);
+    }
+}
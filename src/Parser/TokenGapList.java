@@ -0,0 +1,127 @@
+package Parser;
+
+import Interfaces.Token;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * The tokens of a source that is being edited, in a gap buffer whose gap sits
+ * at the last edit. The tokens before the gap hold their real offset, line
+ * and id. The tokens after it all lag behind by the same amounts, and an edit
+ * only adds its own shift to those amounts. A token is brought up to date
+ * when the gap moves past it, so an edit costs the distance from the previous
+ * one instead of a pass over the rest of the file.
+ */
+class TokenGapList extends AbstractList<Token> implements RandomAccess {
+    private Token[] items;
+    private int gapStart; // index of the first token after the gap, and slot the gap starts at
+    private int gapEnd;   // slot of the first token after the gap
+    private int lagOffset, lagLine, lagId; // what the tokens after the gap still miss
+
+    // the tokens of a whole source, numbered from 1 as the lexer does
+    TokenGapList(List<Token> tokens) {
+        this.items = tokens.toArray(new Token[tokens.size() + 16]);
+        this.gapStart = tokens.size();
+        this.gapEnd = this.items.length;
+    }
+
+    @Override
+    public int size() {
+        return items.length - (gapEnd - gapStart);
+    }
+
+    // the token, brought up to date first
+    @Override
+    public Token get(int index) {
+        Objects.checkIndex(index, size());
+        if (index >= gapStart) {
+            moveGap(index + 1);
+        }
+        return items[index];
+    }
+
+    // the token as it is stored, its offset, line and id may lag behind
+    Token raw(int index) {
+        return items[index < gapStart ? index : index + gapEnd - gapStart];
+    }
+
+    int offset(int index) {
+        return index < gapStart ? items[index].Offset : raw(index).Offset + lagOffset;
+    }
+
+    // index of a token in the list from its id, -1 for a token that was removed
+    int indexOf(Token token) {
+        int index = token.id - 1;
+        if (index >= 0 && index < gapStart && items[index] == token) {
+            return index;
+        }
+        index = token.id + lagId - 1;
+        if (index >= gapStart && index < size() && raw(index) == token) {
+            return index;
+        }
+        return -1;
+    }
+
+    // replaces the tokens [from, to) and shifts the ones after them by the change in offset and line
+    void replace(int from, int to, List<Token> with, int offsetDelta, int lineDelta) {
+        moveGap(from);
+        for (int slot = gapEnd; slot < gapEnd + to - from; slot++) {
+            // a removed token loses its id so that nothing can line up with it
+            items[slot].id = 0;
+            items[slot] = null;
+        }
+        gapEnd += to - from;
+
+        if (with.size() > gapEnd - gapStart) {
+            grow(with.size());
+        }
+        for (Token token : with) {
+            token.id = gapStart + 1;
+            items[gapStart++] = token;
+        }
+
+        lagOffset += offsetDelta;
+        lagLine += lineDelta;
+        lagId += with.size() - (to - from);
+        modCount++;
+    }
+
+    // brings every token up to date
+    void settle() {
+        moveGap(size());
+        lagOffset = 0;
+        lagLine = 0;
+        lagId = 0;
+    }
+
+    private void moveGap(int index) {
+        while (gapStart > index) {
+            // the token before the gap ends up after it and starts lagging
+            Token token = items[--gapStart];
+            items[gapStart] = null;
+            items[--gapEnd] = token;
+            token.Offset -= lagOffset;
+            token.Line -= lagLine;
+            token.id -= lagId;
+        }
+        while (gapStart < index) {
+            Token token = items[gapEnd];
+            items[gapEnd++] = null;
+            items[gapStart++] = token;
+            token.Offset += lagOffset;
+            token.Line += lagLine;
+            token.id += lagId;
+        }
+    }
+
+    private void grow(int needed) {
+        int after = items.length - gapEnd;
+        Token[] grown = new Token[Math.max(items.length * 2, gapStart + needed + after + 16)];
+        System.arraycopy(items, 0, grown, 0, gapStart);
+        System.arraycopy(items, gapEnd, grown, grown.length - after, after);
+        items = grown;
+        gapEnd = grown.length - after;
+    }
+}
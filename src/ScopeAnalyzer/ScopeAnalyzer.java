@@ -2,6 +2,7 @@ package ScopeAnalyzer;
 
 import java.util.*;
 import Utils.Scope;
+import Utils.SyntaxTreeWalker;
 import Interfaces.TokenType;
 import Interfaces.SyntaxTreeNode;
 import Interfaces.SymbolTableEntry;
@@ -16,6 +17,36 @@ public class ScopeAnalyzer {
             "skip", "halt", "print", "input", "return", "not", "sqrt", "or", "and",
             "eq", "grt", "add", "sub", "mul", "div"));
 
+    // the second pass, and the first pass which stops at every function declaration
+    private final SyntaxTreeWalker walker = new SyntaxTreeWalker()
+            .onEnter(TokenType.GLOBVARS, node -> {
+                handleGlobalVariableDeclarations(node);
+                return false;
+            })
+            .onEnter(TokenType.LOCALVARS, node -> {
+                handleLocalVariableDeclarations(node);
+                return false;
+            })
+            .onEnter(TokenType.DECL, this::enterFunctionDeclaration)
+            .onExit(TokenType.DECL, this::exitFunctionDeclaration)
+            .onEnter(TokenType.HEADER, node -> false) // handled with its DECL
+            .onEnter(TokenType.CALL, node -> {
+                handleFunctionCall(node);
+                return true;
+            })
+            .onEnter(TokenType.VNAME, node -> {
+                handleVariableUsage(node);
+                return false;
+            });
+    private final SyntaxTreeWalker declarationWalker = new SyntaxTreeWalker()
+            .onEnter(TokenType.DECL, node -> {
+                handleFunctionDeclaration(node, true);
+                return false;
+            })
+            .onEnter(TokenType.ALGO, node -> false) // functions are only declared in FUNCTIONS lists
+            .onEnter(TokenType.GLOBVARS, node -> false)
+            .onEnter(TokenType.LOCALVARS, node -> false);
+
     public void analyze(SyntaxTreeNode root) {
         // Initialize the global scope
         currentScope = new Scope(null, "global", 0);
@@ -43,19 +74,8 @@ public class ScopeAnalyzer {
      * Collects function declarations in the current scope.
      */
     private void collectFunctionDeclarations(SyntaxTreeNode node) {
-        if (node == null) {
-            return;
-        }
-
-        if (node.symbol == TokenType.DECL) {
-            // Handle function declaration in the current scope
-            handleFunctionDeclaration(node, true);
-        } else {
-            // Recurse into children nodes
-            for (SyntaxTreeNode child : node.children) {
-                collectFunctionDeclarations(child);
-            }
-        }
+        // Stops at each DECL, nested functions are collected when their parent's scope is entered
+        declarationWalker.walk(node);
     }
 
     public List<String> getErrors() {
@@ -66,45 +86,8 @@ public class ScopeAnalyzer {
      * Second pass: Traverse the syntax tree for full scope analysis.
      */
     private void traverse(SyntaxTreeNode node) {
-        if (node == null) {
-            return;
-        }
-
-        TokenType symbol = node.symbol;
-
-        switch (symbol) {
-            case PROG:
-                handleProgram(node);
-                break;
-            case GLOBVARS:
-                handleGlobalVariableDeclarations(node);
-                break;
-            case LOCALVARS:
-                handleLocalVariableDeclarations(node);
-                break;
-            case DECL:
-                handleFunctionDeclaration(node, false);
-                break;
-            case CALL:
-                handleFunctionCall(node);
-                break;
-            case VNAME:
-                handleVariableUsage(node);
-                break;
-            default:
-                // Recurse into children nodes
-                for (SyntaxTreeNode child : node.children) {
-                    traverse(child);
-                }
-                break;
-        }
-    }
-
-    private void handleProgram(SyntaxTreeNode node) {
-        // Traverse all children of the program node
-        for (SyntaxTreeNode child : node.children) {
-            traverse(child);
-        }
+        // The walker keeps its own stack, the INSTRUC and FUNCTIONS lists can be nested very deeply
+        walker.walk(node);
     }
 
     /**
@@ -190,21 +173,11 @@ public class ScopeAnalyzer {
             return;
         }
 
-        for (SyntaxTreeNode child : node.children) {
-            switch (child.symbol) {
-                case NUM:
-                case VTEXT:
-                    // Process the variable declaration
-                    processVariableDeclaration(node, varScope);
-                    return; // Return after processing the declaration
-                case GLOBVARS:
-                    // Recursively handle nested GLOBVARS
-                    handleVariableDeclarations(child, varScope);
-                    break;
-                default:
-                    // Skip other tokens like COMMA, SEMICOLON, etc.
-                    break;
-            }
+        // Process the declarations from the last GLOBVARS link back to the first,
+        // the order in which the nested links have always been handled
+        List<SyntaxTreeNode> links = node.flattenList();
+        for (int i = links.size() - 1; i >= 0; i--) {
+            processVariableDeclaration(links.get(i), varScope);
         }
     }
 
@@ -238,6 +211,7 @@ public class ScopeAnalyzer {
 
             // Update the variable name in the syntax tree to the unique name
             nameNode.value = varName;
+            bind(nameNode, entry);
         }
     }
 
@@ -260,18 +234,8 @@ public class ScopeAnalyzer {
                 case VNAME:
                     nameNode = child;
                     break;
-                case COMMA:
-                    // Handle any nested declarations after a comma
-                    int index = declarations.indexOf(child);
-                    if (index + 1 < declarations.size()) {
-                        SyntaxTreeNode nextNode = declarations.get(index + 1);
-                        if (nextNode.symbol == TokenType.GLOBVARS) {
-                            handleVariableDeclarations(nextNode, varScope);
-                        }
-                    }
-                    break;
                 default:
-                    // Skip other tokens
+                    // Skip other tokens, nested GLOBVARS links are handled by the caller
                     break;
             }
         }
@@ -281,9 +245,29 @@ public class ScopeAnalyzer {
         }
     }
 
-    private void handleFunctionDeclaration(SyntaxTreeNode node, boolean firstPass) {
+    private boolean enterFunctionDeclaration(SyntaxTreeNode node) {
+        // The body is only walked once the function's scope is entered
+        boolean entered = handleFunctionDeclaration(node, false);
+        walker.setState(entered ? 1 : 0);
+        return entered;
+    }
+
+    private boolean exitFunctionDeclaration(SyntaxTreeNode node) {
+        if (walker.state() == 1) {
+            // Exit function scope
+            currentScope = currentScope.parent;
+        }
+        return true;
+    }
+
+    /**
+     * Registers the function in the first pass. In the second pass enters its
+     * scope and declares its nested functions and parameters, returns whether
+     * the scope was entered.
+     */
+    private boolean handleFunctionDeclaration(SyntaxTreeNode node, boolean firstPass) {
         if (node == null) {
-            return;
+            return false;
         }
 
         // Extract HEADER and BODY
@@ -300,7 +284,7 @@ public class ScopeAnalyzer {
 
         if (headerNode == null || bodyNode == null) {
             reportError("Function declaration is missing HEADER or BODY.");
-            return;
+            return false;
         }
 
         // Extract function name and type from HEADER
@@ -323,7 +307,7 @@ public class ScopeAnalyzer {
 
         if (funcName == null || funcType == null) {
             reportError("Function declaration is missing name or type.");
-            return;
+            return false;
         }
 
         if (firstPass) {
@@ -347,6 +331,7 @@ public class ScopeAnalyzer {
                 for (SyntaxTreeNode child : headerNode.children) {
                     if (child.symbol == TokenType.FNAME) {
                         child.value = funcName;
+                        bind(child, entry);
                         break;
                     }
                 }
@@ -358,7 +343,7 @@ public class ScopeAnalyzer {
             SymbolTableEntry entry = currentScope.lookup(funcName);
             if (entry == null) {
                 reportError("Function '" + funcName + "' was not registered in the first pass.");
-                return;
+                return false;
             }
 
             // Enter new function scope
@@ -390,17 +375,15 @@ public class ScopeAnalyzer {
 
                     // Update the parameter name in the syntax tree to the unique name
                     paramNode.value = paramName;
+                    bind(paramNode, paramEntry);
                 }
             }
 
-            // Traverse the function body
-            for (SyntaxTreeNode child : bodyNode.children) {
-                traverse(child);
-            }
-
-            // Exit function scope
-            currentScope = currentScope.parent;
+            // The walker traverses the function body next
+            return true;
         }
+
+        return false;
     }
 
     private void handleVariableUsage(SyntaxTreeNode node) {
@@ -412,6 +395,9 @@ public class ScopeAnalyzer {
 
         SymbolTableEntry entry = currentScope.lookup(varName);
 
+        // Bind the usage to its declaration, the later phases read it instead of looking it up again
+        bind(node, entry);
+
         if (entry == null) {
             reportError("Variable '" + varName + "' is not declared.");
         } else {
@@ -433,6 +419,7 @@ public class ScopeAnalyzer {
                 }
 
                 SymbolTableEntry entry = currentScope.lookupFunction(funcName);
+                bind(child, entry);
 
                 if (entry == null) {
                     reportError("Function '" + funcName + "' is not declared.");
@@ -450,11 +437,14 @@ public class ScopeAnalyzer {
             }
         }
 
-        // Traverse the arguments
-        for (SyntaxTreeNode child : node.children) {
-            if (child.symbol != TokenType.FNAME) {
-                traverse(child);
-            }
+        // The walker traverses the arguments next
+    }
+
+    // binds a name, also on its parse tree token where code generation reads it
+    private static void bind(SyntaxTreeNode node, SymbolTableEntry entry) {
+        node.entry = entry;
+        if (node.token != null) {
+            node.token.entry = entry;
         }
     }
 
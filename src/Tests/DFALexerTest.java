@@ -0,0 +1,332 @@
+package Tests;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import Lexer.Lexer;
+import Parser.Parser;
+import Lexer.DFALexer;
+import Interfaces.Token;
+import Utils.SourceMap;
+import Utils.FileManager;
+import Interfaces.TokenType;
+import Interfaces.TokenBuffer;
+import Utils.XMLGenerator;
+import Lexer.ParallelLexer;
+import Lexer.StreamingLexer;
+import java.util.concurrent.ForkJoinPool;
+
+public class DFALexerTest {
+
+    private static int totalTests = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    public static void main(String[] args) {
+        System.out.println("Running DFALexer tests...");
+
+        // the table driven lexer must agree with the reference lexer on every sample program
+        for (String dir : new String[] { "examples", "src/Tests/TestCases/ScopeAnalyzer", "src/Tests/TestCases/TypeChecker" }) {
+            File[] files = new File(dir).listFiles((d, name) -> name.endsWith(".spl") || name.endsWith(".txt"));
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                runTest(file.getPath());
+                runStreamTest(file.getPath());
+                runParallelTest(file.getPath());
+            }
+        }
+
+        runErrorTest("main begin V_x = 0.10 ; end", "0.10");
+        runErrorTest("main begin V_x = \"hello\" ; end", "\"hello\"");
+        runErrorTest("main begin print V_ ; end", "V_");
+        runParallelErrorTest();
+        runStreamLineTextTest();
+        runNumberTest("0 1 -7 0.5 -0.05 120.25 3.1415926535 0.0000000000000000000001 -123456789.123456789 9999999999999999999");
+
+        System.out.println("Tests passed: " + testsPassed + "/" + totalTests);
+        System.out.println("Tests failed: " + testsFailed + "/" + totalTests);
+        System.out.println("Total tests: " + totalTests);
+    }
+
+    private static void runTest(String path) {
+        totalTests++;
+
+        try {
+            String contents = FileManager.readFileAndReturnContents(path);
+
+            List<Token> expected = significant(new Lexer(contents, path).scanTokens());
+            List<Token> actual = new DFALexer(contents, path).scanTokens();
+
+            // whitespace only shows up when trivia is asked for
+            if (actual.size() != significant(actual).size()
+                    || significant(new DFALexer(contents, path, true).scanTokens()).size() != actual.size()) {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + path + ": Whitespace tokens were not skipped.");
+                testsFailed++;
+                return;
+            }
+
+            // the compact buffer must describe exactly the same tokens
+            TokenBuffer buffer = new DFALexer(contents, path).scanTokenBuffer();
+            if (buffer.size() != actual.size()) {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + path + ": Token buffer has " + buffer.size() + " tokens, expected " + actual.size());
+                testsFailed++;
+                return;
+            }
+            for (int i = 0; i < buffer.size(); i++) {
+                Token e = actual.get(i);
+                Token a = buffer.token(i);
+                if (e.type != a.type || !e.Value.equals(a.Value) || !buffer.textEquals(i, contents.substring(a.Offset, a.Offset + buffer.length(i)))
+                        || e.Line != a.Line || e.Column != a.Column || e.Offset != a.Offset || e.id != a.id
+                        || Double.compare(e.Number, a.Number) != 0) {
+                    System.out.println("\u001B[31m[FAIL]\u001B[0m " + path + ": buffered token " + i + " expected " + e + " actual " + a);
+                    testsFailed++;
+                    return;
+                }
+            }
+
+            // scanning the memory mapped bytes must give the same tokens as scanning the decoded string
+            List<Token> mapped = new DFALexer(FileManager.mapFile(path), path).scanTokens();
+            for (int i = 0; i < Math.max(mapped.size(), actual.size()); i++) {
+                Token e = i < actual.size() ? actual.get(i) : null;
+                Token a = i < mapped.size() ? mapped.get(i) : null;
+                if (e == null || a == null || e.type != a.type || !e.Value.equals(a.Value) || e.Offset != a.Offset) {
+                    System.out.println("\u001B[31m[FAIL]\u001B[0m " + path + ": mapped token " + i + " expected " + e + " actual " + a);
+                    testsFailed++;
+                    return;
+                }
+            }
+
+            for (int i = 0; i < Math.max(expected.size(), actual.size()); i++) {
+                Token e = i < expected.size() ? expected.get(i) : null;
+                Token a = i < actual.size() ? actual.get(i) : null;
+
+                // the lexer's canonical number must match what the JDK parses from the same text
+                if (e == null || a == null || e.type != a.type || !e.Value.equals(a.Value) || e.Line != a.Line
+                        || Double.compare(e.Number, a.Number) != 0) {
+                    System.out.println("\u001B[31m[FAIL]\u001B[0m " + path + ": token " + i + " expected " + e + " actual " + a);
+                    testsFailed++;
+                    return;
+                }
+            }
+
+            System.out.println("\u001B[32m[PASS]\u001B[0m " + path);
+            testsPassed++;
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + path + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    private static void runStreamTest(String path) {
+        String testName = path + " (streamed)";
+        totalTests++;
+
+        try {
+            String contents = FileManager.readFileAndReturnContents(path);
+
+            // a tiny chunk size makes tokens straddle chunk boundaries
+            List<Token> expected = new DFALexer(contents, path).scanTokens();
+            StreamingLexer stream = new StreamingLexer(new StringReader(contents), path, 7);
+
+            for (int i = 0; i < expected.size(); i++) {
+                Token e = expected.get(i);
+                Token peeked = stream.peek(1);
+                Token a = stream.next();
+
+                if (a == null || peeked != a || e.type != a.type || !e.Value.equals(a.Value) || e.Line != a.Line
+                        || e.Column != a.Column || e.Offset != a.Offset || e.id != a.id || Double.compare(e.Number, a.Number) != 0) {
+                    System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": token " + i + " expected " + e + " actual " + a);
+                    testsFailed++;
+                    return;
+                }
+            }
+
+            if (stream.next() != null) {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Stream has extra tokens.");
+                testsFailed++;
+                return;
+            }
+
+            // pulling tokens on demand must build the same tree as parsing the full list
+            String fromList = parseToXML(new Parser(expected, new SourceMap(contents)));
+            String fromStream = parseToXML(new Parser(new StreamingLexer(new StringReader(contents), path, 7)));
+
+            if (fromList.equals(fromStream)) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Parse trees differ.");
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    private static void runParallelTest(String path) {
+        String testName = path + " (parallel)";
+        totalTests++;
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            String contents = FileManager.readFileAndReturnContents(path);
+
+            // tiny chunks so that every file is split many times
+            TokenBuffer expected = new DFALexer(contents, path).scanTokenBuffer();
+            TokenBuffer actual = new ParallelLexer(contents, path, 16, pool).scanTokenBuffer();
+
+            if (expected.size() != actual.size()) {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Expected " + expected.size() + " tokens, found " + actual.size());
+                testsFailed++;
+                return;
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                if (expected.type(i) != actual.type(i) || expected.start(i) != actual.start(i) || expected.length(i) != actual.length(i)
+                        || expected.line(i) != actual.line(i) || expected.column(i) != actual.column(i)) {
+                    System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": token " + i + " expected " + expected.token(i) + " actual " + actual.token(i));
+                    testsFailed++;
+                    return;
+                }
+            }
+
+            System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+            testsPassed++;
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void runStreamLineTextTest() {
+        String testName = "streaming lexer line text";
+        totalTests++;
+
+        try {
+            // the lookahead moves past the first lines, their text must still be there
+            StreamingLexer stream = new StreamingLexer(new StringReader("main\nnum V_x,\n\nbegin\n  V_x = 1 ;\nend\n"), "test.txt", 7);
+            stream.next();
+            stream.peek(4);
+            boolean passedLines = stream.lineText(1).equals("main") && stream.lineText(2).equals("num V_x,")
+                    && stream.lineText(4).equals("begin");
+
+            // a program on one long line only keeps the start of it
+            StringBuilder program = new StringBuilder("main begin");
+            for (int i = 0; i < 20000; i++) {
+                program.append(" V_x = ").append(i + 1).append(" ;");
+            }
+            program.append(" end");
+            StreamingLexer longLine = new StreamingLexer(new StringReader(program.toString()), "test.txt");
+            while (longLine.next() != null) {
+            }
+            String text = longLine.lineText(1);
+            boolean bounded = text.length() < 2048 && program.toString().startsWith(text);
+
+            if (passedLines && bounded) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": passed lines " + passedLines + ", long line kept " + text.length() + " characters");
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    private static void runParallelErrorTest() {
+        String testName = "parallel lexer error position";
+        totalTests++;
+
+        // two bad lines in different chunks, only the first one may be reported
+        StringBuilder program = new StringBuilder("main\nbegin\n");
+        for (int i = 0; i < 200; i++) {
+            program.append(i == 120 || i == 180 ? "  V_x = 0.10 ;\n" : "  V_x = add(V_x, 1) ;\n");
+        }
+        program.append("end\n");
+
+        String expected = null;
+        String actual = null;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new DFALexer(program, "test.txt").scanTokenBuffer();
+        } catch (RuntimeException e) {
+            expected = e.getMessage();
+        }
+        try {
+            new ParallelLexer(program, "test.txt", 64, pool).scanTokenBuffer();
+        } catch (RuntimeException e) {
+            actual = e.getMessage();
+        } finally {
+            pool.shutdown();
+        }
+
+        if (expected != null && expected.equals(actual) && expected.startsWith("test.txt:123:")) {
+            System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+            testsPassed++;
+        } else {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": expected " + expected + " actual " + actual);
+            testsFailed++;
+        }
+    }
+
+    private static void runNumberTest(String numbers) {
+        String testName = "canonical number values";
+        totalTests++;
+
+        // covers the exact fast path and the long literals that fall back to the JDK
+        for (Token token : new DFALexer(numbers, "test.txt").scanTokens()) {
+            if (token.type != TokenType.NUMLIT || Double.compare(token.Number, Double.parseDouble(token.Value)) != 0) {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": " + token.Value + " gave " + token.Number);
+                testsFailed++;
+                return;
+            }
+        }
+
+        System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+        testsPassed++;
+    }
+
+    private static String parseToXML(Parser parser) {
+        try {
+            return XMLGenerator.generatePARSERXML(parser.parse());
+        } catch (RuntimeException e) {
+            // syntax errors have to be reported the same way too
+            return e.getMessage();
+        }
+    }
+
+    private static void runErrorTest(String program, String testName) {
+        totalTests++;
+
+        try {
+            new DFALexer(program, "test.txt").scanTokens();
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Expected a lexer error.");
+            testsFailed++;
+        } catch (RuntimeException e) {
+            System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+            testsPassed++;
+        }
+    }
+
+    private static List<Token> significant(List<Token> tokens) {
+        List<Token> result = new ArrayList<>();
+        for (Token token : tokens) {
+            if (token.type != TokenType.NULLTYPE) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+}
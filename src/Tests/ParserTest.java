@@ -0,0 +1,505 @@
+package Tests;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import CodeGenBasic.CodeGenBasic;
+import Parser.GrammarGenerator;
+import Parser.IncrementalParser;
+import Parser.Parser;
+import Parser.TableParser;
+import ScopeAnalyzer.ScopeAnalyzer;
+import Lexer.DFALexer;
+import Utils.FileManager;
+import Utils.SourceMap;
+import Utils.XMLGenerator;
+import Interfaces.AST;
+import Interfaces.ParseNode;
+import Interfaces.ParseTree;
+import Lexer.ParallelLexer;
+import Interfaces.Token;
+import Interfaces.TokenBuffer;
+import Interfaces.TokenType;
+import Utils.ASTBuilder;
+import Utils.SyntaxTreeBuilder;
+
+public class ParserTest {
+
+    private static int totalTests = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    public static void main(String[] args) {
+        System.out.println("Running Parser tests...");
+
+        // recovery must not change anything for programs without errors
+        for (String dir : new String[] { "examples", "src/Tests/TestCases/ScopeAnalyzer", "src/Tests/TestCases/TypeChecker" }) {
+            File[] files = new File(dir).listFiles((d, name) -> name.endsWith(".spl") || name.endsWith(".txt"));
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                runRecoveryMatchesTest(file.getPath());
+                runParseTreeTest(file.getPath());
+                runTableParserTest(file.getPath());
+            }
+        }
+
+        runRecoveryTest("errors in three statements",
+                "main begin V_x = ; print V_x ; V_y < 5 ; halt ; V_z = add(1 2) ; end",
+                3, ":1:18:");
+        runRecoveryTest("errors in two functions",
+                "main begin halt ; end\n"
+                        + "num F_a(V_a, V_b, V_c) { num V_x, num V_y, num V_z, begin return V_a end } end\n"
+                        + "num F_b(V_a, V_b) { num V_x, num V_y, num V_z, begin return V_a ; end } end\n"
+                        + "void F_c(V_a, V_b, V_c) { num V_x, num V_y, num V_z, begin halt ; end } end",
+                2, ":2:");
+        runRecoveryTest("missing closing brace",
+                "main begin halt ; end\n"
+                        + "num F_a(V_a, V_b, V_c) { num V_x, num V_y, begin halt ; end } end\n"
+                        + "num F_b(V_a, V_b, V_c) { num V_x, num V_y, num V_z, begin skip end } end",
+                2, ":2:");
+        runRecoveryTest("unexpected end of input", "main begin halt ;", 1, ":1:");
+        runEmptyInputTest("empty file", "");
+        runEmptyInputTest("whitespace only file", " \n\t\n  ");
+
+        runLexerRecoveryTest();
+        runASTTest();
+        runIncrementalTest();
+        runParallelTest("parallel functions", -1);
+        runParallelTest("parallel functions with errors", 150);
+        runGeneratedTableTest();
+
+        System.out.println("Tests passed: " + testsPassed + "/" + totalTests);
+        System.out.println("Tests failed: " + testsFailed + "/" + totalTests);
+        System.out.println("Total tests: " + totalTests);
+    }
+
+    private static void runRecoveryMatchesTest(String path) {
+        String testName = path + " (recovery)";
+        totalTests++;
+
+        try {
+            String contents = FileManager.readFileAndReturnContents(path);
+
+            // the strict parser reports the first error by throwing
+            String expected;
+            try {
+                expected = XMLGenerator.generatePARSERXML(new Parser(new DFALexer(contents, path).scanTokens()).parse());
+            } catch (RuntimeException e) {
+                expected = e.getMessage();
+            }
+
+            Parser parser = new Parser(new DFALexer(contents, path).scanTokens());
+            parser.setRecovery(true);
+            ParseNode pt = parser.parse();
+            List<String> errors = parser.getErrors();
+
+            boolean same = errors.isEmpty() ? expected.equals(XMLGenerator.generatePARSERXML(pt)) : expected.equals(errors.get(0));
+            if (same) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Recovering parser disagrees with the strict one.");
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    private static void runParseTreeTest(String path) {
+        String testName = path + " (compact tree)";
+        totalTests++;
+
+        try {
+            String contents = FileManager.readFileAndReturnContents(path);
+            ParseTree tree;
+            try {
+                tree = new Parser(new DFALexer(contents, path).scanTokens()).parseTree();
+            } catch (RuntimeException e) {
+                // files with syntax errors are covered by the recovery tests
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+                return;
+            }
+
+            // the object tree is built from the compact one, and back again
+            ParseNode pt = tree.toParseNode(tree.root());
+            String expected = XMLGenerator.generatePARSERXML(pt);
+            String basic = generateBasic(ParseTree.of(pt));
+
+            boolean same = expected.equals(XMLGenerator.generatePARSERXML(tree))
+                    && expected.equals(XMLGenerator.generatePARSERXML(ParseTree.of(pt)))
+                    && basic.equals(generateBasic(tree));
+            if (same) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Compact tree output differs from the ParseNode output.");
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    private static void runTableParserTest(String path) {
+        String testName = path + " (table parser)";
+        totalTests++;
+
+        try {
+            String contents = FileManager.readFileAndReturnContents(path);
+
+            // both parsers accept the same programs and build the same tree for them
+            String expected;
+            try {
+                expected = XMLGenerator.generatePARSERXML(new Parser(new DFALexer(contents, path).scanTokens()).parse());
+            } catch (RuntimeException e) {
+                expected = null;
+            }
+            String actual;
+            try {
+                actual = XMLGenerator.generatePARSERXML(new TableParser(new DFALexer(contents, path).scanTokens()).parseTree());
+            } catch (RuntimeException e) {
+                actual = null;
+            }
+
+            if (expected == null ? actual == null : expected.equals(actual)) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Table parser disagrees with the recursive descent one.");
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    private static void runGeneratedTableTest() {
+        String testName = "parse table is up to date with spl.grammar";
+        totalTests++;
+
+        try {
+            String grammar = FileManager.readFileAndReturnContents("src/Parser/spl.grammar");
+            String table = FileManager.readFileAndReturnContents("src/Parser/SPLTable.java");
+            if (GrammarGenerator.generate(grammar).equals(table)) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Regenerate SPLTable.java with GrammarGenerator.");
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    // code generation rejects some programs that parse, compare the message then;
+    // the names are bound first, as App does before generating code
+    private static String generateBasic(ParseTree tree) {
+        try {
+            new ScopeAnalyzer().analyze(new SyntaxTreeBuilder().build(tree));
+            return new CodeGenBasic(ASTBuilder.build(tree)).generateCode();
+        } catch (RuntimeException e) {
+            return e.toString();
+        }
+    }
+
+    private static void runRecoveryTest(String testName, String program, int expectedErrors, String firstLocation) {
+        totalTests++;
+
+        try {
+            Parser parser = new Parser(new DFALexer(program, "test.txt").scanTokens());
+            parser.setRecovery(true);
+            parser.parse();
+            List<String> errors = parser.getErrors();
+
+            if (errors.size() == expectedErrors && errors.get(0).startsWith("test.txt" + firstLocation)) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Expected " + expectedErrors + " errors, found " + errors);
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    // an input without tokens reports the missing "main" at line 1, whether parsed from a buffer or a list
+    private static void runEmptyInputTest(String testName, String program) {
+        totalTests++;
+
+        try {
+            Parser bufferParser = new Parser(new DFALexer(program, "test.txt").scanTokenBuffer());
+            bufferParser.setRecovery(true);
+            bufferParser.parse();
+            List<String> bufferErrors = bufferParser.getErrors();
+
+            Parser listParser = new Parser(new DFALexer(program, "test.txt").scanTokens());
+            listParser.setRecovery(true);
+            listParser.parse();
+            List<String> listErrors = listParser.getErrors();
+
+            if (bufferErrors.size() == 1 && bufferErrors.get(0).startsWith("test.txt:1:0:")
+                    && bufferErrors.get(0).contains("expected \"main\"")
+                    && listErrors.size() == 1 && listErrors.get(0).contains(":1:0:")
+                    && listErrors.get(0).contains("expected \"main\"")) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Expected a missing main at 1:0, found "
+                        + bufferErrors + " and " + listErrors);
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    private static void runASTTest() {
+        String testName = "typed AST";
+        totalTests++;
+
+        String program = "main num V_x , text V_t , begin V_x < input ; V_x = add(V_x, sqrt(4)) ; "
+                + "if not(grt(V_x, 1)) then begin print V_t ; end ; F_f(V_x, 2, V_x) ; end\n"
+                + "void F_f(V_a, V_b, V_c) { num V_l, num V_m, text V_n, begin halt ; end } end";
+        try {
+            AST.Prog prog = ASTBuilder.build(new Parser(new DFALexer(program, "test.txt").scanTokens()).parseTree());
+            List<AST.Command> commands = prog.algo().instructions();
+
+            // punctuation is gone, the lists are flat and each command has its own record
+            boolean same = prog.globals().size() == 2 && prog.globals().get(1).type() == TokenType.VTEXT
+                    && commands.size() == 4
+                    && commands.get(0) instanceof AST.Input input && input.name().Value.equals("V_x")
+                    && commands.get(1) instanceof AST.Assign assign && assign.value() instanceof AST.Binop binop
+                    && binop.right() instanceof AST.Unop sqrt && sqrt.arg() instanceof AST.Const
+                    && commands.get(2) instanceof AST.Branch branch && branch.orElse() == null
+                    && branch.cond() instanceof AST.Unop not && not.arg() instanceof AST.Binop
+                    && commands.get(3) instanceof AST.Call call && call.args().size() == 3
+                    && prog.functions().size() == 1 && prog.functions().get(0).header().params().size() == 3
+                    && prog.functions().get(0).body().locals().size() == 3
+                    && prog.functions().get(0).body().functions().isEmpty();
+            if (same) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Unexpected tree " + prog);
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    private static void runIncrementalTest() {
+        String testName = "incremental parsing";
+        totalTests++;
+
+        StringBuilder program = new StringBuilder("main\nnum V_x ,\nbegin\n");
+        for (int i = 0; i < 300; i++) {
+            program.append("  V_x = add(V_x, ").append(i).append(") ;\n");
+            if (i == 200) {
+                program.append("  if grt(V_x, 1) then begin\n    print V_x ;\n    V_x = sub(V_x, 1) ;\n  end else begin\n    halt ;\n  end ;\n");
+            }
+        }
+        program.append("end\n");
+        program.append("num F_a(V_a, V_b, V_c) {\n  num V_l, num V_m, num V_n,\n  begin\n    V_l = V_a ;\n    return V_l ;\n  end\n} end\n");
+        program.append("void F_b(V_a, V_b, V_c) {\n  num V_l, num V_m, num V_n,\n  begin\n    halt ;\n  end\n} end\n");
+
+        try {
+            IncrementalParser parser = new IncrementalParser(program, "test.txt");
+            StringBuilder failures = new StringBuilder();
+
+            // change a literal, only that statement is parsed again
+            edit(parser, "V_x, 150)", 5, 3, "151", failures, 20);
+            // add and remove statements
+            edit(parser, "  V_x = add(V_x, 10) ;", 0, 0, "  print V_x ;\n  skip ;\n", failures, 20);
+            edit(parser, "  V_x = add(V_x, 20) ;\n", 0, 23, "", failures, 20);
+            // inside the branch, and inside a function
+            edit(parser, "print V_x ;\n    V_x = sub", 6, 3, "V_x ;\n    print V_x", failures, 20);
+            edit(parser, "return V_l", 7, 3, "V_m", failures, 20);
+            // a function header only re-parses its function
+            edit(parser, "void F_b(V_a", 9, 3, "V_q", failures, 40);
+            // an error is reported, and fixing it parses cleanly again
+            edit(parser, "V_x, 250) ;", 10, 1, "", failures, 20);
+            if (parser.getErrors().size() != 1 || !parser.getErrors().get(0).startsWith("test.txt:")) {
+                failures.append(" missing error ").append(parser.getErrors());
+            }
+            // while it is there, edits elsewhere stay incremental and the error moves with its line
+            edit(parser, "V_x, 30)", 5, 2, "31", failures, 20);
+            edit(parser, "  V_x = add(V_x, 40) ;", 0, 0, "  skip ;\n\n", failures, 20);
+            edit(parser, "return V_m", 7, 3, "V_n", failures, 20);
+            // a second error, in a function, and an edit in the statements recovery skipped
+            edit(parser, "num V_l, num V_m", 7, 1, "", failures, 40);
+            edit(parser, "V_x, 251)", 5, 3, "252", failures, 20);
+            if (parser.getErrors().size() != 2) {
+                failures.append(" expected two errors ").append(parser.getErrors());
+            }
+            edit(parser, "num V_l num V_m", 7, 0, ",", failures, 40);
+            edit(parser, "V_x, 250)", 9, 0, " ;", failures, 20);
+            if (!parser.getErrors().isEmpty()) {
+                failures.append(" unexpected errors ").append(parser.getErrors());
+            }
+            // the lines after an edit that adds lines shift
+            edit(parser, "  V_x = add(V_x, 299) ;", 0, 0, "\n\n", failures, 20);
+
+            if (failures.length() == 0) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ":" + failures);
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    // applies an edit relative to a marker and compares the result with lexing and parsing from scratch
+    private static void edit(IncrementalParser parser, String marker, int offset, int length, String text, StringBuilder failures, int maxReparsed) {
+        int start = parser.source().toString().indexOf(marker) + offset;
+        parser.edit(start, start + length, text);
+
+        String source = parser.source().toString();
+        DFALexer lexer = new DFALexer(source, "test.txt");
+        lexer.setRecovery(true);
+        List<Token> expected = lexer.scanTokens();
+        List<Token> actual = parser.tokens();
+        boolean sameTokens = expected.size() == actual.size();
+        for (int i = 0; sameTokens && i < expected.size(); i++) {
+            Token a = expected.get(i);
+            Token b = actual.get(i);
+            sameTokens = a.type == b.type && a.Value.equals(b.Value) && a.id == b.id && a.Line == b.Line
+                    && a.Column == b.Column && a.Offset == b.Offset;
+        }
+        if (!sameTokens) {
+            failures.append(" tokens differ after editing ").append(marker);
+        }
+
+        // the same tree and diagnostics as a full pass with recovery, errors or not
+        Parser full = new Parser(expected, new SourceMap(source));
+        full.setRecovery(true);
+        ParseNode fullTree = full.parse();
+        List<String> errors = new ArrayList<>(lexer.getErrors());
+        errors.addAll(full.getErrors());
+        if (!errors.equals(parser.getErrors())) {
+            failures.append(" errors differ after editing ").append(marker).append(": ").append(parser.getErrors());
+        }
+        if (!XMLGenerator.generatePARSERXML(fullTree).equals(XMLGenerator.generatePARSERXML(parser.tree()))) {
+            failures.append(" tree differs after editing ").append(marker);
+        }
+        if (maxReparsed >= 0 && parser.reparsedTokens() > maxReparsed) {
+            failures.append(" re-parsed ").append(parser.reparsedTokens()).append(" tokens after editing ").append(marker);
+        }
+    }
+
+    private static void runParallelTest(String testName, int brokenFunction) {
+        totalTests++;
+
+        StringBuilder program = new StringBuilder("main\nnum V_x ,\nbegin\n  V_x = F_f0(1, 2, 3) ;\nend\n");
+        for (int i = 0; i < 300; i++) {
+            program.append("num F_f").append(i).append("(V_a, V_b, V_c) {\n  num V_l, num V_m, num V_n,\n  begin\n");
+            program.append(i == brokenFunction ? "    V_l = add(V_a V_b) ;\n" : "    V_l = add(V_a, V_b) ;\n");
+            program.append("    if grt(V_l, V_c) then begin return V_l ; end else begin return V_c ; end ;\n  end\n}\n");
+            if (i % 50 == 0) {
+                program.append("void F_g").append(i).append("(V_a, V_b, V_c) {\n  num V_l, num V_m, num V_n,\n  begin\n    halt ;\n  end\n} end\n");
+            }
+            program.append("end\n");
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TokenBuffer tokens = new DFALexer(program, "test.txt").scanTokenBuffer();
+
+            Parser sequential = new Parser(tokens);
+            sequential.setRecovery(true);
+            String expected = XMLGenerator.generatePARSERXML(sequential.parseTree());
+
+            Parser parallel = new Parser(tokens);
+            parallel.setRecovery(true);
+            parallel.setPool(pool);
+            String actual = XMLGenerator.generatePARSERXML(parallel.parseTree());
+
+            boolean errorsExpected = brokenFunction >= 0;
+            if (expected.equals(actual) && sequential.getErrors().equals(parallel.getErrors())
+                    && sequential.getErrors().isEmpty() != errorsExpected) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Parallel parse differs from the sequential one " + parallel.getErrors());
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void runLexerRecoveryTest() {
+        String testName = "lexer recovery";
+        totalTests++;
+
+        // three bad words spread over separate chunks
+        StringBuilder program = new StringBuilder("main\nbegin\n");
+        for (int i = 0; i < 200; i++) {
+            program.append(i == 20 || i == 120 || i == 180 ? "  V_x = 0.10 ;\n" : "  V_x = add(V_x, 1) ;\n");
+        }
+        program.append("end\n");
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            DFALexer sequential = new DFALexer(program, "test.txt");
+            sequential.setRecovery(true);
+            TokenBuffer expected = sequential.scanTokenBuffer();
+
+            ParallelLexer parallel = new ParallelLexer(program, "test.txt", 64, pool);
+            parallel.setRecovery(true);
+            TokenBuffer actual = parallel.scanTokenBuffer();
+
+            Parser parser = new Parser(actual);
+            parser.setRecovery(true);
+            parser.parse();
+
+            // every bad literal is dropped, which leaves an assignment without a term for the parser
+            if (sequential.getErrors().size() == 3 && sequential.getErrors().equals(parallel.getErrors())
+                    && sequential.getErrors().get(1).startsWith("test.txt:123:")
+                    && expected.size() == actual.size() && parser.getErrors().size() == 3) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": " + parallel.getErrors() + parser.getErrors());
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package Tests;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import CodeGenBasic.CodeGenBasic;
+import Interfaces.ParseTree;
+import Interfaces.SyntaxTreeNode;
+import Interfaces.Token;
+import Interfaces.TokenBuffer;
+import Lexer.DFALexer;
+import Parser.Parser;
+import ScopeAnalyzer.ScopeAnalyzer;
+import TypeChecker.TypeChecker;
+import Utils.ASTBuilder;
+import Utils.FileManager;
+import Utils.ProgramGenerator;
+import Utils.SyntaxTreeBuilder;
+import Utils.SyntaxTreeParser;
+import Utils.XMLGenerator;
+
+/**
+ * Performance regression gate. Runs every phase over a fixed corpus, the
+ * examples and a few generated programs, and measures the bytes the phase
+ * allocates on this thread and its wall time, the lowest of several rounds
+ * after a warm-up. A phase fails when it allocates more than the baseline in
+ * TestCases/Performance/baseline.txt allows, or is much slower.
+ *
+ * Allocation is close to deterministic, so its tolerance is tight and it is
+ * what catches an extra copy in the lexer, parser or code generator. Time
+ * depends on the machine and its load, its tolerance only catches gross
+ * regressions. After an intended change, write a new baseline with
+ *
+ *     java -cp bin Tests.PerformanceTest --update
+ */
+public class PerformanceTest {
+
+    private static int totalTests = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    private static final String BASELINE = "src/Tests/TestCases/Performance/baseline.txt";
+
+    // allowed growth over the baseline, as a fraction plus a fixed slack for the small phases
+    private static final double ALLOCATION_TOLERANCE = 0.10;
+    private static final long ALLOCATION_SLACK = 64 * 1024;
+    private static final double TIME_TOLERANCE = 2.0;
+    private static final long TIME_SLACK = 5_000_000;
+
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 10;
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // keeps the results reachable so no phase is optimised away
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("Running Performance tests...");
+        boolean update = args.length > 0 && args[0].equals("--update");
+
+        List<Input> corpus = corpus();
+        Map<String, long[]> results = new LinkedHashMap<>();
+        for (Phase phase : phases()) {
+            results.put(phase.name(), measure(phase, corpus));
+        }
+
+        if (update) {
+            writeBaseline(results);
+            System.out.println("Wrote " + BASELINE);
+            return;
+        }
+
+        Map<String, long[]> baseline = readBaseline();
+        for (Map.Entry<String, long[]> result : results.entrySet()) {
+            check(result.getKey(), result.getValue(), baseline.get(result.getKey()));
+        }
+
+        System.out.println("Tests passed: " + testsPassed + "/" + totalTests);
+        System.out.println("Tests failed: " + testsFailed + "/" + totalTests);
+        System.out.println("Total tests: " + totalTests);
+    }
+
+    // a corpus program with the outputs of every phase, so each phase is measured on its own
+    private static class Input {
+        final String name;
+        final String source;
+        final List<Token> tokens;
+        final TokenBuffer buffer;
+        final ParseTree parseTree;
+        final Path parserXML;
+
+        Input(String name, String source) throws IOException {
+            this.name = name;
+            this.source = source;
+            this.tokens = new DFALexer(source, name).scanTokens();
+            this.buffer = new DFALexer(source, name).scanTokenBuffer();
+            this.parseTree = new Parser(tokens).parseTree();
+            this.parserXML = Files.createTempFile("parser", ".xml");
+            this.parserXML.toFile().deleteOnExit();
+            Files.writeString(parserXML, XMLGenerator.generatePARSERXML(parseTree));
+        }
+    }
+
+    // prepare runs outside the measurement, for phases that change their input
+    private record Phase(String name, Function<Input, Object> prepare, BiFunction<Input, Object, Object> run) {
+        Phase(String name, Function<Input, Object> run) {
+            this(name, input -> null, (input, prepared) -> run.apply(input));
+        }
+    }
+
+    private static List<Input> corpus() throws IOException {
+        List<Input> corpus = new ArrayList<>();
+        for (int i = 2; i <= 7; i++) {
+            String path = "examples/example" + i + ".spl";
+            corpus.add(new Input(path, FileManager.readFileAndReturnContents(path)));
+        }
+        for (int seed = 1; seed <= 3; seed++) {
+            ProgramGenerator generator = new ProgramGenerator(seed);
+            generator.functions = 20 * seed;
+            corpus.add(new Input("generated-" + seed, generator.generate()));
+        }
+        return corpus;
+    }
+
+    private static List<Phase> phases() {
+        return List.of(
+                new Phase("lexer", input -> new DFALexer(input.source, input.name).scanTokens()),
+                new Phase("parser", input -> new Parser(input.tokens).parseTree()),
+                // the compiler's own path, matching on the buffer's token types
+                new Phase("bufferParser", input -> new Parser(input.buffer).parseTree()),
+                new Phase("lexerXML", input -> XMLGenerator.generateLEXERXML(input.tokens)),
+                new Phase("parserXML", input -> XMLGenerator.generatePARSERXML(input.parseTree)),
+                new Phase("syntaxTreeParser", input -> new SyntaxTreeParser().parse(input.parserXML.toString())),
+                new Phase("syntaxTreeBuilder", input -> new SyntaxTreeBuilder().build(input.parseTree)),
+                // scope analysis renames the nodes and type checking caches types in them, so each round gets a fresh tree
+                new Phase("scopeAnalyzer", input -> new SyntaxTreeBuilder().build(input.parseTree), (input, tree) -> {
+                    ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+                    scopeAnalyzer.analyze((SyntaxTreeNode) tree);
+                    return scopeAnalyzer;
+                }),
+                new Phase("typeChecker", input -> {
+                    SyntaxTreeNode tree = new SyntaxTreeBuilder().build(input.parseTree);
+                    ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+                    scopeAnalyzer.analyze(tree);
+                    return new Object[] { tree, scopeAnalyzer.getGlobalScope() };
+                }, (input, prepared) -> {
+                    Object[] analyzed = (Object[]) prepared;
+                    return new TypeChecker((Utils.Scope) analyzed[1]).typecheck((SyntaxTreeNode) analyzed[0]);
+                }),
+                // code generation reads the names scope analysis binds, the analysis is not measured
+                new Phase("codeGen", input -> {
+                    new ScopeAnalyzer().analyze(new SyntaxTreeBuilder().build(input.parseTree));
+                    return null;
+                }, (input, prepared) -> new CodeGenBasic(ASTBuilder.build(input.parseTree)).generateCode()));
+    }
+
+    // the lowest allocated bytes and nanoseconds of one pass over the corpus
+    private static long[] measure(Phase phase, List<Input> corpus) {
+        long bestBytes = Long.MAX_VALUE;
+        long bestNanos = Long.MAX_VALUE;
+        long thread = Thread.currentThread().threadId();
+
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long bytes = 0;
+            long nanos = 0;
+            for (Input input : corpus) {
+                Object prepared = phase.prepare().apply(input);
+
+                long startBytes = THREADS.getThreadAllocatedBytes(thread);
+                long start = System.nanoTime();
+                sink = phase.run().apply(input, prepared);
+                nanos += System.nanoTime() - start;
+                bytes += THREADS.getThreadAllocatedBytes(thread) - startBytes;
+            }
+            if (round >= WARMUP_ROUNDS) {
+                bestBytes = Math.min(bestBytes, bytes);
+                bestNanos = Math.min(bestNanos, nanos);
+            }
+        }
+
+        return new long[] { bestBytes, bestNanos };
+    }
+
+    private static void check(String phase, long[] result, long[] baseline) {
+        totalTests++;
+        String measured = phase + " (" + result[0] / 1024 + " KB, " + result[1] / 1000 + " us)";
+
+        if (baseline == null) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + measured + ": No baseline, run with --update.");
+            testsFailed++;
+            return;
+        }
+
+        long allowedBytes = (long) (baseline[0] * (1 + ALLOCATION_TOLERANCE)) + ALLOCATION_SLACK;
+        long allowedNanos = (long) (baseline[1] * (1 + TIME_TOLERANCE)) + TIME_SLACK;
+        if (result[0] > allowedBytes) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + measured + ": Allocates more than the baseline of " + baseline[0] / 1024 + " KB.");
+            testsFailed++;
+        } else if (result[1] > allowedNanos) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + measured + ": Slower than the baseline of " + baseline[1] / 1000 + " us.");
+            testsFailed++;
+        } else {
+            System.out.println("\u001B[32m[PASS]\u001B[0m " + measured);
+            testsPassed++;
+        }
+    }
+
+    // one "phase bytes nanoseconds" line per phase, # starts a comment
+    private static Map<String, long[]> readBaseline() throws IOException {
+        Map<String, long[]> baseline = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(Path.of(BASELINE))) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            baseline.put(fields[0], new long[] { Long.parseLong(fields[1]), Long.parseLong(fields[2]) });
+        }
+        return baseline;
+    }
+
+    private static void writeBaseline(Map<String, long[]> results) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# PerformanceTest baseline: phase, bytes allocated and nanoseconds for one pass over the corpus\n");
+        sb.append("# regenerate with: java -cp bin Tests.PerformanceTest --update\n");
+        for (Map.Entry<String, long[]> result : results.entrySet()) {
+            sb.append(result.getKey()).append(' ').append(result.getValue()[0]).append(' ').append(result.getValue()[1]).append('\n');
+        }
+        Path path = Path.of(BASELINE);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, sb.toString());
+    }
+}
@@ -3,11 +3,15 @@ package Tests;
 import Lexer.Lexer;
 import Parser.Parser;
 import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import Interfaces.Token;
 import Utils.FileManager;
-import Utils.XMLGenerator;
 import Interfaces.ParseNode;
-import Utils.SyntaxTreeParser;
+import Utils.SyntaxTreeBuilder;
+import Utils.Scope;
+import Interfaces.TokenType;
+import Interfaces.SymbolTableEntry;
 import Interfaces.SyntaxTreeNode;
 import ScopeAnalyzer.ScopeAnalyzer;
 
@@ -33,6 +37,8 @@ public class ScopeAnalyzerTest {
         runTest("siblingScopesSameName.txt", "Semantic Error: Function 'func1' is already declared in this scope.");
         runTest("callToImmediateChildScope.txt", null);
         runTest("recursiveCallFunction.txt", null);
+        runBindingTest("nearestVariableDeclaration.txt");
+        runScopeStorageTest();
 
         System.out.println("Tests passed: " + testsPassed + "/" + totalTests);
         System.out.println("Tests failed: " + testsFailed + "/" + totalTests);
@@ -73,6 +79,103 @@ public class ScopeAnalyzerTest {
         }
     }
 
+    private static void runBindingTest(String fileName) {
+        String testName = fileName + " (bindings)";
+        totalTests++;
+
+        try {
+            SyntaxTreeNode root = getSyntaxTree(fileName);
+            ScopeAnalyzer analyzer = new ScopeAnalyzer();
+            analyzer.analyze(root);
+
+            // every name is bound to the entry of its nearest declaration: a name inside
+            // a function to one declared in that function, a name in main to a global
+            String failure = null;
+            Deque<SyntaxTreeNode> nodes = new ArrayDeque<>();
+            Deque<Boolean> inFunction = new ArrayDeque<>();
+            nodes.push(root);
+            inFunction.push(false);
+
+            while (!nodes.isEmpty() && failure == null) {
+                SyntaxTreeNode node = nodes.pop();
+                boolean inside = inFunction.pop() || node.symbol == TokenType.DECL;
+
+                if (node.symbol == TokenType.VNAME) {
+                    if (node.entry == null || !node.entry.originalName.equals(node.value)) {
+                        failure = "'" + node.value + "' is not bound to its declaration";
+                    } else if ((node.entry.scopeLevel > 0) != inside) {
+                        failure = "'" + node.value + "' is bound to a declaration in scope level " + node.entry.scopeLevel;
+                    }
+                } else if (node.symbol == TokenType.FNAME
+                        && (node.entry == null || !node.entry.kind.equals("function"))) {
+                    failure = "'" + node.value + "' is not bound to its function";
+                }
+
+                for (SyntaxTreeNode child : node.children) {
+                    nodes.push(child);
+                    inFunction.push(inside);
+                }
+            }
+
+            if (analyzer.getErrors().isEmpty() && failure == null) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": " + analyzer.getErrors() + (failure == null ? "" : failure));
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    private static void runScopeStorageTest() {
+        String testName = "scope storage";
+        totalTests++;
+
+        // function scopes keep their symbols inline and grow past the six variables,
+        // the global scope keeps a map, child scopes are found by name
+        String failure = null;
+        Scope global = new Scope(null, "global", 0);
+        global.addSymbol(new SymbolTableEntry("x", "v1", "num", 0, null, "variable"));
+        for (int i = 0; i < 10000; i++) {
+            global.addSymbol(new SymbolTableEntry("f" + i, "f" + (i + 1), "num", 0, null, "function"));
+            new Scope(global, "f" + i, 1);
+        }
+        Scope function = global.getChildScope("f5000");
+        for (String name : new String[] { "a", "b", "c", "x", "y", "z" }) {
+            function.addSymbol(new SymbolTableEntry(name, "l" + name, "param", 1, null, "variable"));
+        }
+        for (int i = 0; i < 20; i++) {
+            function.addSymbol(new SymbolTableEntry("g" + i, "g" + i, "num", 1, null, "function"));
+        }
+        Scope duplicate = new Scope(global, "f7", 1);
+
+        if (function == null || !function.scopeName.equals("f5000") || function.parent != global) {
+            failure = "child scope not found by name";
+        } else if (!function.lookup("x").uniqueName.equals("lx") || global.lookup("x").uniqueName.equals("lx")) {
+            failure = "a function's variable does not shadow the global";
+        } else if (function.lookup("g19") == null || function.lookup("f42") == null || function.lookup("q") != null) {
+            failure = "lookup through the scope chain";
+        } else if (function.lookupFunction("x") != null || function.lookupFunction("f42") == null) {
+            failure = "lookupFunction finds a variable";
+        } else if (!function.containsInCurrentScope("g0") || function.containsInCurrentScope("f42")) {
+            failure = "containsInCurrentScope";
+        } else if (global.getChildScope("f7") == duplicate || !duplicate.hasSiblingScope("f7") || function.hasSiblingScope("f5000")) {
+            failure = "child scopes of the same name";
+        }
+
+        if (failure == null) {
+            System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+            testsPassed++;
+        } else {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": " + failure);
+            testsFailed++;
+        }
+    }
+
     private static SyntaxTreeNode getSyntaxTree(String fileName) {
         String contents = FileManager.readFileAndReturnContents("src/Tests/TestCases/ScopeAnalyzer/" + fileName);
 
@@ -82,10 +185,7 @@ public class ScopeAnalyzerTest {
         Parser parser = new Parser(tokens);
         ParseNode pt = parser.parse();
 
-        String xml = XMLGenerator.generatePARSERXML(pt);
-        FileManager.createAndWriteFile("src/Tests/TestCases/ScopeAnalyzer/scope.xml", xml);
-
-        SyntaxTreeParser stp = new SyntaxTreeParser();
-        return stp.parse("src/Tests/TestCases/ScopeAnalyzer/scope.xml");
+        SyntaxTreeBuilder stb = new SyntaxTreeBuilder();
+        return stb.build(pt);
     }
 }
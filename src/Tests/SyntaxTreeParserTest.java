@@ -1,12 +1,19 @@
 package Tests;
 
+import Lexer.DFALexer;
+import Parser.Parser;
+import Utils.FileManager;
+import Utils.XMLGenerator;
+import Interfaces.ParseNode;
 import Interfaces.TokenType;
 import Utils.SyntaxTreeParser;
+import Utils.SyntaxTreeBuilder;
 import Interfaces.SyntaxTreeNode;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.BufferedWriter;
+import java.util.Objects;
 
 public class SyntaxTreeParserTest {
 
@@ -22,6 +29,16 @@ public class SyntaxTreeParserTest {
         testMissingElements();
         testUnexpectedTag();
 
+        for (String dir : new String[] { "examples", "src/Tests/TestCases/ScopeAnalyzer", "src/Tests/TestCases/TypeChecker" }) {
+            File[] files = new File(dir).listFiles((d, name) -> name.endsWith(".spl") || name.endsWith(".txt"));
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                testBuilderMatchesXML(file.getPath());
+            }
+        }
+
         System.out.println("Tests passed: " + testsPassed + "/" + totalTests);
         System.out.println("Tests failed: " + testsFailed + "/" + totalTests);
         System.out.println("Total tests: " + totalTests);
@@ -231,6 +248,68 @@ public class SyntaxTreeParserTest {
         }
     }
 
+    /**
+     * Test that lowering the parse tree in memory gives the same tree as the
+     * parser.xml round trip.
+     */
+    public static void testBuilderMatchesXML(String path) {
+        String testName = "testBuilderMatchesXML " + path;
+        totalTests++;
+
+        try {
+            String contents = FileManager.readFileAndReturnContents(path);
+            ParseNode pt;
+            try {
+                pt = new Parser(new DFALexer(contents, path).scanTokens()).parse();
+            } catch (RuntimeException e) {
+                // programs with syntax errors have no tree to compare
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName + ": Not a valid program.");
+                testsPassed++;
+                return;
+            }
+
+            File tempFile = File.createTempFile("syntax_tree_builder_test", ".xml");
+
+            BufferedWriter bw = new BufferedWriter(new FileWriter(tempFile));
+            bw.write(XMLGenerator.generatePARSERXML(pt));
+            bw.close();
+
+            SyntaxTreeNode expected = new SyntaxTreeParser().parse(tempFile.getAbsolutePath());
+            SyntaxTreeNode actual = new SyntaxTreeBuilder().build(pt);
+
+            if (sameTree(expected, actual)) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Trees differ.");
+                testsFailed++;
+            }
+
+            tempFile.delete();
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
+    }
+
+    // Helper method to compare two syntax trees node by node
+    public static boolean sameTree(SyntaxTreeNode a, SyntaxTreeNode b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        if (a.symbol != b.symbol || !Objects.equals(a.id, b.id) || !Objects.equals(a.value, b.value)
+                || a.type != b.type || a.children.size() != b.children.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.children.size(); i++) {
+            if (!sameTree(a.children.get(i), b.children.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     // Helper method to check if a symbol exists in the syntax tree
     public static boolean checkForSymbol(SyntaxTreeNode node, TokenType symbol) {
         if (node.symbol == symbol) {
@@ -2,16 +2,19 @@ package Tests;
 
 import Utils.Scope;
 import Lexer.Lexer;
+import CodeGenBasic.CodeGenBasic;
 import Parser.Parser;
+import Parser.TableParser;
 import java.util.List;
 import Interfaces.Token;
 import Utils.FileManager;
-import Utils.XMLGenerator;
 import Interfaces.ParseNode;
-import Utils.SyntaxTreeParser;
+import Utils.SyntaxTreeBuilder;
 import TypeChecker.TypeChecker;
 import Interfaces.SyntaxTreeNode;
 import ScopeAnalyzer.ScopeAnalyzer;
+import Utils.ProgramGenerator;
+import Utils.ASTBuilder;
 
 public class TypeCheckerTest {
 
@@ -36,6 +39,10 @@ public class TypeCheckerTest {
         runTest("invalidFunctionCall.txt", false, "Type Error: Function arguments must be of type 'num'.");
         runTest("validUnaryOperation.txt", true, null);
         runTest("invalidUnaryOperation.txt", false, "Type Error: Type mismatch in unary operation 'sqrt'");
+        runLongProgramTest(20000);
+        runDeeplyNestedProgramTest(20000);
+        runGeneratedProgramTest();
+        runCodeGenAfterTypeCheckTest();
 
         System.out.println("Tests passed: " + testsPassed + "/" + totalTests);
         System.out.println("Tests failed: " + testsFailed + "/" + totalTests);
@@ -51,11 +58,182 @@ public class TypeCheckerTest {
         Parser parser = new Parser(tokens);
         ParseNode pt = parser.parse();
 
-        String xml = XMLGenerator.generatePARSERXML(pt);
-        FileManager.createAndWriteFile("src/Tests/TestCases/TypeChecker/type.xml", xml);
+        SyntaxTreeBuilder stb = new SyntaxTreeBuilder();
+        return stb.build(pt);
+    }
+
+    private static void runLongProgramTest(int statements) {
+        String testName = "long program (" + statements + " statements)";
+        totalTests++;
+
+        // the lists are as long as the program, nothing may recurse once per element
+        StringBuilder program = new StringBuilder("main num V_x , num V_y , begin\n");
+        for (int i = 0; i < statements; i++) {
+            program.append("V_x = add(V_y, 1) ;\n");
+        }
+        program.append("end\n");
+        for (int i = 0; i < 200; i++) {
+            program.append("num F_f").append(i).append("(V_a, V_b, V_c) { num V_i, num V_j, num V_k, begin return V_a ; end } end\n");
+        }
+
+        try {
+            ParseNode pt = new Parser(new Lexer(program.toString(), "path").scanTokens()).parse();
+            SyntaxTreeNode root = new SyntaxTreeBuilder().build(pt);
+
+            ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+            scopeAnalyzer.analyze(root);
+            TypeChecker typeChecker = new TypeChecker(scopeAnalyzer.getGlobalScope());
+
+            if (scopeAnalyzer.getErrors().isEmpty() && typeChecker.typecheck(root)
+                    && root.children.get(2).children.get(1).flattenList().size() == statements) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": " + scopeAnalyzer.getErrors() + typeChecker.getErrors());
+                testsFailed++;
+            }
+        } catch (Throwable e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": " + e);
+            testsFailed++;
+        }
+    }
+
+    private static void runDeeplyNestedProgramTest(int depth) {
+        String testName = "deeply nested program (" + depth + " branches)";
+        totalTests++;
+
+        // the semantic passes walk the tree with their own stack, the table parser builds it without recursing
+        StringBuilder program = new StringBuilder("main num V_x , begin\n");
+        for (int i = 0; i < depth; i++) {
+            program.append("if eq(V_x, ").append(i).append(") then begin\n");
+        }
+        program.append("V_x = add(V_x, 1) ;\n");
+        for (int i = 0; i < depth; i++) {
+            program.append("end else begin skip ; end ;\n");
+        }
+        program.append("end\n");
+
+        try {
+            SyntaxTreeNode root = new SyntaxTreeBuilder().build(new TableParser(new Lexer(program.toString(), "path").scanTokens()).parseTree());
+
+            ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+            scopeAnalyzer.analyze(root);
+            TypeChecker typeChecker = new TypeChecker(scopeAnalyzer.getGlobalScope());
+
+            if (scopeAnalyzer.getErrors().isEmpty() && typeChecker.typecheck(root)) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": " + scopeAnalyzer.getErrors() + typeChecker.getErrors());
+                testsFailed++;
+            }
+        } catch (Throwable e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": " + e);
+            testsFailed++;
+        }
+    }
+
+    private static void runGeneratedProgramTest() {
+        String testName = "generated programs";
+        totalTests++;
+
+        // valid programs pass every phase, each defect is caught by its own phase
+        StringBuilder failures = new StringBuilder();
+        for (int seed = 0; seed < 20; seed++) {
+            ProgramGenerator generator = new ProgramGenerator(seed);
+            generator.globals = 1 + seed % 5;
+            generator.statements = 1 + seed % 7;
+            generator.functions = seed % 6;
+            generator.nestedFunctions = seed % 3;
+            generator.branchDepth = seed % 4;
+            generator.opDepth = seed % 3;
+            generator.callDensity = (seed % 5) / 4.0;
+
+            String result = firstFailingPhase(generator.generate());
+            if (!result.equals("none")) {
+                failures.append(" seed ").append(seed).append(" valid program fails ").append(result).append(";");
+            }
+
+            for (ProgramGenerator.Defect defect : ProgramGenerator.Defect.values()) {
+                generator.defect = defect;
+                String expected = switch (defect) {
+                    case LEXICAL -> "lexer";
+                    case SYNTAX -> "parser";
+                    case UNDECLARED_VARIABLE, UNDECLARED_FUNCTION -> "scope";
+                    case TYPE_MISMATCH -> "type";
+                };
+                result = firstFailingPhase(generator.generate());
+                if (!result.equals(expected)) {
+                    failures.append(" seed ").append(seed).append(" ").append(defect).append(" fails ").append(result).append(";");
+                }
+            }
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+            testsPassed++;
+        } else {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ":" + failures);
+            testsFailed++;
+        }
+    }
+
+    private static String firstFailingPhase(String program) {
+        List<Token> tokens;
+        try {
+            tokens = new Lexer(program, "path").scanTokens();
+        } catch (RuntimeException e) {
+            return "lexer";
+        }
+        ParseNode pt;
+        try {
+            pt = new Parser(tokens).parse();
+        } catch (RuntimeException e) {
+            return "parser";
+        }
+        SyntaxTreeNode root = new SyntaxTreeBuilder().build(pt);
+
+        ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+        scopeAnalyzer.analyze(root);
+        if (!scopeAnalyzer.getErrors().isEmpty()) {
+            return "scope";
+        }
+        return new TypeChecker(scopeAnalyzer.getGlobalScope()).typecheck(root) ? "none" : "type";
+    }
+
+    private static void runCodeGenAfterTypeCheckTest() {
+        String testName = "code generation is the same before and after type checking";
+        totalTests++;
+
+        // text globals, text locals and number parameters, the type checker must leave their declared types alone
+        String program = "main num V_n , text V_s , begin V_s = \"Hi\" ; V_n = F_f(V_n, 1, 2) ; print V_s ; end\n"
+                + "num F_f(V_a, V_b, V_c) { text V_t, num V_i, num V_j, begin V_t = \"Yo\" ; print V_t ; return V_a ; end } end\n";
+
+        try {
+            ParseNode pt = new Parser(new Lexer(program, "path").scanTokens()).parse();
+            SyntaxTreeNode root = new SyntaxTreeBuilder().build(pt);
+
+            ScopeAnalyzer scopeAnalyzer = new ScopeAnalyzer();
+            scopeAnalyzer.analyze(root);
+            String before = new CodeGenBasic(ASTBuilder.build(pt)).generateCode();
+
+            TypeChecker typeChecker = new TypeChecker(scopeAnalyzer.getGlobalScope());
+            boolean typed = typeChecker.typecheck(root);
+            String after = new CodeGenBasic(ASTBuilder.build(pt)).generateCode();
 
-        SyntaxTreeParser stp = new SyntaxTreeParser();
-        return stp.parse("src/Tests/TestCases/TypeChecker/type.xml");
+            if (typed && before.equals(after) && after.contains("V_s$") && after.contains("V_t$") && !after.contains("V_n$")) {
+                System.out.println("\u001B[32m[PASS]\u001B[0m " + testName);
+                testsPassed++;
+            } else {
+                System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": " + typeChecker.getErrors()
+                        + "\nbefore:\n" + before + "\nafter:\n" + after);
+                testsFailed++;
+            }
+        } catch (Exception e) {
+            System.out.println("\u001B[31m[FAIL]\u001B[0m " + testName + ": Exception occurred.");
+            e.printStackTrace();
+            testsFailed++;
+        }
     }
 
     private static void runTest(String fileName, boolean expectedResult, String expectedError) {
@@ -2,6 +2,7 @@ package TypeChecker;
 
 import java.util.*;
 import Utils.Scope;
+import Utils.SyntaxTreeWalker;
 import Interfaces.TokenType;
 import Interfaces.SyntaxTreeNode;
 import Interfaces.SymbolTableEntry;
@@ -10,11 +11,14 @@ public class TypeChecker {
     private Scope currentScope;
     private SyntaxTreeNode currentFunction;
     private Map<String, Character> typeMap = new HashMap<>();
+    private Map<TokenType, Character> operatorTypes = new EnumMap<>(TokenType.class); // typeMap by symbol, no lower-casing per lookup
     private List<String> errors = new ArrayList<>(); // List to store error messages
+    private final SyntaxTreeWalker walker = new SyntaxTreeWalker();
 
     public TypeChecker(Scope globalScope) {
         this.currentScope = globalScope;
         initializeTypeMap();
+        initializeWalker();
     }
 
     /**
@@ -36,94 +40,44 @@ public class TypeChecker {
         typeMap.put("and", 'b');
         typeMap.put("or", 'b');
         typeMap.put("not", 'b');
-    }
 
-    public boolean typecheck(SyntaxTreeNode node) {
-        if (node == null) {
-            return true;
+        for (TokenType symbol : TokenType.values()) {
+            Character type = typeMap.get(symbol.name().toLowerCase());
+            if (type != null) {
+                operatorTypes.put(symbol, type);
+            }
         }
+    }
 
-        switch (node.symbol) {
-            case PROG:
-                return typecheckProg(node);
-            case GLOBVARS:
-                return typecheckGlobvars(node);
-            case ALGO:
-                return typecheckAlgo(node);
-            case FUNCTIONS:
-                return typecheckFunctions(node);
-            case INSTRUC:
-                return typecheckInstruc(node);
-            case COMMAND:
-                return typecheckCommand(node);
-            case ASSIGN:
-                return typecheckAssign(node);
-            case BRANCH:
-                return typecheckBranch(node);
-            case CALL:
-                return typecheckCall(node);
-            case OP:
-                return typecheckOp(node);
-            case DECL:
-                return typecheckDecl(node);
-            case HEADER:
-                return typecheckHeader(node);
-            case BODY:
-                return typecheckBody(node);
-            case LOCALVARS:
-                return typecheckLocvars(node);
-            case TERM:
-                return typecheckTerm(node);
-            case ATOMIC:
-                return typecheckAtomic(node);
-            case COND:
-                return typecheckCond(node);
-            case BINOPSIMPLE:
-                return typecheckBinopSimple(node);
-            case BINOPCOMPOSITE:
-                return typecheckBinopComposit(node);
-            case UNOPSIMPLE:
-                return typecheckUnopSimple(node);
-            case ARG:
-                return typecheckArg(node);
-            case VNAME:
-                return typecheckVariable(node); // Handle variable usage
-            default:
-                // Recursively typecheck all children
-                boolean result = true;
-                for (SyntaxTreeNode child : node.children) {
-                    result &= typecheck(child);
-                }
-                return result;
-        }
+    public boolean typecheck(SyntaxTreeNode node) {
+        return walker.walk(node);
     }
 
     /**
-     * Type checks the PROG node.
+     * Registers the checks with the walker. Each node is checked when it is
+     * exited, after its children, so the types of the children are known.
+     * Nodes whose children are checked differently, or not at all, say so when
+     * they are entered. Nodes without a check are valid when their children
+     * are.
      */
-    private boolean typecheckProg(SyntaxTreeNode node) {
-        boolean globvarsCheck = true;
-        boolean algoCheck = true;
-        boolean functionsCheck = true;
-
-        // Iterate over the children of PROG
-        for (SyntaxTreeNode child : node.children) {
-            switch (child.symbol) {
-                case GLOBVARS:
-                    globvarsCheck &= typecheck(child);
-                    break;
-                case ALGO:
-                    algoCheck &= typecheck(child);
-                    break;
-                case FUNCTIONS:
-                    functionsCheck &= typecheck(child);
-                    break;
-                default:
-                    break;
-            }
-        }
-
-        return globvarsCheck && algoCheck && functionsCheck;
+    private void initializeWalker() {
+        walker.onEnter(TokenType.GLOBVARS, node -> false).onExit(TokenType.GLOBVARS, this::typecheckGlobvars)
+                .onEnter(TokenType.COMMAND, this::enterCommand).onExit(TokenType.COMMAND, this::typecheckCommand)
+                .onExit(TokenType.ASSIGN, this::typecheckAssign)
+                .onExit(TokenType.BRANCH, this::typecheckBranch)
+                .onEnter(TokenType.CALL, this::enterCall).onExit(TokenType.CALL, this::typecheckCall)
+                .onEnter(TokenType.OP, this::enterOp).onExit(TokenType.OP, this::typecheckOp)
+                .onEnter(TokenType.DECL, this::enterDecl).onExit(TokenType.DECL, this::typecheckDecl)
+                .onEnter(TokenType.HEADER, node -> false).onExit(TokenType.HEADER, this::typecheckHeader)
+                .onEnter(TokenType.LOCALVARS, node -> false).onExit(TokenType.LOCALVARS, this::typecheckLocvars)
+                .onExit(TokenType.TERM, node -> typecheckWrapper(node, "TERM"))
+                .onExit(TokenType.ATOMIC, node -> typecheckWrapper(node, "ATOMIC"))
+                .onExit(TokenType.ARG, node -> typecheckWrapper(node, "ARG"))
+                .onExit(TokenType.COND, this::typecheckCond)
+                .onExit(TokenType.BINOPSIMPLE, node -> typecheckWrapper(node, "BINOPSIMPLE"))
+                .onEnter(TokenType.BINOPCOMPOSITE, this::enterBinopComposit).onExit(TokenType.BINOPCOMPOSITE, this::typecheckBinopComposit)
+                .onEnter(TokenType.UNOPSIMPLE, this::enterUnopSimple).onExit(TokenType.UNOPSIMPLE, this::typecheckUnopSimple)
+                .onExit(TokenType.VNAME, this::typecheckVariable); // Handle variable usage
     }
 
     private boolean typecheckGlobvars(SyntaxTreeNode node) {
@@ -134,20 +88,19 @@ public class TypeChecker {
 
         boolean result = true;
 
-        for (SyntaxTreeNode child : node.children) {
-            switch (child.symbol) {
-                case NUM:
-                case TEXT:
-                    // Process the variable declaration
-                    result &= processVariableDeclaration(child, node);
-                    break;
-                case GLOBVARS:
-                    // Recursively handle nested GLOBVARS
-                    result &= typecheckGlobvars(child);
-                    break;
-                default:
-                    // Skip other tokens like COMMA, SEMICOLON, etc.
-                    break;
+        // Walk the nested GLOBVARS links in order
+        for (SyntaxTreeNode link : node.flattenList()) {
+            for (SyntaxTreeNode child : link.children) {
+                switch (child.symbol) {
+                    case NUM:
+                    case TEXT:
+                        // Process the variable declaration
+                        result &= processVariableDeclaration(child, link);
+                        break;
+                    default:
+                        // Skip other tokens like COMMA, SEMICOLON, etc.
+                        break;
+                }
             }
         }
 
@@ -177,11 +130,10 @@ public class TypeChecker {
             varName = varName.substring(2);
         }
 
-        // Update the type in the symbol table
-        SymbolTableEntry entry = currentScope.lookup(varName);
+        // The declared type is in the symbol table already
+        SymbolTableEntry entry = lookup(currentScope, nameNode, varName);
         if (entry != null) {
-            entry.type = String.valueOf(typeMap.getOrDefault(varType, 'u'));
-            nameNode.type = entry.type.charAt(0);
+            nameNode.type = typeMap.getOrDefault(varType, 'u');
         } else {
             reportError("Variable '" + varName + "' is not declared in the current scope.");
             return false;
@@ -190,76 +142,54 @@ public class TypeChecker {
         return true;
     }
 
-    /**
-     * Type checks the ALGO node (main algorithm).
-     */
-    private boolean typecheckAlgo(SyntaxTreeNode node) {
-        // Type check the INSTRUC node inside ALGO
-        return typecheck(node.children.get(1)); // INSTRUC
-    }
-
-    /**
-     * Type checks function declarations.
-     */
-    private boolean typecheckFunctions(SyntaxTreeNode node) {
-        if (node.children.isEmpty()) {
-            // Base case: no more functions
-            return true;
-        }
-
-        boolean declCheck = typecheck(node.children.get(0)); // Type check DECL
-        boolean restCheck = true;
-
-        // Recursively type check the rest of the functions
-        if (node.children.size() > 1) {
-            restCheck = typecheck(node.children.get(1));
-        }
-
-        return declCheck && restCheck;
-    }
-
-    private boolean typecheckInstruc(SyntaxTreeNode node) {
-        if (node.children.isEmpty()) {
-            // Base case: no more instructions
-            return true;
-        }
-
-        boolean commandCheck = typecheck(node.children.get(0)); // Type check COMMAND
-        boolean restCheck = true;
+    // Commands that fail before their child is checked, the state is 1 when they did
+    private boolean enterCommand(SyntaxTreeNode node) {
+        TokenType commandType = node.children.get(0).symbol;
 
-        // Recursively type check the rest of the instructions
-        if (node.children.size() > 2) {
-            restCheck = typecheck(node.children.get(2));
+        switch (commandType) {
+            case SKIP:
+            case HALT:
+            case PRINT:
+            case ASSIGN:
+            case CALL:
+            case BRANCH:
+                return true;
+            case RETURN:
+                if (currentFunction == null) {
+                    reportError("Return statement outside of a function");
+                } else if (returnType(currentFunction) == null) {
+                    reportError("Function declaration is missing return type.");
+                } else {
+                    return true;
+                }
+                break;
+            default:
+                reportError("Unknown command type: " + commandType);
+                break;
         }
 
-        return commandCheck && restCheck;
+        walker.setState(1);
+        return false;
     }
 
     private boolean typecheckCommand(SyntaxTreeNode node) {
-        TokenType commandType = node.children.get(0).symbol;
+        if (walker.state() == 1) {
+            return false;
+        }
 
-        switch (commandType) {
-            case SKIP:
-            case HALT:
-                return true; // Skip and halt are always valid
+        switch (node.children.get(0).symbol) {
             case PRINT:
                 return typecheckPrint(node.children.get(1));
             case RETURN:
                 return typecheckReturn(node.children.get(1));
-            case ASSIGN:
-                return typecheckAssign(node.children.get(0));
-            case CALL:
-                return typecheckCall(node.children.get(0));
-            case BRANCH:
-                return typecheckBranch(node.children.get(0));
             default:
-                reportError("Unknown command type: " + commandType);
-                return false;
+                // Skip and halt are always valid, assignments, calls and branches were checked
+                return walker.childrenResult();
         }
     }
 
     private boolean typecheckPrint(SyntaxTreeNode atomic) {
-        boolean result = typecheck(atomic);
+        boolean result = walker.childrenResult();
         char type = typeof(atomic);
         if (result && (type == 'n' || type == 't')) {
             return true;
@@ -269,29 +199,28 @@ public class TypeChecker {
         }
     }
 
-    private boolean typecheckBranch(SyntaxTreeNode node) {
-        SyntaxTreeNode condNode = node.children.get(1); // Condition
-        SyntaxTreeNode algo1Node = node.children.get(3); // Then block
-        SyntaxTreeNode algo2Node = node.children.get(5); // Else block
-
-        boolean condCheck = typecheck(condNode);
-        char condType = typeof(condNode);
+    private boolean typecheckCond(SyntaxTreeNode node) {
+        boolean result = typecheckWrapper(node, "COND");
 
-        if (!condCheck || condType != 'b') {
+        // The then and else blocks of a branch are only checked under a boolean condition
+        if (!result || typeof(node) != 'b') {
             reportError("Condition in if statement must be boolean");
-            return false;
+            walker.skipSiblings();
         }
 
-        boolean thenCheck = typecheck(algo1Node);
-        boolean elseCheck = typecheck(algo2Node);
+        return result;
+    }
 
-        return thenCheck && elseCheck;
+    private boolean typecheckBranch(SyntaxTreeNode node) {
+        // Then and else block results, or the failed condition's
+        return walker.childrenResult() && node.children.get(1).type == 'b';
     }
 
     /**
-     * Type checks function declarations (DECL).
+     * Enters a function declaration (DECL) and its scope, the state is 1 when
+     * it did.
      */
-    private boolean typecheckDecl(SyntaxTreeNode node) {
+    private boolean enterDecl(SyntaxTreeNode node) {
         // Retrieve the function name
         SyntaxTreeNode headerNode = node.children.get(0);
         SyntaxTreeNode fnameNode = null;
@@ -309,7 +238,7 @@ public class TypeChecker {
         }
 
         // Enter the function's scope
-        SymbolTableEntry funcEntry = currentScope.lookup(fnameNode.value);
+        SymbolTableEntry funcEntry = lookup(currentScope, fnameNode, fnameNode.value);
         if (funcEntry == null) {
             reportError("Function '" + fnameNode.value + "' is not declared in the symbol table.");
             return false;
@@ -323,16 +252,23 @@ public class TypeChecker {
         }
 
         currentFunction = node; // Set the current function context
+        walker.setState(1);
 
-        boolean headerCheck = typecheck(headerNode); // HEADER
-        boolean bodyCheck = typecheck(node.children.get(1)); // BODY
+        // HEADER and BODY are checked next
+        return true;
+    }
+
+    private boolean typecheckDecl(SyntaxTreeNode node) {
+        if (walker.state() != 1) {
+            return false;
+        }
 
         currentFunction = null; // Reset the function context
 
         // Exit the function's scope
         currentScope = currentScope.parent;
 
-        return headerCheck && bodyCheck;
+        return walker.childrenResult();
     }
 
     /**
@@ -369,20 +305,13 @@ public class TypeChecker {
             return false;
         }
 
-        char returnType = typeof(ftypNode);
-
-        // Update the function's type in the symbol table
-        SymbolTableEntry funcEntry = currentScope.parent.lookup(fnameNode.value);
-        if (funcEntry != null) {
-            funcEntry.type = String.valueOf(returnType);
-        }
+        typeof(ftypNode);
 
-        // All parameters are assumed to be of type 'n' (num)
+        // All parameters are assumed to be of type 'n' (num), as their symbol table entries say
         for (SyntaxTreeNode param : params) {
             // Parameters should be in the current function's scope
-            SymbolTableEntry paramEntry = currentScope.lookup(param.value);
+            SymbolTableEntry paramEntry = lookup(currentScope, param, param.value);
             if (paramEntry != null) {
-                paramEntry.type = "n"; // Set parameter type to 'n'
                 param.type = 'n'; // Update the node's type
             } else {
                 reportError("Parameter '" + param.value + "' is not declared in function scope.");
@@ -394,96 +323,45 @@ public class TypeChecker {
     }
 
     /**
-     * Type checks function bodies.
-     */
-    private boolean typecheckBody(SyntaxTreeNode node) {
-        // Body consists of PROLOG, LOCVARS, ALGO, EPILOG, SUBFUNCS
-        boolean prologCheck = typecheck(node.children.get(0));
-        boolean locvarsCheck = typecheck(node.children.get(1));
-        boolean algoCheck = typecheck(node.children.get(2));
-        boolean epilogCheck = typecheck(node.children.get(3));
-        boolean subfuncsCheck = typecheck(node.children.get(4));
-
-        return prologCheck && locvarsCheck && algoCheck && epilogCheck && subfuncsCheck;
-    }
-
-    /**
-     * Type checks local variable declarations.
+     * Type checks local variable declarations. Scope analysis put their
+     * declared types in the symbol table already.
      */
     private boolean typecheckLocvars(SyntaxTreeNode node) {
-        if (node.children.isEmpty()) {
-            return true;
-        }
-
-        List<SyntaxTreeNode> declarations = node.children;
-
-        // Process the variable declarations
-        for (int i = 0; i < declarations.size(); i += 3) {
-            SyntaxTreeNode vtypNode = declarations.get(i); // Type node
-            SyntaxTreeNode vnameNode = declarations.get(i + 1); // Variable name node
-
-            char type = typeMap.getOrDefault(vtypNode.value, 'u');
-            String varName = vnameNode.value;
-
-            // Update the type in the symbol table
-            SymbolTableEntry entry = currentScope.lookup(varName);
-            if (entry != null) {
-                entry.type = String.valueOf(type);
-            }
-        }
-
         return true;
     }
 
     /**
-     * Type checks terms (TERM nodes).
+     * Type checks TERM, ATOMIC, ARG, COND and BINOPSIMPLE nodes, which take
+     * the type of their only child.
      */
-    private boolean typecheckTerm(SyntaxTreeNode node) {
+    private boolean typecheckWrapper(SyntaxTreeNode node, String name) {
         if (node.children.isEmpty()) {
-            reportError("Empty TERM node");
+            reportError("Empty " + name + " node");
             return false;
         }
 
-        SyntaxTreeNode child = node.children.get(0); // Can be ATOMIC, CALL, or OP
-        boolean result = typecheck(child);
+        SyntaxTreeNode child = node.children.get(0);
+        boolean result = walker.childrenResult();
         node.type = typeof(child);
-        return result;
+        return typecheckArgument(node, result);
     }
 
-    private boolean typecheckAtomic(SyntaxTreeNode node) {
+    // Unknown operators fail before their arguments are checked, the state is the operator's type
+    private boolean enterOp(SyntaxTreeNode node) {
         if (node.children.isEmpty()) {
-            reportError("Empty ATOMIC node");
             return false;
         }
 
-        SyntaxTreeNode child = node.children.get(0); // VNAME or CONST
-        boolean result = typecheck(child);
-        node.type = typeof(child);
-        return result;
-    }
-
-    private boolean typecheckArg(SyntaxTreeNode node) {
-        if (node.children.isEmpty()) {
-            reportError("Empty ARG node");
-            return false;
-        }
-
-        SyntaxTreeNode child = node.children.get(0); // ATOMIC, OP, or another ARG
-        boolean result = typecheck(child);
-        node.type = typeof(child);
-        return result;
-    }
+        String operator = node.children.get(0).value.toLowerCase();
+        char operatorType = typeMap.getOrDefault(operator, 'u');
+        walker.setState(operatorType);
 
-    private boolean typecheckCond(SyntaxTreeNode node) {
-        if (node.children.isEmpty()) {
-            reportError("Empty COND node");
+        if (operatorType == 'u') {
+            reportError("Unknown operator: " + operator);
+            node.type = 'u';
             return false;
         }
-
-        SyntaxTreeNode child = node.children.get(0); // Could be BINOPSIMPLE, BINOPCOMPOSIT, etc.
-        boolean result = typecheck(child);
-        node.type = typeof(child);
-        return result;
+        return true;
     }
 
     private boolean typecheckOp(SyntaxTreeNode node) {
@@ -492,23 +370,18 @@ public class TypeChecker {
             return false;
         }
 
-        SyntaxTreeNode operatorNode = node.children.get(0); // Operator node
-        String operator = operatorNode.value.toLowerCase();
-
-        char operatorType = typeMap.getOrDefault(operator, 'u');
-
+        char operatorType = (char) walker.state();
         if (operatorType == 'u') {
-            reportError("Unknown operator: " + operator);
-            node.type = 'u';
             return false;
         }
 
-        boolean isUnary = operator.equals("not") || operator.equals("sqrt");
+        String operator = node.children.get(0).value;
+        boolean isUnary = operator.equalsIgnoreCase("not") || operator.equalsIgnoreCase("sqrt");
 
         if (isUnary) {
             // Unary operator
             SyntaxTreeNode argNode = node.children.get(2); // Argument node
-            boolean argCheck = typecheck(argNode);
+            boolean argCheck = walker.childrenResult();
             char argType = typeof(argNode);
 
             if (!argCheck) {
@@ -520,7 +393,7 @@ public class TypeChecker {
                 node.type = operatorType;
                 return true;
             } else {
-                reportError("Type mismatch in unary operation '" + operator + "'");
+                reportError("Type mismatch in unary operation '" + operator.toLowerCase() + "'");
                 node.type = 'u';
                 return false;
             }
@@ -529,12 +402,11 @@ public class TypeChecker {
             SyntaxTreeNode arg1Node = node.children.get(2); // First argument
             SyntaxTreeNode arg2Node = node.children.get(4); // Second argument
 
-            boolean arg1Check = typecheck(arg1Node);
-            boolean arg2Check = typecheck(arg2Node);
+            boolean argsCheck = walker.childrenResult();
             char arg1Type = typeof(arg1Node);
             char arg2Type = typeof(arg2Node);
 
-            if (!arg1Check || !arg2Check) {
+            if (!argsCheck) {
                 node.type = 'u';
                 return false;
             }
@@ -549,26 +421,27 @@ public class TypeChecker {
                 node.type = 'b'; // Comparison operators return boolean
                 return true;
             } else {
-                reportError("Type mismatch in binary operation '" + operator + "'");
+                reportError("Type mismatch in binary operation '" + operator.toLowerCase() + "'");
                 node.type = 'u';
                 return false;
             }
         }
     }
 
-    /**
-     * Type checks a BINOPSIMPLE node.
-     */
-    private boolean typecheckBinopSimple(SyntaxTreeNode node) {
-        if (node.children.isEmpty()) {
-            reportError("Empty BINOPSIMPLE node");
+    // Malformed nodes and unknown operators fail before their arguments are checked
+    private boolean enterBinopComposit(SyntaxTreeNode node) {
+        if (node.children.size() < 6) {
             return false;
         }
 
-        SyntaxTreeNode child = node.children.get(0); // Could be ATOMIC or another expression
-        boolean result = typecheck(child);
-        node.type = typeof(child);
-        return result;
+        String operator = node.children.get(0).symbol.name().toLowerCase();
+        if (typeMap.getOrDefault(operator, 'u') == 'u') {
+            reportError("Unknown operator: " + operator);
+            node.type = 'u';
+            walker.setState(1);
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -579,24 +452,21 @@ public class TypeChecker {
             reportError("Invalid BINOPCOMPOSIT node structure");
             return false;
         }
+        if (walker.state() == 1) {
+            return false;
+        }
 
         SyntaxTreeNode operatorNode = node.children.get(0); // Operator node (ADD, SUB, MUL, DIV, EQ, GRT, etc.)
         String operator = operatorNode.symbol.name().toLowerCase();
 
         char operatorType = typeMap.getOrDefault(operator, 'u');
 
-        if (operatorType == 'u') {
-            reportError("Unknown operator: " + operator);
-            node.type = 'u';
-            return false;
-        }
-
         boolean isUnary = operator.equals("not") || operator.equals("sqrt");
 
         if (isUnary) {
             // Unary operator
             SyntaxTreeNode argNode = node.children.get(2); // Argument node
-            boolean argCheck = typecheck(argNode);
+            boolean argCheck = walker.childrenResult();
             char argType = typeof(argNode);
 
             if ((operatorType == 'n' && argType == 'n') || (operatorType == 'b' && argType == 'b')) {
@@ -612,20 +482,19 @@ public class TypeChecker {
             SyntaxTreeNode arg1Node = node.children.get(2); // First argument
             SyntaxTreeNode arg2Node = node.children.get(4); // Second argument
 
-            boolean arg1Check = typecheck(arg1Node);
-            boolean arg2Check = typecheck(arg2Node);
+            boolean argsCheck = walker.childrenResult();
             char arg1Type = typeof(arg1Node);
             char arg2Type = typeof(arg2Node);
 
             if (operatorType == 'n' && arg1Type == 'n' && arg2Type == 'n') {
                 node.type = 'n';
-                return arg1Check && arg2Check;
+                return argsCheck;
             } else if (operatorType == 'b' && arg1Type == 'b' && arg2Type == 'b') {
                 node.type = 'b';
-                return arg1Check && arg2Check;
+                return argsCheck;
             } else if (operatorType == 'c' && arg1Type == 'n' && arg2Type == 'n') {
                 node.type = 'b'; // Comparison operators return boolean
-                return arg1Check && arg2Check;
+                return argsCheck;
             } else {
                 reportError("Type mismatch in binary operation");
                 node.type = 'u';
@@ -634,6 +503,22 @@ public class TypeChecker {
         }
     }
 
+    // Malformed nodes and unknown operators fail before their argument is checked
+    private boolean enterUnopSimple(SyntaxTreeNode node) {
+        if (node.children.size() < 4) {
+            return false;
+        }
+
+        String operator = node.children.get(0).symbol.name().toLowerCase();
+        if (typeMap.getOrDefault(operator, 'u') == 'u') {
+            reportError("Unknown operator: " + operator);
+            node.type = 'u';
+            walker.setState(1);
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Type checks a UNOPSIMPLE node.
      */
@@ -642,20 +527,14 @@ public class TypeChecker {
             reportError("Invalid UNOPSIMPLE node structure");
             return false;
         }
-
-        SyntaxTreeNode operatorNode = node.children.get(0); // Operator node (NOT, SQRT, etc.)
-        String operator = operatorNode.symbol.name().toLowerCase();
-
-        char operatorType = typeMap.getOrDefault(operator, 'u');
-
-        if (operatorType == 'u') {
-            reportError("Unknown operator: " + operator);
-            node.type = 'u';
+        if (walker.state() == 1) {
             return false;
         }
 
+        char operatorType = typeMap.getOrDefault(node.children.get(0).symbol.name().toLowerCase(), 'u');
+
         SyntaxTreeNode argNode = node.children.get(2); // Argument node
-        boolean argCheck = typecheck(argNode);
+        boolean argCheck = walker.childrenResult();
         char argType = typeof(argNode);
 
         if ((operatorType == 'n' && argType == 'n') || (operatorType == 'b' && argType == 'b')) {
@@ -672,13 +551,14 @@ public class TypeChecker {
         SyntaxTreeNode vnameNode = node.children.get(0); // Variable name
         SyntaxTreeNode rhsNode = node.children.get(2); // Right-hand side
 
-        boolean vnameCheck = typecheck(vnameNode);
-        char vnameType = typeof(vnameNode);
+        // typecheckVariable already looked up the variable's type
+        char vnameType = vnameNode.type;
+        boolean checks = walker.childrenResult();
 
         if (rhsNode.symbol == TokenType.INPUT) {
             // VNAME < input
-            if (!vnameCheck) {
-                // Error already reported in typecheck(vnameNode)
+            if (!checks) {
+                // Error already reported in typecheckVariable
                 return false;
             }
             if (vnameType == 'n') {
@@ -689,11 +569,10 @@ public class TypeChecker {
             }
         } else {
             // VNAME = TERM
-            boolean termCheck = typecheck(rhsNode);
             char termType = typeof(rhsNode);
 
-            if (!vnameCheck || !termCheck) {
-                // Errors already reported in typecheck(vnameNode) or typecheck(rhsNode)
+            if (!checks) {
+                // Errors already reported for the variable or the term
                 return false;
             }
 
@@ -705,81 +584,70 @@ public class TypeChecker {
         }
     }
 
-    private boolean typecheckCall(SyntaxTreeNode node) {
+    // Calls of unknown functions fail before their arguments are checked, the state is 1 when they did
+    private boolean enterCall(SyntaxTreeNode node) {
         SyntaxTreeNode fnameNode = null;
-        List<SyntaxTreeNode> args = new ArrayList<>();
 
-        // Iterate over the CALL node's children
-        List<SyntaxTreeNode> children = node.children;
-        for (SyntaxTreeNode child : children) {
-            switch (child.symbol) {
-                case FNAME:
-                    fnameNode = child;
-                    break;
-                case VNAME:
-                case ATOMIC:
-                case TERM:
-                    args.add(child);
-                    break;
-                default:
-                    // Skip tokens like LEFT_PAREN, COMMA, RIGHT_PAREN
-                    break;
+        for (SyntaxTreeNode child : node.children) {
+            if (child.symbol == TokenType.FNAME) {
+                fnameNode = child;
+                break;
             }
         }
 
         if (fnameNode == null) {
             reportError("Function call is missing function name.");
-            node.type = 'u';
-            return false;
+        } else if (lookupFunction(fnameNode) == null) {
+            // Look up the function in the symbol table
+            reportError("Function '" + fnameNode.value + "' is not declared.");
+        } else {
+            // The arguments are checked next
+            return true;
         }
 
-        // Look up the function in the symbol table
-        SymbolTableEntry funcEntry = currentScope.lookupFunction(fnameNode.value);
-        if (funcEntry == null) {
-            reportError("Function '" + fnameNode.value + "' is not declared.");
+        node.type = 'u';
+        walker.setState(1);
+        return false;
+    }
+
+    private boolean typecheckCall(SyntaxTreeNode node) {
+        if (walker.state() == 1 || !walker.childrenResult()) {
             node.type = 'u';
             return false;
         }
 
-        char functionType = funcEntry.type.charAt(0);
-
-        // Type-check each argument
-        for (SyntaxTreeNode arg : args) {
-            boolean argCheck = typecheck(arg);
-            if (!argCheck || typeof(arg) != 'n') {
-                reportError("Function arguments must be of type 'num'.");
-                node.type = 'u';
-                return false;
+        for (SyntaxTreeNode child : node.children) {
+            if (child.symbol == TokenType.FNAME) {
+                node.type = typeCode(lookupFunction(child));
+                break;
             }
         }
-
-        node.type = functionType;
         return true;
     }
 
-    private boolean typecheckReturn(SyntaxTreeNode atomic) {
-        if (currentFunction == null) {
-            reportError("Return statement outside of a function");
-            return false;
-        }
-
-        SyntaxTreeNode headerNode = currentFunction.children.get(0);
-        SyntaxTreeNode ftypNode = null;
-
-        // Find the function return type in the HEADER node
-        for (SyntaxTreeNode child : headerNode.children) {
-            if (child.symbol == TokenType.NUM || child.symbol == TokenType.TEXT || child.symbol == TokenType.FVOID) {
-                ftypNode = child;
-                break;
-            }
+    /**
+     * Checks a node as an argument when its parent is a CALL. The first
+     * argument that is not a num fails the call, the ones after it are not
+     * checked.
+     */
+    private boolean typecheckArgument(SyntaxTreeNode node, boolean result) {
+        SyntaxTreeNode parent = walker.parent();
+        if (parent == null || parent.symbol != TokenType.CALL) {
+            return result;
         }
 
-        if (ftypNode == null) {
-            reportError("Function declaration is missing return type.");
+        if (!result || typeof(node) != 'n') {
+            reportError("Function arguments must be of type 'num'.");
+            walker.skipSiblings();
             return false;
         }
+        return true;
+    }
 
-        boolean atomicCheck = typecheck(atomic);
+    private boolean typecheckReturn(SyntaxTreeNode atomic) {
+        SyntaxTreeNode ftypNode = returnType(currentFunction);
+
+        boolean atomicCheck = walker.childrenResult();
 
         char functionReturnType = typeof(ftypNode);
         char returnType = typeof(atomic);
@@ -796,22 +664,55 @@ public class TypeChecker {
         }
     }
 
+    // The function return type in the HEADER node of a DECL
+    private SyntaxTreeNode returnType(SyntaxTreeNode function) {
+        for (SyntaxTreeNode child : function.children.get(0).children) {
+            if (child.symbol == TokenType.NUM || child.symbol == TokenType.TEXT || child.symbol == TokenType.FVOID) {
+                return child;
+            }
+        }
+        return null;
+    }
+
     /**
      * Type checks variable usage.
      */
     private boolean typecheckVariable(SyntaxTreeNode node) {
         // Look up the variable in the symbol table starting from the current scope
-        SymbolTableEntry entry = currentScope.lookup(node.value);
+        SymbolTableEntry entry = lookup(currentScope, node, node.value);
         if (entry == null) {
             reportError("Variable '" + node.value + "' is not declared in the current scope or any parent scope.");
             node.type = 'u';
-            return false;
+
+            // An assignment looks its variable's type up before checking the right-hand side
+            SyntaxTreeNode parent = walker.parent();
+            if (parent != null && parent.symbol == TokenType.ASSIGN) {
+                typeof(node);
+            }
+            return typecheckArgument(node, false);
         } else {
-            node.type = entry.type.charAt(0);
-            return true;
+            node.type = typeCode(entry);
+            return typecheckArgument(node, true);
         }
     }
 
+    /**
+     * The entry scope analysis bound to a VNAME or FNAME node. Only a node it
+     * did not bind, one that failed its checks, is looked up by name.
+     */
+    private SymbolTableEntry lookup(Scope scope, SyntaxTreeNode node, String name) {
+        return node.entry != null ? node.entry : scope.lookup(name);
+    }
+
+    private SymbolTableEntry lookupFunction(SyntaxTreeNode fnameNode) {
+        return fnameNode.entry != null ? fnameNode.entry : currentScope.lookupFunction(fnameNode.value);
+    }
+
+    // the type letter of a declared name
+    private static char typeCode(SymbolTableEntry entry) {
+        return entry.valueType == null ? 'u' : entry.valueType.code;
+    }
+
     private char typeof(SyntaxTreeNode node) {
         if (node == null) {
             return 'u';
@@ -824,9 +725,9 @@ public class TypeChecker {
 
         switch (node.symbol) {
             case VNAME:
-                SymbolTableEntry entry = currentScope.lookup(node.value);
+                SymbolTableEntry entry = lookup(currentScope, node, node.value);
                 if (entry != null) {
-                    node.type = entry.type.charAt(0);
+                    node.type = typeCode(entry);
                     return node.type;
                 } else {
                     reportError("Variable '" + node.value + "' is not declared");
@@ -846,8 +747,7 @@ public class TypeChecker {
                 return node.type;
             default:
                 if (isOperatorNode(node)) {
-                    String operator = node.symbol.name().toLowerCase();
-                    char opType = typeMap.getOrDefault(operator, 'u');
+                    char opType = operatorTypes.get(node.symbol);
                     if (opType == 'c') {
                         return 'c'; // Comparison operator
                     } else {
@@ -865,7 +765,7 @@ public class TypeChecker {
      * Helper method to check if a node is an operator node.
      */
     private boolean isOperatorNode(SyntaxTreeNode node) {
-        return typeMap.containsKey(node.symbol.name().toLowerCase());
+        return operatorTypes.containsKey(node.symbol);
     }
 
     private void reportError(String message) {
@@ -0,0 +1,176 @@
+package Utils;
+
+import Interfaces.AST;
+import Interfaces.ParseNode;
+import Interfaces.ParseTree;
+import Interfaces.Token;
+import Interfaces.TokenType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lowers the compact parse tree into the typed {@link AST}. The positional
+ * child indexes of the grammar are only known here, the later phases read
+ * named record fields instead.
+ */
+public class ASTBuilder {
+    private final ParseTree pt;
+
+    public ASTBuilder(ParseTree pt) {
+        this.pt = pt;
+    }
+
+    public static AST.Prog build(ParseTree pt) {
+        return new ASTBuilder(pt).prog(pt.root());
+    }
+
+    public static AST.Prog build(ParseNode pt) {
+        return build(ParseTree.of(pt));
+    }
+
+    // PROG := main GLOBVARS ALGO FUNCTIONS
+    private AST.Prog prog(int node) {
+        return new AST.Prog(varDecls(pt.child(node, 1)), algo(pt.child(node, 2)), functions(pt.child(node, 3)));
+    }
+
+    // GLOBVARS := VTYPE VNAME , GLOBVARS
+    private List<AST.VarDecl> varDecls(int node) {
+        List<AST.VarDecl> decls = new ArrayList<>();
+        for (int link : pt.flattenList(node)) {
+            int vtype = pt.firstChild(link);
+            decls.add(new AST.VarDecl(pt.kind(vtype), pt.token(pt.nextSibling(vtype))));
+        }
+        return decls;
+    }
+
+    // ALGO := begin INSTRUC end
+    private AST.Algo algo(int node) {
+        List<AST.Command> instructions = new ArrayList<>();
+        for (int link : pt.flattenList(pt.child(node, 1))) {
+            instructions.add(command(pt.firstChild(link)));
+        }
+        return new AST.Algo(instructions);
+    }
+
+    // FUNCTIONS := DECL FUNCTIONS
+    private List<AST.Decl> functions(int node) {
+        List<AST.Decl> decls = new ArrayList<>();
+        for (int link : pt.flattenList(node)) {
+            int decl = pt.firstChild(link);
+            decls.add(new AST.Decl(header(pt.child(decl, 0)), body(pt.child(decl, 1))));
+        }
+        return decls;
+    }
+
+    // HEADER := FTYPE FNAME ( VNAME , VNAME , VNAME )
+    private AST.Header header(int node) {
+        List<Token> params = List.of(pt.token(pt.child(node, 3)), pt.token(pt.child(node, 5)), pt.token(pt.child(node, 7)));
+        return new AST.Header(pt.kind(pt.child(node, 0)), pt.token(pt.child(node, 1)), params);
+    }
+
+    // BODY := { LOCALVARS ALGO } FUNCTIONS end, FUNCTIONS is left out when there are none
+    private AST.Body body(int node) {
+        int subfunctions = pt.child(node, 4);
+        List<AST.Decl> functions = pt.isTerminal(subfunctions) ? List.of() : functions(subfunctions);
+        return new AST.Body(localVars(pt.child(node, 1)), algo(pt.child(node, 2)), functions);
+    }
+
+    // LOCALVARS := VTYPE VNAME , VTYPE VNAME , VTYPE VNAME ,
+    private List<AST.VarDecl> localVars(int node) {
+        List<AST.VarDecl> decls = new ArrayList<>();
+        for (int i = 0; i < 9; i += 3) {
+            decls.add(new AST.VarDecl(pt.kind(pt.child(node, i)), pt.token(pt.child(node, i + 1))));
+        }
+        return decls;
+    }
+
+    // COMMAND := skip | halt | print ATOMIC | return ATOMIC | ASSIGN | CALL | BRANCH
+    private AST.Command command(int node) {
+        int first = pt.firstChild(node);
+        return switch (pt.kind(first)) {
+            case SKIP -> new AST.Skip();
+            case HALT -> new AST.Halt();
+            case PRINT -> new AST.Print(atomic(pt.nextSibling(first)));
+            case RETURN -> new AST.Return(atomic(pt.nextSibling(first)));
+            case ASSIGN -> assign(first);
+            case CALL -> call(first);
+            case BRANCH -> branch(first);
+            default -> throw new IllegalArgumentException("Unexpected value: " + pt.kind(first));
+        };
+    }
+
+    // ASSIGN := VNAME < input | VNAME = TERM
+    private AST.Command assign(int node) {
+        Token name = pt.token(pt.child(node, 0));
+        if (pt.kind(pt.child(node, 1)) == TokenType.LESS_THAN_SIGN) {
+            return new AST.Input(name);
+        }
+        return new AST.Assign(name, term(pt.child(node, 2)));
+    }
+
+    // CALL := FNAME ( ATOMIC , ATOMIC , ATOMIC )
+    private AST.Call call(int node) {
+        List<AST.Atomic> args = List.of(atomic(pt.child(node, 2)), atomic(pt.child(node, 4)), atomic(pt.child(node, 6)));
+        return new AST.Call(pt.token(pt.child(node, 0)), args);
+    }
+
+    // BRANCH := if COND then ALGO else ALGO
+    private AST.Branch branch(int node) {
+        AST.Algo orElse = pt.childCount(node) > 5 ? algo(pt.child(node, 5)) : null;
+        return new AST.Branch(cond(pt.child(node, 1)), algo(pt.child(node, 3)), orElse);
+    }
+
+    // ATOMIC := VNAME | CONST
+    private AST.Atomic atomic(int node) {
+        return terminal(pt.firstChild(node));
+    }
+
+    private AST.Atomic terminal(int node) {
+        Token token = pt.token(node);
+        return token.type == TokenType.VNAME ? new AST.Var(token) : new AST.Const(token);
+    }
+
+    // TERM := CONST | VNAME | CALL | OP
+    private AST.Term term(int node) {
+        int first = pt.firstChild(node);
+        if (pt.isTerminal(first)) {
+            return terminal(first);
+        }
+        return pt.kind(first) == TokenType.CALL ? call(first) : op(first);
+    }
+
+    // OP := UNOP ( ARG ) | BINOP ( ARG , ARG )
+    private AST.Op op(int node) {
+        Token op = pt.token(pt.child(node, 0));
+        if (op.type == TokenType.NOT || op.type == TokenType.SQRT) {
+            return new AST.Unop(op, arg(pt.child(node, 2)));
+        }
+        return new AST.Binop(op, arg(pt.child(node, 2)), arg(pt.child(node, 4)));
+    }
+
+    // ARG := ATOMIC | OP
+    private AST.Arg arg(int node) {
+        int first = pt.firstChild(node);
+        return pt.kind(first) == TokenType.ATOMIC ? atomic(first) : op(first);
+    }
+
+    // COND := UNOPSIMPLE | BINOPCOMPOSITE
+    private AST.Op cond(int node) {
+        int first = pt.firstChild(node);
+        if (pt.kind(first) == TokenType.UNOPSIMPLE) {
+            // UNOPSIMPLE := UNOP ( BINOPCOMPOSITE )
+            return new AST.Unop(pt.token(pt.child(first, 0)), binopComposite(pt.child(first, 2)));
+        }
+        return binopComposite(first);
+    }
+
+    // BINOPCOMPOSITE := BINOP ( BINOPSIMPLE , BINOPSIMPLE ), BINOPSIMPLE := BINOPCOMPOSITE | ATOMIC
+    private AST.Binop binopComposite(int node) {
+        return new AST.Binop(pt.token(pt.child(node, 0)), binopSimple(pt.child(node, 2)), binopSimple(pt.child(node, 4)));
+    }
+
+    private AST.Arg binopSimple(int node) {
+        int first = pt.firstChild(node);
+        return pt.kind(first) == TokenType.ATOMIC ? atomic(first) : binopComposite(first);
+    }
+}
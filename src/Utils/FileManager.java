@@ -1,22 +1,50 @@
 package Utils;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Scanner;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 public class FileManager {
+    // streams the contents of a file instead of building them as one String first
+    public interface ContentWriter {
+        void write(Writer out) throws IOException;
+    }
+
     public static String readFileAndReturnContents(String path) {
         try {
-            File file = new File(path);
-            String contents;
-            try (Scanner scanner = new Scanner(file)) {
-                contents = scanner.useDelimiter("\\A").next();
+            return new String(Files.readAllBytes(Path.of(path)), Charset.defaultCharset());
+        } catch (NoSuchFileException e) {
+            System.out.println("File not found.");
+            return null;
+        } catch (IOException e) {
+            System.out.println("An error occurred: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // maps the file into memory so the lexer can scan its bytes in place
+    public static ByteSource mapFile(String path) {
+        try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                System.out.println("File is too large to map: " + path);
+                return null;
             }
-            return contents;
-        } catch (FileNotFoundException e) {
+            // the mapping stays valid after the channel is closed
+            return new ByteSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (NoSuchFileException e) {
             System.out.println("File not found.");
             return null;
+        } catch (IOException e) {
+            System.out.println("An error occurred: " + e.getMessage());
+            return null;
         }
     }
 
@@ -39,6 +67,22 @@ public class FileManager {
         }
     }
 
+    public static void createAndWriteFile(String path, ContentWriter contents) {
+        try {
+            File file = new File(path);
+            // Create directories if they do not exist
+            File parentDir = file.getParentFile();
+            if (parentDir != null && !parentDir.exists()) {
+                parentDir.mkdirs();
+            }
+            try (Writer writer = new BufferedWriter(new FileWriter(file), 1 << 16)) {
+                contents.write(writer);
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred: " + e.getMessage());
+        }
+    }
+
     public static void writeFile(String path, String contents) {
         try {
             try (java.io.FileWriter writer = new java.io.FileWriter(path)) {
@@ -0,0 +1,317 @@
+package Utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates SPL programs for scaling and stress runs. The same seed and
+ * settings always give the same program. With no defect the program is valid
+ * all the way through code generation: it lexes, parses, passes scope
+ * analysis and type checks. A defect puts exactly one error of that kind at a
+ * random statement, for testing the error paths.
+ *
+ * Every name is unique in the whole program, so a program of any size never
+ * trips the redeclaration checks. The counts and shapes are public fields,
+ * set them before calling generate.
+ */
+public class ProgramGenerator {
+    // one error a generated program can carry, and the phase that reports it
+    public enum Defect {
+        LEXICAL,              // a text literal the lexer rejects
+        SYNTAX,               // a statement without its ";"
+        UNDECLARED_VARIABLE,  // scope analysis
+        UNDECLARED_FUNCTION,  // scope analysis
+        TYPE_MISMATCH,        // text assigned to a num variable
+    }
+
+    private static final String[] WORDS = { "Hello", "World", "Sum", "Total", "Done", "Start", "Value", "Result" };
+    private static final String[] NUMERIC_BINOPS = { "add", "sub", "mul", "div" };
+
+    public int globals = 4;             // global variables, at least one, every fourth one is text
+    public int statements = 8;          // statements in main and in each function's ALGO
+    public int functions = 4;           // top-level functions, every second one is void
+    public int nestedFunctions = 0;     // functions declared inside each top-level function
+    public int branchDepth = 2;         // how deep if / then / else may nest
+    public int branchStatements = 2;    // statements in each ALGO of a branch
+    public double branchDensity = 0.2;  // chance a statement is a branch, while depth allows
+    public int opDepth = 2;             // how deep operators may nest inside OP / ARG
+    public double callDensity = 0.2;    // chance a statement or assigned term is a function call
+    public Defect defect = null;        // null for a valid program
+
+    private final long seed;
+    private Random random;
+    private Appendable out;
+
+    // statements emitted so far and the one that carries the defect
+    private long statementCount;
+    private long defectAt;
+
+    // names in scope where the statements are being generated
+    private List<String> numVars;
+    private List<String> textVars;
+    private boolean inNumFunction;
+
+    // the top-level functions are the ones called, their ids leave room for the nested ones
+    private int functionStride;
+
+    public ProgramGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public String generate() {
+        StringBuilder sb = new StringBuilder();
+        generate(sb);
+        return sb.toString();
+    }
+
+    public void generate(Appendable out) {
+        this.out = out;
+        this.random = new Random(seed);
+        this.statementCount = 0;
+        this.defectAt = defect == null ? -1 : (long) (random.nextDouble() * (statements * (1L + functions * (1L + nestedFunctions))));
+        this.functionStride = 1 + nestedFunctions;
+
+        try {
+            program();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets the number of top-level functions so the program comes out at
+     * about the given size: estimated from a small program with the same
+     * settings, then corrected once at the estimated size, since names and
+     * numbers get longer as the program grows. Nothing is kept in memory.
+     */
+    public ProgramGenerator sized(long bytes) {
+        Defect savedDefect = defect;
+        defect = null;
+
+        functions = 0;
+        long mainBytes = length();
+        functions = 64;
+        long perFunction = Math.max(1, (length() - mainBytes) / functions);
+        functions = (int) Math.min(Integer.MAX_VALUE, Math.max(0, (bytes - mainBytes) / perFunction));
+
+        if (functions > 64) {
+            double scale = (double) (bytes - mainBytes) / (length() - mainBytes);
+            functions = (int) Math.min(Integer.MAX_VALUE, Math.max(0, Math.round(functions * scale)));
+        }
+
+        defect = savedDefect;
+        return this;
+    }
+
+    // length of the program with the current settings
+    private long length() {
+        long[] count = new long[1];
+        generate(new Appendable() {
+            @Override
+            public Appendable append(CharSequence text) {
+                count[0] += text.length();
+                return this;
+            }
+
+            @Override
+            public Appendable append(CharSequence text, int start, int end) {
+                count[0] += end - start;
+                return this;
+            }
+
+            @Override
+            public Appendable append(char c) {
+                count[0]++;
+                return this;
+            }
+        });
+        return count[0];
+    }
+
+    // PROG := main GLOBVARS ALGO FUNCTIONS
+    private void program() throws IOException {
+        out.append("main\n");
+
+        List<String> globalNums = new ArrayList<>();
+        List<String> globalTexts = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, globals); i++) {
+            boolean text = i % 4 == 3;
+            String name = "V_g" + i;
+            out.append(text ? "text " : "num ").append(name).append(",\n");
+            (text ? globalTexts : globalNums).add(name);
+        }
+
+        numVars = globalNums;
+        textVars = globalTexts;
+        inNumFunction = false;
+        algo(statements, 0, "");
+        out.append("\n");
+
+        for (int i = 0; i < functions; i++) {
+            decl(i * functionStride, i % 2 == 0, nestedFunctions, globalNums, globalTexts, "");
+        }
+    }
+
+    // DECL := HEADER BODY, function i has parameters V_pia, V_pib, V_pic and locals V_lia, V_lib, V_lic,
+    // followed by its nested functions, which nest no further
+    private void decl(int id, boolean num, int nested, List<String> outerNums, List<String> outerTexts, String indent) throws IOException {
+        String p = "V_p" + id;
+        String l = "V_l" + id;
+
+        out.append(indent).append(num ? "num" : "void").append(" F_f").append(String.valueOf(id))
+                .append("(").append(p).append("a, ").append(p).append("b, ").append(p).append("c)\n");
+        out.append(indent).append("{\n");
+        out.append(indent).append("    num ").append(l).append("a, num ").append(l).append("b, text ").append(l).append("c,\n");
+
+        List<String> savedNums = numVars;
+        List<String> savedTexts = textVars;
+        boolean savedNumFunction = inNumFunction;
+
+        numVars = new ArrayList<>(outerNums);
+        numVars.addAll(List.of(p + "a", p + "b", p + "c", l + "a", l + "b"));
+        textVars = new ArrayList<>(outerTexts);
+        textVars.add(l + "c");
+        inNumFunction = num;
+
+        algo(statements, 0, indent + "    ");
+        out.append(indent).append("}\n");
+
+        // code generation only gives a function its own variables and the globals
+        for (int i = 1; i <= nested; i++) {
+            decl(id + i, i % 2 == 1, 0, outerNums, outerTexts, indent + "    ");
+        }
+        out.append(indent).append("end\n");
+
+        numVars = savedNums;
+        textVars = savedTexts;
+        inNumFunction = savedNumFunction;
+    }
+
+    // ALGO := begin INSTRUC end, a num function's outermost ALGO ends with its return
+    private void algo(int count, int depth, String indent) throws IOException {
+        out.append(indent).append("begin\n");
+        for (int i = 0; i < count; i++) {
+            if (depth == 0 && statementCount++ == defectAt) {
+                defectStatement(indent + "    ");
+            } else {
+                command(depth, indent + "    ");
+                out.append(";\n");
+            }
+        }
+        if (depth == 0 && inNumFunction) {
+            out.append(indent).append("    return ").append(numAtomic()).append(";\n");
+        }
+        out.append(indent).append("end");
+        if (depth == 0) {
+            out.append("\n");
+        }
+    }
+
+    private void command(int depth, String indent) throws IOException {
+        out.append(indent);
+
+        if (depth < branchDepth && random.nextDouble() < branchDensity) {
+            branch(depth, indent);
+            return;
+        }
+        if (functions > 1 && random.nextDouble() < callDensity) {
+            out.append(call(false));
+            return;
+        }
+
+        switch (random.nextInt(10)) {
+            case 0 -> out.append("skip");
+            case 1, 2 -> out.append("print ").append(atomic());
+            case 3 -> out.append(pick(numVars)).append(" < input");
+            case 4 -> {
+                if (textVars.isEmpty()) {
+                    out.append(pick(numVars)).append(" = ").append(numAtomic());
+                } else {
+                    out.append(pick(textVars)).append(" = ").append(random.nextBoolean() ? textLiteral() : pick(textVars));
+                }
+            }
+            default -> out.append(pick(numVars)).append(" = ").append(numTerm());
+        }
+    }
+
+    // BRANCH := if COND then ALGO else ALGO, the type checker wants the else
+    private void branch(int depth, String indent) throws IOException {
+        out.append("if ").append(cond()).append(" then\n");
+        algo(branchStatements, depth + 1, indent);
+        out.append("\n").append(indent).append("else\n");
+        algo(branchStatements, depth + 1, indent);
+    }
+
+    // COND := not ( comparison ) | and / or ( BINOPSIMPLE , BINOPSIMPLE ) | comparison
+    private String cond() {
+        return switch (random.nextInt(3)) {
+            case 0 -> "not(" + comparison() + ")";
+            case 1 -> (random.nextBoolean() ? "and(" : "or(") + comparison() + ", " + comparison() + ")";
+            default -> comparison();
+        };
+    }
+
+    private String comparison() {
+        return (random.nextBoolean() ? "eq(" : "grt(") + numAtomic() + ", " + numAtomic() + ")";
+    }
+
+    // TERM := CONST | VNAME | CALL | OP, of type num
+    private String numTerm() {
+        if (functions > 0 && random.nextDouble() < callDensity) {
+            return call(true);
+        }
+        return opDepth > 0 && random.nextBoolean() ? op(opDepth) : numAtomic();
+    }
+
+    // OP := UNOP ( ARG ) | BINOP ( ARG , ARG ), numeric operators only
+    private String op(int depth) {
+        if (random.nextInt(5) == 0) {
+            return "sqrt(" + arg(depth - 1) + ")";
+        }
+        return pick(NUMERIC_BINOPS) + "(" + arg(depth - 1) + ", " + arg(depth - 1) + ")";
+    }
+
+    private String arg(int depth) {
+        return depth > 0 && random.nextBoolean() ? op(depth) : numAtomic();
+    }
+
+    // CALL := FNAME ( ATOMIC , ATOMIC , ATOMIC ) of a top-level num (even) or void (odd) function
+    private String call(boolean num) {
+        int index = num ? 2 * random.nextInt((functions + 1) / 2) : 2 * random.nextInt(functions / 2) + 1;
+        return "F_f" + (index * functionStride) + "(" + numAtomic() + ", " + numAtomic() + ", " + numAtomic() + ")";
+    }
+
+    private String atomic() {
+        return textVars.isEmpty() || random.nextInt(3) > 0 ? numAtomic() : random.nextBoolean() ? pick(textVars) : textLiteral();
+    }
+
+    private String numAtomic() {
+        return numVars.isEmpty() || random.nextInt(3) == 0 ? String.valueOf(random.nextInt(100)) : pick(numVars);
+    }
+
+    private String textLiteral() {
+        return "\"" + pick(WORDS) + "\"";
+    }
+
+    private void defectStatement(String indent) throws IOException {
+        out.append(indent);
+        switch (defect) {
+            case LEXICAL -> out.append("print \"lower\";\n");
+            case SYNTAX -> out.append(pick(numVars)).append(" = ").append(numAtomic()).append("\n");
+            case UNDECLARED_VARIABLE -> out.append(pick(numVars)).append(" = V_undeclared;\n");
+            case UNDECLARED_FUNCTION -> out.append(pick(numVars)).append(" = F_undeclared(1, 2, 3);\n");
+            case TYPE_MISMATCH -> out.append(pick(numVars)).append(" = ").append(textLiteral()).append(";\n");
+        }
+    }
+
+    private String pick(List<String> names) {
+        return names.get(random.nextInt(names.size()));
+    }
+
+    private String pick(String[] names) {
+        return names[random.nextInt(names.length)];
+    }
+}
@@ -2,71 +2,144 @@ package Utils;
 
 import java.util.Map;
 import java.util.HashMap;
-import java.util.ArrayList;
-import java.util.List;
 import Interfaces.SymbolTableEntry;
 
+/**
+ * A scope's symbols and child scopes. The global scope keeps its symbols in a
+ * hash map, it holds every global and top-level function. A function scope
+ * holds its three parameters, three locals and any nested functions, so it
+ * keeps them in small inline arrays with linear probing, sized for the six
+ * and grown only when there are nested functions. Child scopes are indexed
+ * by name once there are any.
+ */
 public class Scope {
+    private static final int SLOTS = 8; // the six variables of a function at most 3/4 full
+
     public Scope parent;
     public int scopeLevel;
     public String scopeName;
-    public Map<String, SymbolTableEntry> symbols = new HashMap<>();
-    public List<Scope> childScopes = new ArrayList<>();
+
+    private Map<String, SymbolTableEntry> symbols;  // global scope
+    private String[] names;                         // function scopes, open addressing
+    private SymbolTableEntry[] entries;
+    private int size;
+
+    // the first child scope of each name, later ones of the same name follow it in sameName
+    private Map<String, Scope> childScopes;
+    private Scope sameName;
 
     public Scope(Scope parent, String scopeName, int scopeLevel) {
         this.parent = parent;
         this.scopeName = scopeName;
         this.scopeLevel = scopeLevel;
-        if (parent != null) {
-            parent.childScopes.add(this);
+        if (parent == null) {
+            symbols = new HashMap<>();
+        } else {
+            names = new String[SLOTS];
+            entries = new SymbolTableEntry[SLOTS];
+            parent.addChildScope(this);
         }
     }
 
     public boolean containsInCurrentScope(String name) {
-        return symbols.containsKey(name);
+        return get(name) != null;
     }
 
     public Scope getChildScope(String name) {
-        for (Scope child : childScopes) {
-            if (child.scopeName.equals(name)) {
-                return child;
-            }
-        }
-        return null;
+        return childScopes == null ? null : childScopes.get(name);
     }
 
     public SymbolTableEntry lookup(String name) {
-        SymbolTableEntry entry = symbols.get(name);
-        if (entry != null) {
-            return entry;
-        } else if (parent != null) {
-            return parent.lookup(name);
+        for (Scope scope = this; scope != null; scope = scope.parent) {
+            SymbolTableEntry entry = scope.get(name);
+            if (entry != null) {
+                return entry;
+            }
         }
         return null;
     }
 
     public SymbolTableEntry lookupFunction(String name) {
-        SymbolTableEntry entry = symbols.get(name);
-        if (entry != null && entry.kind.equals("function")) {
-            return entry;
-        } else if (parent != null) {
-            return parent.lookupFunction(name);
+        for (Scope scope = this; scope != null; scope = scope.parent) {
+            SymbolTableEntry entry = scope.get(name);
+            if (entry != null && entry.kind.equals("function")) {
+                return entry;
+            }
         }
         return null;
     }
 
     public void addSymbol(SymbolTableEntry entry) {
-        symbols.put(entry.originalName, entry);
+        if (symbols != null) {
+            symbols.put(entry.originalName, entry);
+            return;
+        }
+
+        if ((size + 1) * 4 > names.length * 3) {
+            grow();
+        }
+        int slot = slot(entry.originalName);
+        if (names[slot] == null) {
+            names[slot] = entry.originalName;
+            size++;
+        }
+        entries[slot] = entry;
     }
 
     public boolean hasSiblingScope(String name) {
         if (parent != null) {
-            for (Scope sibling : parent.childScopes) {
-                if (sibling != this && sibling.scopeName.equals(name)) {
+            for (Scope sibling = parent.getChildScope(name); sibling != null; sibling = sibling.sameName) {
+                if (sibling != this) {
                     return true;
                 }
             }
         }
         return false;
     }
-}
\ No newline at end of file
+
+    private SymbolTableEntry get(String name) {
+        if (symbols != null) {
+            return symbols.get(name);
+        }
+        return name == null ? null : entries[slot(name)];
+    }
+
+    // the slot holding name, or the empty slot where it goes
+    private int slot(String name) {
+        int mask = names.length - 1;
+        int slot = name.hashCode() & mask;
+        while (names[slot] != null && !names[slot].equals(name)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        String[] oldNames = names;
+        SymbolTableEntry[] oldEntries = entries;
+        names = new String[oldNames.length * 2];
+        entries = new SymbolTableEntry[oldNames.length * 2];
+
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] != null) {
+                int slot = slot(oldNames[i]);
+                names[slot] = oldNames[i];
+                entries[slot] = oldEntries[i];
+            }
+        }
+    }
+
+    private void addChildScope(Scope child) {
+        if (childScopes == null) {
+            childScopes = new HashMap<>();
+        }
+        Scope first = childScopes.putIfAbsent(child.scopeName, child);
+        if (first != null) {
+            Scope last = first;
+            while (last.sameName != null) {
+                last = last.sameName;
+            }
+            last.sameName = child;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package Utils;
+
+import java.util.Arrays;
+
+/**
+ * Line index over a source file. The start offset of every line is recorded
+ * once, and the text of a line is only sliced out when a diagnostic needs it.
+ */
+public class SourceMap {
+    private final CharSequence source;
+    private final int[] lineStarts;
+    private final int lineCount;
+
+    public SourceMap(CharSequence source) {
+        this.source = source;
+
+        int[] starts = new int[16];
+        int count = 1;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+        }
+
+        this.lineStarts = starts;
+        this.lineCount = count;
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+
+    // offset of the first character of a 1-based line
+    public int lineStart(int line) {
+        return lineStarts[line - 1];
+    }
+
+    // 1-based line containing the offset
+    public int lineOf(int offset) {
+        int index = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    // 1-based column of the offset within its line
+    public int columnOf(int offset) {
+        return offset - lineStart(lineOf(offset)) + 1;
+    }
+
+    // text of a 1-based line without its line terminator
+    public String lineText(int line) {
+        if (line < 1 || line > lineCount) {
+            return "";
+        }
+        int start = lineStarts[line - 1];
+        int end = line < lineCount ? lineStarts[line] - 1 : source.length();
+        if (end > start && source.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return source.subSequence(start, end).toString();
+    }
+}
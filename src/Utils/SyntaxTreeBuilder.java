@@ -0,0 +1,98 @@
+package Utils;
+
+import Interfaces.ParseNode;
+import Interfaces.ParseTree;
+import Interfaces.ParseType;
+import Interfaces.SyntaxTreeNode;
+import Interfaces.TokenType;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Lowers a parse tree straight into the syntax tree the later passes work on.
+ * The result has the same shape, ids and values as writing the tree out with
+ * {@link XMLGenerator#generatePARSERXML} and reading it back through
+ * {@link SyntaxTreeParser}, without the file and the DOM in between.
+ */
+public class SyntaxTreeBuilder {
+    public SyntaxTreeNode build(ParseNode parseTree) {
+        SyntaxTreeNode root = lower(parseTree);
+
+        // explicit stack, the INSTRUC and FUNCTIONS chains can be nested very deeply
+        Deque<ParseNode> parseNodes = new ArrayDeque<>();
+        Deque<SyntaxTreeNode> treeNodes = new ArrayDeque<>();
+        parseNodes.push(parseTree);
+        treeNodes.push(root);
+
+        while (!parseNodes.isEmpty()) {
+            ParseNode parseNode = parseNodes.pop();
+            SyntaxTreeNode treeNode = treeNodes.pop();
+
+            if (parseNode.type == ParseType.TERMINAL || parseNode.children == null) {
+                continue;
+            }
+            for (ParseNode child : parseNode.children) {
+                SyntaxTreeNode childTreeNode = lower(child);
+                treeNode.addChild(childTreeNode);
+                parseNodes.push(child);
+                treeNodes.push(childTreeNode);
+            }
+        }
+
+        return root;
+    }
+
+    public SyntaxTreeNode build(ParseTree parseTree) {
+        int rootNode = parseTree.root();
+        SyntaxTreeNode root = lower(parseTree, rootNode);
+
+        Deque<Integer> parseNodes = new ArrayDeque<>();
+        Deque<SyntaxTreeNode> treeNodes = new ArrayDeque<>();
+        parseNodes.push(rootNode);
+        treeNodes.push(root);
+
+        while (!parseNodes.isEmpty()) {
+            int parseNode = parseNodes.pop();
+            SyntaxTreeNode treeNode = treeNodes.pop();
+
+            for (int child = parseTree.firstChild(parseNode); child != ParseTree.NONE; child = parseTree.nextSibling(child)) {
+                SyntaxTreeNode childTreeNode = lower(parseTree, child);
+                treeNode.addChild(childTreeNode);
+                parseNodes.push(child);
+                treeNodes.push(childTreeNode);
+            }
+        }
+
+        return root;
+    }
+
+    // a terminal keeps its token id and value, a nonterminal is tagged by its name
+    private SyntaxTreeNode lower(ParseNode parseNode) {
+        if (parseNode.type == ParseType.TERMINAL) {
+            SyntaxTreeNode treeNode = new SyntaxTreeNode(parseNode.token.type, parseNode.token.Value);
+            treeNode.id = String.valueOf(parseNode.token.id);
+            if (isName(treeNode.symbol)) {
+                treeNode.token = parseNode.token;
+            }
+            return treeNode;
+        }
+        return new SyntaxTreeNode(TokenType.valueOf(parseNode.nonterminalname));
+    }
+
+    private SyntaxTreeNode lower(ParseTree parseTree, int node) {
+        if (parseTree.isTerminal(node)) {
+            SyntaxTreeNode treeNode = new SyntaxTreeNode(parseTree.kind(node), parseTree.value(node));
+            treeNode.id = String.valueOf(parseTree.tokenId(node));
+            if (isName(treeNode.symbol)) {
+                treeNode.token = parseTree.token(node);
+            }
+            return treeNode;
+        }
+        return new SyntaxTreeNode(parseTree.kind(node));
+    }
+
+    // names share their token with the parse tree, scope analysis binds it for code generation
+    private static boolean isName(TokenType symbol) {
+        return symbol == TokenType.VNAME || symbol == TokenType.FNAME;
+    }
+}
@@ -1,84 +1,160 @@
 package Utils;
 
-import org.w3c.dom.*;
-import java.io.File;
+import java.io.InputStream;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import Interfaces.TokenType;
 import Interfaces.SyntaxTreeNode;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 
+/**
+ * Loads a syntax tree from a parser.xml file. The document is read with StAX
+ * in one forward pass, so no DOM of it is built and no element's text is
+ * copied out of one. The SyntaxTreeNode tree it returns is still built whole
+ * in memory.
+ */
 public class SyntaxTreeParser {
+    // tag name -> symbol, so TokenType.valueOf runs once per distinct tag
+    private final Map<String, TokenType> symbols = new HashMap<>();
+
     public SyntaxTreeNode parse(String xmlFilePath) {
-        try {
-            // Initialize XML parser
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
+        XMLStreamReader reader = null;
 
-            Document doc = builder.parse(new File(xmlFilePath));
-            doc.getDocumentElement().normalize();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(xmlFilePath))) {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            reader = factory.createXMLStreamReader(in);
 
-            // Get the root element (PARSETREE)
-            Element rootElement = doc.getDocumentElement();
+            reader.nextTag();
 
-            if (!rootElement.getTagName().equals("PARSETREE")) {
+            // Get the root element (PARSETREE)
+            if (!reader.getLocalName().equals("PARSETREE")) {
                 throw new Exception("Invalid syntax tree XML file.");
             }
 
-            // Parse the PROG element
-            NodeList childNodes = rootElement.getChildNodes();
-
-            for (int i = 0; i < childNodes.getLength(); i++) {
-                Node node = childNodes.item(i);
-
-                if (node.getNodeType() == Node.ELEMENT_NODE) {
-                    Element progElement = (Element) node;
-
-                    return parseNode(progElement);
-                }
-            }
+            return parseTree(reader);
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (Exception e) {
+                    // the stream itself is closed by the try block
+                }
+            }
         }
 
         return null;
     }
 
-    private SyntaxTreeNode parseNode(Element element) {
-        TokenType symbol = TokenType.valueOf(element.getTagName());
-        SyntaxTreeNode treeNode = new SyntaxTreeNode(symbol);
-
-        boolean hasChildren = false;
-        NodeList childNodes = element.getChildNodes();
-
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node node = childNodes.item(i);
-
-            if (node.getNodeType() == Node.ELEMENT_NODE) {
-                hasChildren = true;
-
-                Element childElement = (Element) node;
-                String childTag = childElement.getTagName();
-
-                if (childTag.equals("ID")) {
-                    String id = childElement.getTextContent();
-                    treeNode.id = id;
-                } else if (childTag.equals("VALUE")) {
-                    String value = childElement.getTextContent();
-                    treeNode.value = value;
-                } else {
-                    // Recursive call for other elements
-                    SyntaxTreeNode childTreeNode = parseNode(childElement);
-                    treeNode.addChild(childTreeNode);
+    // builds the first element under PARSETREE, then reads on to the end so that malformed files are still rejected
+    private SyntaxTreeNode parseTree(XMLStreamReader reader) throws Exception {
+        SyntaxTreeNode root = null;
+        Deque<Frame> stack = new ArrayDeque<>();
+        // text of the innermost element, only kept while it has no child elements
+        StringBuilder text = new StringBuilder();
+        // the <ID> or <VALUE> being read, and how deep inside it the reader is
+        String field = null;
+        int fieldDepth = 0;
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT: {
+                    String tag = reader.getLocalName();
+
+                    if (field != null) {
+                        // markup inside <ID> or <VALUE> only contributes its text
+                        fieldDepth++;
+                    } else if (stack.isEmpty()) {
+                        if (root == null) {
+                            root = new SyntaxTreeNode(symbolOf(tag));
+                            stack.push(new Frame(root));
+                        } else {
+                            // only the first element is part of the tree, later ones are skipped over like field text
+                            field = tag;
+                            fieldDepth = 1;
+                        }
+                    } else {
+                        Frame parent = stack.peek();
+                        parent.hasChildren = true;
+
+                        if (tag.equals("ID") || tag.equals("VALUE")) {
+                            field = tag;
+                            fieldDepth = 1;
+                        } else {
+                            SyntaxTreeNode child = new SyntaxTreeNode(symbolOf(tag));
+                            parent.node.addChild(child);
+                            stack.push(new Frame(child));
+                        }
+                    }
+
+                    if (fieldDepth <= 1) {
+                        text.setLength(0);
+                    }
+                    break;
+                }
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+                case XMLStreamConstants.END_ELEMENT: {
+                    if (field != null) {
+                        if (--fieldDepth == 0) {
+                            if (!stack.isEmpty()) {
+                                if (field.equals("ID")) {
+                                    stack.peek().node.id = text.toString();
+                                } else {
+                                    stack.peek().node.value = text.toString();
+                                }
+                            }
+                            field = null;
+                        }
+                    } else if (!stack.isEmpty()) {
+                        Frame frame = stack.pop();
+
+                        // Handle text nodes (e.g., whitespace)
+                        if (!frame.hasChildren) {
+                            String value = text.toString().trim();
+                            if (!value.isEmpty()) {
+                                frame.node.value = value;
+                            }
+                        }
+                    }
+                    break;
                 }
+                default:
+                    break;
             }
         }
 
-        // Handle text nodes (e.g., whitespace)
-        if (!hasChildren && element.getTextContent() != null && !element.getTextContent().trim().isEmpty()) {
-            treeNode.value = element.getTextContent().trim();
+        return root;
+    }
+
+    private TokenType symbolOf(String tag) {
+        TokenType symbol = symbols.get(tag);
+        if (symbol == null) {
+            symbol = TokenType.valueOf(tag);
+            symbols.put(tag, symbol);
         }
+        return symbol;
+    }
 
-        return treeNode;
+    private static class Frame {
+        final SyntaxTreeNode node;
+        boolean hasChildren;
+
+        Frame(SyntaxTreeNode node) {
+            this.node = node;
+        }
     }
 }
@@ -0,0 +1,160 @@
+package Utils;
+
+import Interfaces.SyntaxTreeNode;
+import Interfaces.TokenType;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Depth-first walk over a syntax tree with an explicit stack, so the semantic
+ * passes handle trees of any depth without recursing on the Java stack. A pass
+ * registers its enter and exit callbacks by node symbol once, a walk then
+ * allocates nothing apart from growing the stack.
+ *
+ * Enter runs before a node's children and may skip them. Exit runs after the
+ * children, also when they were skipped, and returns the node's result. A
+ * node without an exit callback results in the AND of its children's results.
+ */
+public class SyntaxTreeWalker {
+    public interface Enter {
+        // false skips the node's children
+        boolean enter(SyntaxTreeNode node);
+    }
+
+    public interface Exit {
+        boolean exit(SyntaxTreeNode node);
+    }
+
+    private static final int SYMBOLS = TokenType.values().length;
+    private static final int FIRST_TAG = TokenType.PROG.ordinal(); // symbols before it are tokens, the leaves
+
+    private final Enter[] enters = new Enter[SYMBOLS];
+    private final Exit[] exits = new Exit[SYMBOLS];
+    private final boolean[] hooked = new boolean[SYMBOLS]; // symbols with an enter or exit callback
+
+    // one frame per node on the path from the root: the node, its next child,
+    // the state its callbacks keep and the AND of its children's results
+    private SyntaxTreeNode[] nodes = new SyntaxTreeNode[64];
+    private int[] nextChild = new int[64];
+    private int[] states = new int[64];
+    private boolean[] results = new boolean[64];
+    private int top = -1;
+    private int base = -1; // top below the root of the innermost walk
+
+    public SyntaxTreeWalker onEnter(TokenType symbol, Enter enter) {
+        enters[symbol.ordinal()] = enter;
+        hooked[symbol.ordinal()] = true;
+        return this;
+    }
+
+    public SyntaxTreeWalker onExit(TokenType symbol, Exit exit) {
+        exits[symbol.ordinal()] = exit;
+        hooked[symbol.ordinal()] = true;
+        return this;
+    }
+
+    /**
+     * Walks the tree under root and returns the root's result. A callback may
+     * start another walk on the same walker, it runs on top of the current one.
+     */
+    public boolean walk(SyntaxTreeNode root) {
+        if (root == null) {
+            return true;
+        }
+
+        int outerBase = base;
+        base = top;
+        boolean result = true;
+
+        try {
+            push(root);
+
+            while (top > base) {
+                SyntaxTreeNode node = nodes[top];
+                List<SyntaxTreeNode> children = node.children;
+                int size = children.size();
+                int i = nextChild[top];
+
+                // the next child to visit, most leaves are tokens no pass looks at and their result is true
+                SyntaxTreeNode next = null;
+                while (i < size && next == null) {
+                    SyntaxTreeNode child = children.get(i++);
+                    int symbol = child == null ? -1 : child.symbol.ordinal();
+                    if (symbol >= 0 && (hooked[symbol] || symbol >= FIRST_TAG && !child.children.isEmpty())) {
+                        next = child;
+                    }
+                }
+
+                if (next != null) {
+                    nextChild[top] = i;
+                    push(next);
+                    continue;
+                }
+
+                Exit exit = exits[node.symbol.ordinal()];
+                boolean nodeResult = exit == null ? results[top] : exit.exit(node);
+                nodes[top--] = null;
+
+                if (top > base) {
+                    results[top] &= nodeResult;
+                } else {
+                    result = nodeResult;
+                }
+            }
+        } finally {
+            // a callback that throws leaves its frames behind
+            while (top > base) {
+                nodes[top--] = null;
+            }
+            base = outerBase;
+        }
+
+        return result;
+    }
+
+    // the parent of the node whose callback is running, null for the root
+    public SyntaxTreeNode parent() {
+        return top - 1 > base ? nodes[top - 1] : null;
+    }
+
+    // stops the walk from visiting the rest of the parent's children
+    public void skipSiblings() {
+        if (top - 1 > base) {
+            nextChild[top - 1] = Integer.MAX_VALUE;
+        }
+    }
+
+    // AND of the results of the children visited so far
+    public boolean childrenResult() {
+        return results[top];
+    }
+
+    // a value the node's enter callback leaves for its exit callback, 0 by default
+    public int state() {
+        return states[top];
+    }
+
+    public void setState(int state) {
+        states[top] = state;
+    }
+
+    private void push(SyntaxTreeNode node) {
+        if (++top == nodes.length) {
+            int capacity = nodes.length * 2;
+            nodes = Arrays.copyOf(nodes, capacity);
+            nextChild = Arrays.copyOf(nextChild, capacity);
+            states = Arrays.copyOf(states, capacity);
+            results = Arrays.copyOf(results, capacity);
+        }
+
+        nodes[top] = node;
+        nextChild[top] = 0;
+        states[top] = 0;
+        results[top] = true;
+
+        Enter enter = enters[node.symbol.ordinal()];
+        if (enter != null && !enter.enter(node)) {
+            nextChild[top] = Integer.MAX_VALUE;
+        }
+    }
+}
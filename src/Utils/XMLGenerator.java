@@ -1,35 +1,290 @@
 package Utils;
 
 import Interfaces.ParseNode;
+import Interfaces.ParseTree;
+import Interfaces.ParseType;
 import Interfaces.Token;
+import Interfaces.TokenBuffer;
 import Interfaces.TokenType;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 
+/**
+ * Writes lexer.xml and parser.xml. Both documents are streamed to a Writer in
+ * one pass; the String returning variants just collect that output.
+ */
 public class XMLGenerator {
     public static String generateLEXERXML(List<Token> tokens) {
-        StringBuilder xml = new StringBuilder();
-        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        xml.append("<TOKENSTREAM>\n");
+        StringWriter out = new StringWriter();
+        try {
+            writeLEXERXML(tokens, out);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return out.toString();
+    }
+
+    public static String generateLEXERXML(TokenBuffer tokens) {
+        StringWriter out = new StringWriter();
+        try {
+            writeLEXERXML(tokens, out);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return out.toString();
+    }
+
+    public static String generatePARSERXML(ParseNode parseTree) {
+        StringWriter out = new StringWriter();
+        try {
+            writePARSERXML(parseTree, out);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return out.toString();
+    }
+
+    public static String generatePARSERXML(ParseTree parseTree) {
+        StringWriter out = new StringWriter();
+        try {
+            writePARSERXML(parseTree, out);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return out.toString();
+    }
+
+    public static void writeLEXERXML(List<Token> tokens, Writer out) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<TOKENSTREAM>\n");
         for (Token token : tokens) {
             if (token.type == TokenType.NULLTYPE) {
                 continue;
             }
-            xml.append("  <TOK>\n");
-            xml.append("    <ID>").append(token.uuid).append("</ID>\n");
-            xml.append("    <CLASS>").append(token.type).append("</CLASS>\n");
-            xml.append("    <WORD>").append(token.Value).append("</WORD>\n");
-            xml.append("  </TOK>\n");
+            out.write("  <TOK>\n");
+            out.write("    <ID>");
+            out.write(Integer.toString(token.id));
+            out.write("</ID>\n");
+            out.write("    <CLASS>");
+            out.write(token.type.name());
+            out.write("</CLASS>\n");
+            out.write("    <WORD>");
+            escape(out, token.Value, 0, token.Value.length());
+            out.write("</WORD>\n");
+            out.write("  </TOK>\n");
         }
-        xml.append("</TOKENSTREAM>\n");
-        return xml.toString();
+        out.write("</TOKENSTREAM>\n");
     }
 
-    public static String generatePARSERXML(ParseNode parseTree) {
-        StringBuilder xml = new StringBuilder();
-        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        xml.append("<PARSETREE>\n");
-        xml.append(parseTree.toXML(" "));
-        xml.append("</PARSETREE>\n");
-        return xml.toString();
+    public static void writeLEXERXML(TokenBuffer tokens, Writer out) throws IOException {
+        CharSequence source = tokens.source();
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<TOKENSTREAM>\n");
+        for (int i = 0; i < tokens.size(); i++) {
+            int start = tokens.start(i);
+            int end = start + tokens.length(i);
+            if (tokens.type(i) == TokenType.TEXTLIT) {
+                // the value of a text literal has no quotes
+                start++;
+                end--;
+            }
+            out.write("  <TOK>\n");
+            out.write("    <ID>");
+            out.write(Integer.toString(tokens.id(i)));
+            out.write("</ID>\n");
+            out.write("    <CLASS>");
+            out.write(tokens.type(i).name());
+            out.write("</CLASS>\n");
+            out.write("    <WORD>");
+            escape(out, source, start, end);
+            out.write("</WORD>\n");
+            out.write("  </TOK>\n");
+        }
+        out.write("</TOKENSTREAM>\n");
+    }
+
+    public static void writePARSERXML(ParseNode parseTree, Writer out) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<PARSETREE>\n");
+        writeParseTree(parseTree, " ", out);
+        out.write("</PARSETREE>\n");
+    }
+
+    public static void writePARSERXML(ParseTree parseTree, Writer out) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<PARSETREE>\n");
+        writeParseTree(parseTree, parseTree.root(), " ", out);
+        out.write("</PARSETREE>\n");
+    }
+
+    /**
+     * Writes a parse tree in the layout of {@link ParseNode#toXML}: a
+     * nonterminal ends with a newline, a terminal does not, and every child is
+     * followed by one more newline. The tree is walked with an explicit stack
+     * and every line's indentation is written from one shared buffer.
+     */
+    public static void writeParseTree(ParseNode root, String prefix, Writer out) throws IOException {
+        char[] indent = prefix.toCharArray();
+        int base = indent.length;
+
+        if (root.type == ParseType.TERMINAL) {
+            writeTerminal(root.token, indent, base, out);
+            return;
+        }
+
+        Deque<ParseNode> nodes = new ArrayDeque<>();
+        // index of the next child to write, per node on the stack
+        int[] next = new int[16];
+
+        writeIndent(out, indent, base);
+        writeTag(out, "<", root.nonterminalname, ">\n");
+        nodes.push(root);
+
+        while (!nodes.isEmpty()) {
+            ParseNode node = nodes.peek();
+            int depth = nodes.size() - 1;
+            int width = base + 2 * depth;
+
+            if (next[depth] < node.children.size()) {
+                ParseNode child = node.children.get(next[depth]++);
+                int childWidth = width + 2;
+                if (childWidth > indent.length) {
+                    indent = Arrays.copyOf(indent, Math.max(childWidth, indent.length * 2));
+                    Arrays.fill(indent, base, indent.length, ' ');
+                }
+
+                if (child.type == ParseType.TERMINAL) {
+                    writeTerminal(child.token, indent, childWidth, out);
+                    out.write('\n');
+                } else {
+                    writeIndent(out, indent, childWidth);
+                    writeTag(out, "<", child.nonterminalname, ">\n");
+                    if (depth + 1 == next.length) {
+                        next = Arrays.copyOf(next, next.length * 2);
+                    }
+                    next[depth + 1] = 0;
+                    nodes.push(child);
+                }
+            } else {
+                writeIndent(out, indent, width);
+                writeTag(out, "</", node.nonterminalname, ">\n");
+                nodes.pop();
+                if (!nodes.isEmpty()) {
+                    out.write('\n');
+                }
+            }
+        }
+    }
+
+    // same layout for the compact tree, the stack holds the cursor of the next child to write
+    public static void writeParseTree(ParseTree tree, int root, String prefix, Writer out) throws IOException {
+        char[] indent = prefix.toCharArray();
+        int base = indent.length;
+
+        if (tree.isTerminal(root)) {
+            writeTerminal(tree.kind(root), tree.tokenId(root), tree.value(root), indent, base, out);
+            return;
+        }
+
+        int[] nodes = new int[16];
+        int[] next = new int[16];
+        int depth = 0;
+
+        writeIndent(out, indent, base);
+        writeTag(out, "<", tree.name(root), ">\n");
+        nodes[0] = root;
+        next[0] = tree.firstChild(root);
+
+        while (depth >= 0) {
+            int node = nodes[depth];
+            int width = base + 2 * depth;
+
+            if (next[depth] != ParseTree.NONE) {
+                int child = next[depth];
+                next[depth] = tree.nextSibling(child);
+                int childWidth = width + 2;
+                if (childWidth > indent.length) {
+                    indent = Arrays.copyOf(indent, Math.max(childWidth, indent.length * 2));
+                    Arrays.fill(indent, base, indent.length, ' ');
+                }
+
+                if (tree.isTerminal(child)) {
+                    writeTerminal(tree.kind(child), tree.tokenId(child), tree.value(child), indent, childWidth, out);
+                    out.write('\n');
+                } else {
+                    writeIndent(out, indent, childWidth);
+                    writeTag(out, "<", tree.name(child), ">\n");
+                    if (depth + 1 == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                        next = Arrays.copyOf(next, next.length * 2);
+                    }
+                    depth++;
+                    nodes[depth] = child;
+                    next[depth] = tree.firstChild(child);
+                }
+            } else {
+                writeIndent(out, indent, width);
+                writeTag(out, "</", tree.name(node), ">\n");
+                depth--;
+                if (depth >= 0) {
+                    out.write('\n');
+                }
+            }
+        }
+    }
+
+    private static void writeTerminal(Token token, char[] indent, int width, Writer out) throws IOException {
+        writeTerminal(token.type, token.id, token.Value, indent, width, out);
+    }
+
+    private static void writeTerminal(TokenType type, int id, String value, char[] indent, int width, Writer out) throws IOException {
+        writeIndent(out, indent, width);
+        writeTag(out, "<", type.name(), ">\n");
+        writeIndent(out, indent, width);
+        out.write(" <ID>");
+        out.write(Integer.toString(id));
+        out.write("</ID>\n");
+        writeIndent(out, indent, width);
+        out.write(" <VALUE>");
+        escape(out, value, 0, value.length());
+        out.write("</VALUE>\n");
+        writeIndent(out, indent, width);
+        writeTag(out, "</", type.name(), ">");
+    }
+
+    private static void writeIndent(Writer out, char[] indent, int width) throws IOException {
+        out.write(indent, 0, width);
+    }
+
+    private static void writeTag(Writer out, String open, String name, String close) throws IOException {
+        out.write(open);
+        out.write(name);
+        out.write(close);
+    }
+
+    // writes text content with the XML markup characters escaped
+    private static void escape(Writer out, CharSequence text, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    out.write("&amp;");
+                    break;
+                case '<':
+                    out.write("&lt;");
+                    break;
+                case '>':
+                    out.write("&gt;");
+                    break;
+                default:
+                    out.write(c);
+                    break;
+            }
+        }
     }
 }